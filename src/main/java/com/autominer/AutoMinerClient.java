@@ -1,20 +1,41 @@
 package com.autominer;
 
 import com.autominer.combat.CombatController;
+import com.autominer.config.AutoTuner;
+import com.autominer.config.ConfigManager;
+import com.autominer.config.MinerConfig;
+import com.autominer.coop.ShardRunner;
+import com.autominer.mining.BlockFilter;
 import com.autominer.mining.MiningController;
+import com.autominer.mining.TunnelGenerator;
+import com.autominer.mining.VeinMiner;
+import com.autominer.movement.MovementController;
+import com.autominer.movement.SetbackMonitor;
+import com.autominer.net.LatencyEstimator;
+import com.autominer.net.ServerFeedbackEvents;
+import com.autominer.selection.Shape;
+import com.autominer.selection.ShapeMode;
 import net.fabricmc.api.ClientModInitializer;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientEntityEvents;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.keybinding.v1.KeyBindingHelper;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.option.KeyBinding;
 import net.minecraft.client.option.KeyBinding.Category;
 import net.minecraft.client.util.InputUtil;
+import net.minecraft.inventory.Inventory;
 import net.minecraft.text.Text;
 import net.minecraft.util.hit.BlockHitResult;
 import net.minecraft.util.hit.HitResult;
 import net.minecraft.util.math.BlockPos;
 import org.lwjgl.glfw.GLFW;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
 public class AutoMinerClient implements ClientModInitializer {
     
     public static final String MOD_ID = "auto-miner";
@@ -26,19 +47,52 @@ public class AutoMinerClient implements ClientModInitializer {
     private static KeyBinding keyClear;
     private static KeyBinding keyReachToggle;
     private static KeyBinding keyCombatToggle;
+    private static KeyBinding keyFilterCycle;
+    private static KeyBinding keyVein;
+    private static KeyBinding keyTunnel;
+    private static KeyBinding keyShapeCycle;
+    private static KeyBinding keyCoop;
+    private static KeyBinding keyMarkChest;
+    private static KeyBinding keyDumpRecorder;
+    private static KeyBinding keyAutoTune;
     
     // Selection positions
     public static BlockPos pos1 = null;
     public static BlockPos pos2 = null;
     
+    // Selection shape, cycled with the shape key; polygons collect outline vertices with pos1
+    private static ShapeMode shapeMode = ShapeMode.CUBOID;
+    private static final List<BlockPos> polygonVertices = new ArrayList<>();
+    
     // Mining controller
     public static MiningController miningController;
     
     // Combat controller
     public static CombatController combatController;
+    
+    // Splits the selection into shards shared with other clients
+    public static ShardRunner shardRunner;
+    
+    // Connection latency shared by the controllers
+    public static LatencyEstimator latencyEstimator;
+    
+    // Server position corrections and per-movement speed budgets, shared by the controllers
+    public static SetbackMonitor setbackMonitor;
+    
+    // Holds the movement keys; one instance, since both controllers press the same keys
+    public static MovementController movementController;
+    
+    // Tunables from config/auto-miner/config.json, reloaded when the file changes
+    public static ConfigManager configManager;
+    
+    // Searches timing tunables for the best throughput on the current server
+    public static AutoTuner autoTuner;
 
     private static boolean extendedReachEnabled = false;
     
+    // Block filter presets, cycled with the filter key
+    private static int filterIndex = 0;
+    
     @Override
     public void onInitializeClient() {
         // Register keybindings using the gameplay category
@@ -84,20 +138,120 @@ public class AutoMinerClient implements ClientModInitializer {
             Category.GAMEPLAY
         ));
         
+        keyFilterCycle = KeyBindingHelper.registerKeyBinding(new KeyBinding(
+            "key.autominer.filter_cycle",
+            InputUtil.Type.KEYSYM,
+            GLFW.GLFW_KEY_L,
+            Category.GAMEPLAY
+        ));
+        
+        keyVein = KeyBindingHelper.registerKeyBinding(new KeyBinding(
+            "key.autominer.vein",
+            InputUtil.Type.KEYSYM,
+            GLFW.GLFW_KEY_V,
+            Category.GAMEPLAY
+        ));
+        
+        keyTunnel = KeyBindingHelper.registerKeyBinding(new KeyBinding(
+            "key.autominer.tunnel",
+            InputUtil.Type.KEYSYM,
+            GLFW.GLFW_KEY_B,
+            Category.GAMEPLAY
+        ));
+        
+        keyShapeCycle = KeyBindingHelper.registerKeyBinding(new KeyBinding(
+            "key.autominer.shape_cycle",
+            InputUtil.Type.KEYSYM,
+            GLFW.GLFW_KEY_N,
+            Category.GAMEPLAY
+        ));
+        
+        keyCoop = KeyBindingHelper.registerKeyBinding(new KeyBinding(
+            "key.autominer.coop",
+            InputUtil.Type.KEYSYM,
+            GLFW.GLFW_KEY_U,
+            Category.GAMEPLAY
+        ));
+        
+        keyMarkChest = KeyBindingHelper.registerKeyBinding(new KeyBinding(
+            "key.autominer.mark_chest",
+            InputUtil.Type.KEYSYM,
+            GLFW.GLFW_KEY_M,
+            Category.GAMEPLAY
+        ));
+        
+        keyDumpRecorder = KeyBindingHelper.registerKeyBinding(new KeyBinding(
+            "key.autominer.dump_recorder",
+            InputUtil.Type.KEYSYM,
+            GLFW.GLFW_KEY_Y,
+            Category.GAMEPLAY
+        ));
+        
+        keyAutoTune = KeyBindingHelper.registerKeyBinding(new KeyBinding(
+            "key.autominer.auto_tune",
+            InputUtil.Type.KEYSYM,
+            GLFW.GLFW_KEY_O,
+            Category.GAMEPLAY
+        ));
+        
         // Initialize mining controller
-        miningController = new MiningController();
+        latencyEstimator = new LatencyEstimator();
+        setbackMonitor = new SetbackMonitor();
+        movementController = new MovementController(setbackMonitor);
+        miningController = new MiningController(latencyEstimator, movementController);
         miningController.setExtendedReach(extendedReachEnabled);
+        ServerFeedbackEvents.ACTION_ACKNOWLEDGED.register(miningController::onActionAcknowledged);
+        ServerFeedbackEvents.BLOCK_UPDATED.register(miningController::onBlockUpdated);
+        ClientEntityEvents.ENTITY_LOAD.register(miningController::onEntityLoad);
+        ClientEntityEvents.ENTITY_UNLOAD.register(miningController::onEntityUnload);
+        shardRunner = new ShardRunner(miningController);
         
         // Initialize combat controller
-        combatController = new CombatController();
+        combatController = new CombatController(movementController);
+        
+        // Setbacks are handled as the correction packet arrives; budgets start over per server
+        ServerFeedbackEvents.POSITION_CORRECTED.register(() -> {
+            SetbackMonitor.Pattern pattern = setbackMonitor.onPositionCorrected();
+            if (pattern != null) {
+                miningController.onSetback(pattern);
+            }
+        });
+        ClientPlayConnectionEvents.JOIN.register((handler, sender, client) -> setbackMonitor.reset());
+        
+        // Load tunables before the first tick
+        configManager = new ConfigManager();
+        configManager.load();
+        applyConfig(configManager.getConfig());
+        autoTuner = new AutoTuner(configManager, this::applyConfig);
+        ServerFeedbackEvents.POSITION_CORRECTED.register(autoTuner::onPositionCorrected);
         
         // Register tick event
         ClientTickEvents.END_CLIENT_TICK.register(this::onTick);
     }
     
     private void onTick(MinecraftClient client) {
+        // Config changes land here, between controller ticks
+        if (configManager.tick(client)) {
+            if (autoTuner.isActive()) {
+                autoTuner.stop();
+                if (client.player != null) {
+                    showActionBarMessage(client, "§eConfig changed - auto-tune stopped");
+                }
+            }
+            applyConfig(configManager.getConfig());
+            if (client.player != null) {
+                String profile = configManager.getProfile();
+                showActionBarMessage(client, "§bConfig applied: " + (profile != null && configManager.isProfileMatched()
+                    ? profile : "defaults"));
+            }
+        }
+        
         if (client.player == null || client.world == null) return;
         
+        for (String problem : configManager.drainMessages()) {
+            client.player.sendMessage(Text.literal("§e[Auto Miner] " + problem), false);
+        }
+        
         // Handle keybinds
         while (keyPos1.wasPressed()) {
             setPosition1(client);
@@ -123,16 +277,61 @@ public class AutoMinerClient implements ClientModInitializer {
             toggleCombat(client);
         }
         
+        while (keyFilterCycle.wasPressed()) {
+            cycleFilter(client);
+        }
+        
+        while (keyVein.wasPressed()) {
+            toggleVein(client);
+        }
+        
+        while (keyTunnel.wasPressed()) {
+            toggleTunnel(client);
+        }
+        
+        while (keyShapeCycle.wasPressed()) {
+            cycleShape(client);
+        }
+        
+        while (keyCoop.wasPressed()) {
+            toggleCoop(client);
+        }
+        
+        while (keyMarkChest.wasPressed()) {
+            markDepositChest(client);
+        }
+        
+        while (keyDumpRecorder.wasPressed()) {
+            dumpRecorder(client);
+        }
+        
+        while (keyAutoTune.wasPressed()) {
+            toggleAutoTune(client);
+        }
+        
+        latencyEstimator.tick(client);
+        setbackMonitor.tick();
+        
+        // Trial settings switch here, before either controller runs
+        autoTuner.tick(client, miningController, combatController.isInCombat());
+        
         // Tick the combat controller first (for protection)
         combatController.tick(client, miningController.isMining());
         
+        // Hand out the next shard before the controller runs
+        shardRunner.tick(client);
+        
         // Tick the mining controller
         miningController.tick(client);
     }
     
     private void setPosition1(MinecraftClient client) {
         BlockPos target = getLookedAtBlock(client);
-        if (target != null) {
+        if (target != null && shapeMode == ShapeMode.POLYGON) {
+            polygonVertices.add(target);
+            pos1 = polygonVertices.get(0);
+            showActionBarMessage(client, "§aVertex " + polygonVertices.size() + " added: " + formatPos(target));
+        } else if (target != null) {
             pos1 = target;
             showActionBarMessage(client, "§aPosition 1 set: " + formatPos(pos1));
         } else {
@@ -151,24 +350,83 @@ public class AutoMinerClient implements ClientModInitializer {
     }
     
     private void toggleMining(MinecraftClient client) {
-        if (pos1 == null || pos2 == null) {
-            showActionBarMessage(client, "§cSet both positions first (R and T)");
+        if (miningController.isMining()) {
+            miningController.stop();
+            showActionBarMessage(client, "§eMining stopped");
+            return;
+        }
+        
+        Shape shape = shapeMode.create(pos1, pos2, polygonVertices);
+        if (shape == null) {
+            showActionBarMessage(client, shapeMode == ShapeMode.POLYGON
+                ? "§cAdd at least 3 vertices (R) and set the height (T)"
+                : "§cSet both positions first (R and T)");
             return;
         }
         
+        miningController.start(pos1, pos2, shape);
+        int blockCount = miningController.getRemainingBlocks();
+        showActionBarMessage(client, "§aMining started: " + blockCount + " blocks");
+    }
+    
+    private void toggleCoop(MinecraftClient client) {
+        if (shardRunner.isActive() || miningController.isMining()) {
+            shardRunner.stop(client);
+            miningController.stop();
+            showActionBarMessage(client, "§eMining stopped");
+            return;
+        }
+        
+        Shape shape = shapeMode.create(pos1, pos2, polygonVertices);
+        if (shape == null) {
+            showActionBarMessage(client, "§cSelect the shared region first (same on every client)");
+            return;
+        }
+        shardRunner.start(client, pos1, pos2, shape);
+    }
+    
+    private void toggleVein(MinecraftClient client) {
         if (miningController.isMining()) {
             miningController.stop();
             showActionBarMessage(client, "§eMining stopped");
-        } else {
-            miningController.start(pos1, pos2);
-            int blockCount = miningController.getRemainingBlocks();
-            showActionBarMessage(client, "§aMining started: " + blockCount + " blocks");
+            return;
         }
+        
+        BlockPos target = getLookedAtBlock(client);
+        if (target == null) {
+            showActionBarMessage(client, "§cLook at an ore to mine its vein");
+            return;
+        }
+        
+        // Sneak while pressing to include diagonal neighbours
+        boolean diagonal = client.player.isSneaking();
+        miningController.startStream(new VeinMiner(target, client.world.getBlockState(target), diagonal));
+        showActionBarMessage(client, "§aVein mining started" + (diagonal ? " (diagonal)" : ""));
+    }
+    
+    private void toggleTunnel(MinecraftClient client) {
+        if (miningController.isMining()) {
+            miningController.stop();
+            showActionBarMessage(client, "§eMining stopped");
+            return;
+        }
+        
+        // 1x2 tunnel in the facing direction; branches every 4 blocks unless sneaking
+        boolean branches = !client.player.isSneaking();
+        miningController.startStream(new TunnelGenerator(
+            client.player.getBlockPos(),
+            client.player.getHorizontalFacing(),
+            1, 2,
+            branches ? 4 : 0, 12,
+            0
+        ));
+        showActionBarMessage(client, "§aTunnel started" + (branches ? " (branch mining)" : ""));
     }
     
     private void clearSelection(MinecraftClient client) {
         pos1 = null;
         pos2 = null;
+        polygonVertices.clear();
         miningController.stop();
         showActionBarMessage(client, "§eSelection cleared");
     }
@@ -187,6 +445,80 @@ public class AutoMinerClient implements ClientModInitializer {
         showActionBarMessage(client, "§eCombat: " + status);
     }
     
+    private void cycleFilter(MinecraftClient client) {
+        filterIndex = (filterIndex + 1) % 3;
+        BlockFilter filter = switch (filterIndex) {
+            case 1 -> BlockFilter.ores();
+            case 2 -> BlockFilter.excludeContainers();
+            default -> BlockFilter.all();
+        };
+        miningController.setFilter(filter);
+        showActionBarMessage(client, "§bFilter: " + filter.getName() + " (applies on next start)");
+    }
+    
+    private void cycleShape(MinecraftClient client) {
+        shapeMode = shapeMode.next();
+        polygonVertices.clear();
+        if (shapeMode == ShapeMode.POLYGON) {
+            pos1 = null;
+        }
+        showActionBarMessage(client, "§bShape: " + shapeMode.getDisplayName() + " (" + shapeMode.getHint() + ")");
+    }
+    
+    private void markDepositChest(MinecraftClient client) {
+        BlockPos lookingAt = getLookedAtBlock(client);
+        if (lookingAt == null || client.world == null) {
+            if (miningController.getDepositChest() != null) {
+                miningController.setDepositChest(null);
+                showActionBarMessage(client, "§eDeposit chest cleared");
+            } else {
+                showActionBarMessage(client, "§cLook at a chest to mark it!");
+            }
+            return;
+        }
+        if (!(client.world.getBlockEntity(lookingAt) instanceof Inventory)) {
+            showActionBarMessage(client, "§cThat's not a container!");
+            return;
+        }
+        miningController.setDepositChest(lookingAt);
+        showActionBarMessage(client, "§aDeposit chest set: " + formatPos(lookingAt));
+    }
+    
+    private void toggleAutoTune(MinecraftClient client) {
+        if (autoTuner.isActive()) {
+            String status = autoTuner.getStatus();
+            autoTuner.stop();
+            showActionBarMessage(client, "§eAuto-tune stopped (" + status + ")");
+            return;
+        }
+        if (autoTuner.start(miningController)) {
+            showActionBarMessage(client, "§bAuto-tune started for " + configManager.getProfile()
+                + " (results are saved to its profile)");
+        } else {
+            showActionBarMessage(client, "§cJoin a world first");
+        }
+    }
+    
+    private void applyConfig(MinerConfig config) {
+        miningController.applyConfig(config);
+        combatController.applyConfig(config);
+    }
+    
+    private void dumpRecorder(MinecraftClient client) {
+        try {
+            Path file = miningController.getRecorder().dump("manual");
+            showActionBarMessage(client, "§bFlight recording saved: " + file.getFileName());
+            // Movement budgets alongside, since setbacks don't show up in the per-tick record
+            for (String line : setbackMonitor.formatStats().split("\n")) {
+                if (!line.isBlank()) {
+                    client.player.sendMessage(Text.literal("§7" + line.strip()), false);
+                }
+            }
+        } catch (IOException e) {
+            showActionBarMessage(client, "§cCouldn't save flight recording: " + e.getMessage());
+        }
+    }
+    
     private BlockPos getLookedAtBlock(MinecraftClient client) {
         if (client.crosshairTarget != null && client.crosshairTarget.getType() == HitResult.Type.BLOCK) {
             return ((BlockHitResult) client.crosshairTarget).getBlockPos();
@@ -1,5 +1,10 @@
 package com.autominer.combat;
 
+import com.autominer.config.MinerConfig;
+import com.autominer.diag.MinerEvents;
+import com.autominer.movement.MovementController;
+import com.autominer.movement.SetbackMonitor;
+import com.autominer.rotation.RotationController;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.network.ClientPlayerEntity;
 import net.minecraft.entity.Entity;
@@ -26,12 +31,18 @@ public class CombatController {
     private double attackRange = 3.5;
     private double detectionRange = 8.0;
     private int attackCooldown = 0;
-    private static final int ATTACK_COOLDOWN_TICKS = 10;
+    private int attackCooldownTicks = 10;
     
     // State
     private LivingEntity currentTarget = null;
     private int originalHotbarSlot = -1;
     private boolean inCombat = false;
+    private final RotationController rotation = new RotationController(60.0f);  // Until a config is applied
+    private final MovementController movement;   // Shared with the miner: one set of keys
+    
+    public CombatController(MovementController movement) {
+        this.movement = movement;
+    }
     
     public void setEnabled(boolean enabled) {
         this.enabled = enabled;
@@ -68,6 +79,14 @@ public class CombatController {
         return detectionRange;
     }
     
+    // New tunables from the config manager, applied between ticks
+    public void applyConfig(MinerConfig config) {
+        setAttackRange(config.getAttackRange());
+        setDetectionRange(config.getDetectionRange());
+        attackCooldownTicks = config.getAttackCooldownTicks();
+        rotation.setMaxStep(config.getCombatRotationSpeed());
+    }
+    
     public boolean isInCombat() {
         return inCombat;
     }
@@ -77,6 +96,8 @@ public class CombatController {
         if (!activeWhileMining && isMining) return;
         if (client.player == null || client.world == null) return;
         
+        MinerEvents.TickOverrun overrun = MinerEvents.beginTick();
+        
         // Decrement cooldown
         if (attackCooldown > 0) {
             attackCooldown--;
@@ -93,6 +114,7 @@ public class CombatController {
                 inCombat = true;
                 originalHotbarSlot = player.getInventory().selectedSlot;
                 showMessage(client, "§c⚔ Combat mode!");
+                MinerEvents.combatEngaged(nearestThreat, player.distanceTo(nearestThreat), nearestThreat.getHealth());
             }
             
             currentTarget = nearestThreat;
@@ -106,9 +128,12 @@ public class CombatController {
                 }
                 originalHotbarSlot = -1;
                 currentTarget = null;
+                movement.release();
                 showMessage(client, "§aCombat ended");
             }
         }
+        
+        MinerEvents.end(overrun, "combat", inCombat ? "COMBAT" : "WATCHING");
     }
     
     private LivingEntity findNearestThreat(MinecraftClient client) {
@@ -156,18 +181,20 @@ public class CombatController {
         selectBestWeapon(client);
         
         // Look at target
-        lookAtEntity(player, currentTarget);
+        boolean onTarget = lookAtEntity(player, currentTarget);
         
-        // Attack if in range and cooldown ready
-        if (distance <= attackRange && attackCooldown <= 0 && player.getAttackCooldownProgress(0.5f) >= 0.9f) {
+        // Attack if in range, aimed and cooldown ready
+        if (onTarget && distance <= attackRange && attackCooldown <= 0 && player.getAttackCooldownProgress(0.5f) >= 0.9f) {
             client.interactionManager.attackEntity(player, currentTarget);
             player.swingHand(Hand.MAIN_HAND);
-            attackCooldown = ATTACK_COOLDOWN_TICKS;
+            attackCooldown = attackCooldownTicks;
         }
         
         // Move towards if out of range
         if (distance > attackRange - 0.5) {
-            moveTowards(player, currentTarget);
+            moveTowards(client, player, currentTarget);
+        } else {
+            movement.release();
         }
     }
     
@@ -201,40 +228,18 @@ public class CombatController {
         }
     }
     
-    private void lookAtEntity(ClientPlayerEntity player, LivingEntity target) {
-        Vec3d playerEyes = player.getEyePos();
-        Vec3d targetPos = target.getPos().add(0, target.getEyeHeight(target.getPose()) * 0.9, 0);
-        
-        double dx = targetPos.x - playerEyes.x;
-        double dy = targetPos.y - playerEyes.y;
-        double dz = targetPos.z - playerEyes.z;
-        
-        double horizontalDist = Math.sqrt(dx * dx + dz * dz);
-        
-        float yaw = (float) (Math.atan2(-dx, dz) * 180.0 / Math.PI);
-        float pitch = (float) (-Math.atan2(dy, horizontalDist) * 180.0 / Math.PI);
-        
-        player.setYaw(yaw);
-        player.setPitch(pitch);
+    private boolean lookAtEntity(ClientPlayerEntity player, LivingEntity target) {
+        double targetY = target.getY() + target.getEyeHeight(target.getPose()) * 0.9;
+        rotation.aimAt(player, player.getX(), player.getEyeY(), player.getZ(),
+            target.getX(), targetY, target.getZ(), target.getWidth() * 0.5);
+        return rotation.step(player);
     }
     
-    private void moveTowards(ClientPlayerEntity player, LivingEntity target) {
-        Vec3d playerPos = player.getPos();
-        Vec3d targetPos = target.getPos();
-        
-        double dx = targetPos.x - playerPos.x;
-        double dz = targetPos.z - playerPos.z;
-        
-        double distance = Math.sqrt(dx * dx + dz * dz);
-        if (distance < 0.1) return;
-        
-        // Normalize and scale
-        double speed = 0.13;
-        double motionX = (dx / distance) * speed;
-        double motionZ = (dz / distance) * speed;
-        
-        player.setVelocity(motionX, player.getVelocity().y, motionZ);
-        player.setSprinting(true);
+    private void moveTowards(MinecraftClient client, ClientPlayerEntity player, LivingEntity target) {
+        // Already facing it (lookAtEntity); stop inside attack range, letting go early
+        // enough not to run into it
+        movement.follow(client, player, target.getX(), target.getZ(), attackRange - 0.5, false,
+            SetbackMonitor.Pattern.CHASE);
     }
     
     private void reset() {
@@ -242,6 +247,8 @@ public class CombatController {
         inCombat = false;
         originalHotbarSlot = -1;
         attackCooldown = 0;
+        rotation.reset();
+        movement.release();
     }
     
     private void showMessage(MinecraftClient client, String message) {
@@ -0,0 +1,309 @@
+package com.autominer.config;
+
+import com.autominer.mining.MiningController;
+import com.google.gson.JsonObject;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.text.Text;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Online tuning of the timing tunables while mining. Runs a bounded coordinate-wise
+ * hill climb: each trial nudges one parameter of the best-known settings by its step,
+ * mines with it for a minute, and keeps it if the score beats the incumbent by a clear
+ * margin. Trials alternate with windows on the incumbent, so the comparison is always
+ * against a fresh measurement rather than one taken in different terrain.
+ *
+ * <p>Score is confirmed breaks per minute minus penalties for rejected breaks, ghost
+ * blocks and server position corrections. Only ticks spent actually mining count
+ * towards a window. Accepted settings are saved to the server's profile in the
+ * config file as soon as they win, so a crash loses at most the current trial.
+ */
+public class AutoTuner {
+
+    // One trial: a minute of mining
+    private static final int WINDOW_TICKS = 20 * 60;
+
+    // A candidate has to beat the incumbent by this much to be kept (noise guard)
+    private static final double MIN_IMPROVEMENT = 0.05;
+    private static final double MIN_ABSOLUTE_IMPROVEMENT = 1.0;
+
+    // How much the incumbent's latest window moves its score
+    private static final double BASELINE_SMOOTHING = 0.5;
+
+    // Penalties, in blocks per minute per event
+    private static final double REJECTED_PENALTY = 2.0;
+    private static final double GHOST_PENALTY = 2.0;
+    private static final double CORRECTION_PENALTY = 5.0;
+
+    private enum Param {
+        ROTATION_SPEED("rotationSpeed", MinerConfig::getRotationSpeed, 10.0, 90.0, 10.0, 2.5, false),
+        MIN_DELAY("minDelayTicks", MinerConfig::getMinDelayTicks, 0, 6, 1, 1, true),
+        MAX_DELAY("maxDelayTicks", MinerConfig::getMaxDelayTicks, 0, 10, 2, 1, true),
+        PLACEMENT_COOLDOWN("placementCooldownTicks", MinerConfig::getPlacementCooldownTicks, 0, 8, 2, 1, true);
+
+        final String key;
+        final ToDoubleFunction<MinerConfig> getter;
+        final double min;
+        final double max;
+        final double initialStep;
+        final double minStep;
+        final boolean integral;
+
+        Param(String key, ToDoubleFunction<MinerConfig> getter, double min, double max,
+              double initialStep, double minStep, boolean integral) {
+            this.key = key;
+            this.getter = getter;
+            this.min = min;
+            this.max = max;
+            this.initialStep = initialStep;
+            this.minStep = minStep;
+            this.integral = integral;
+        }
+    }
+
+    private static final Param[] PARAMS = Param.values();
+
+    private final ConfigManager configManager;
+    private final Consumer<MinerConfig> apply;
+
+    private boolean active = false;
+    private String profile = null;
+
+    // Search state: best-known values, per-parameter step and direction
+    private final double[] best = new double[PARAMS.length];
+    private final double[] candidate = new double[PARAMS.length];
+    private final double[] step = new double[PARAMS.length];
+    private final int[] direction = new int[PARAMS.length];
+    private final int[] misses = new int[PARAMS.length];   // Failed directions since the last win
+    private int paramIndex = 0;
+    private boolean evaluatingCandidate = false;
+    private double baselineScore = Double.NaN;
+    private int trials = 0;
+    private int wins = 0;
+
+    // Current window
+    private int windowTicks = 0;
+    private int windowConfirmed = 0;
+    private int windowRejected = 0;
+    private int windowGhosts = 0;
+    private int windowCorrections = 0;
+    private boolean counting = false;   // Last tick was spent mining
+
+    // Last seen controller counters (they reset when a run starts)
+    private int lastConfirmed = 0;
+    private int lastRejected = 0;
+    private int lastGhosts = 0;
+
+    public AutoTuner(ConfigManager configManager, Consumer<MinerConfig> apply) {
+        this.configManager = configManager;
+        this.apply = apply;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Starts tuning from the current profile's settings. Returns false when not
+     * connected to a world (there is no profile to tune).
+     */
+    public boolean start(MiningController miner) {
+        profile = configManager.getProfile();
+        if (profile == null) return false;
+
+        MinerConfig current = configManager.getConfig();
+        for (int i = 0; i < PARAMS.length; i++) {
+            best[i] = PARAMS[i].getter.applyAsDouble(current);
+            step[i] = PARAMS[i].initialStep;
+            direction[i] = -1;   // Faster first: shorter delays, except rotation (flipped below)
+            misses[i] = 0;
+        }
+        direction[Param.ROTATION_SPEED.ordinal()] = 1;
+        paramIndex = 0;
+        evaluatingCandidate = false;
+        baselineScore = Double.NaN;
+        trials = 0;
+        wins = 0;
+        active = true;
+        resetWindow(miner);
+        apply.accept(configFor(best));
+        return true;
+    }
+
+    // Stops tuning and goes back to the (possibly just improved) profile settings
+    public void stop() {
+        if (!active) return;
+        active = false;
+        apply.accept(configManager.getConfig());
+    }
+
+    public void onPositionCorrected() {
+        if (active && counting) {
+            windowCorrections++;
+        }
+    }
+
+    public void tick(MinecraftClient client, MiningController miner, boolean inCombat) {
+        if (!active) return;
+        if (!Objects.equals(profile, configManager.getProfile())) {
+            // Results belong to the server they were measured on
+            stop();
+            return;
+        }
+
+        int confirmed = miner.getConfirmedBreaks();
+        int rejected = miner.getRejectedBreaks();
+        int ghosts = miner.getGhostBlocks();
+        counting = miner.isMining() && !inCombat;
+        if (counting) {
+            windowConfirmed += delta(confirmed, lastConfirmed);
+            windowRejected += delta(rejected, lastRejected);
+            windowGhosts += delta(ghosts, lastGhosts);
+            windowTicks++;
+        }
+        lastConfirmed = confirmed;
+        lastRejected = rejected;
+        lastGhosts = ghosts;
+
+        if (windowTicks >= WINDOW_TICKS) {
+            finishWindow(client, miner);
+        }
+    }
+
+    public String getStatus() {
+        if (!active) return "off";
+        return String.format("trial %d (%d kept), %s, baseline %.1f/min, %d%% through window",
+            trials, wins, evaluatingCandidate ? "testing " + PARAMS[paramIndex].key : "measuring baseline",
+            Double.isNaN(baselineScore) ? 0.0 : baselineScore, windowTicks * 100 / WINDOW_TICKS);
+    }
+
+    private void finishWindow(MinecraftClient client, MiningController miner) {
+        double perMinute = 20.0 * 60.0 / windowTicks;
+        double score = (windowConfirmed - REJECTED_PENALTY * windowRejected - GHOST_PENALTY * windowGhosts
+            - CORRECTION_PENALTY * windowCorrections) * perMinute;
+
+        if (!evaluatingCandidate) {
+            baselineScore = Double.isNaN(baselineScore) ? score
+                : baselineScore + BASELINE_SMOOTHING * (score - baselineScore);
+            proposeCandidate(miner);
+            return;
+        }
+
+        trials++;
+        int p = paramIndex;
+        double margin = Math.max(MIN_ABSOLUTE_IMPROVEMENT, Math.abs(baselineScore) * MIN_IMPROVEMENT);
+        if (score > baselineScore + margin) {
+            // Keep it, and keep pushing the same parameter the same way
+            System.arraycopy(candidate, 0, best, 0, best.length);
+            baselineScore = score;
+            misses[p] = 0;
+            wins++;
+            save(client);
+            message(client, String.format("§bAuto-tune: kept %s = %s (%.1f blocks/min)",
+                PARAMS[p].key, format(PARAMS[p], best[p]), score));
+        } else {
+            // Try the other direction next time; after both failed, refine the step
+            direction[p] = -direction[p];
+            if (++misses[p] >= 2) {
+                misses[p] = 0;
+                step[p] = Math.max(PARAMS[p].minStep, step[p] / 2);
+                paramIndex = (paramIndex + 1) % PARAMS.length;
+            }
+        }
+
+        // Back to the incumbent to refresh the baseline
+        evaluatingCandidate = false;
+        resetWindow(miner);
+        apply.accept(configFor(best));
+    }
+
+    private void proposeCandidate(MiningController miner) {
+        // Find a parameter that can still move; one at a bound turns around
+        for (int tries = 0; tries < PARAMS.length * 2; tries++) {
+            Param param = PARAMS[paramIndex];
+            int p = paramIndex;
+            double value = clamp(param, best[p] + direction[p] * step[p]);
+            if (value != best[p]) {
+                System.arraycopy(best, 0, candidate, 0, best.length);
+                candidate[p] = value;
+                MinerConfig config = configFor(candidate);
+                // Validation may have adjusted related values (max delay >= min delay)
+                for (int i = 0; i < PARAMS.length; i++) {
+                    candidate[i] = PARAMS[i].getter.applyAsDouble(config);
+                }
+                if (!Arrays.equals(candidate, best)) {
+                    evaluatingCandidate = true;
+                    resetWindow(miner);
+                    apply.accept(config);
+                    return;
+                }
+            }
+            direction[p] = -direction[p];
+            if (tries % 2 == 1) {
+                paramIndex = (paramIndex + 1) % PARAMS.length;
+            }
+        }
+        // Nothing can move: keep measuring the incumbent
+        resetWindow(miner);
+    }
+
+    private MinerConfig configFor(double[] values) {
+        return configManager.resolveWith(toJson(values));
+    }
+
+    private static JsonObject toJson(double[] values) {
+        JsonObject json = new JsonObject();
+        for (int i = 0; i < PARAMS.length; i++) {
+            if (PARAMS[i].integral) {
+                json.addProperty(PARAMS[i].key, Math.round(values[i]));
+            } else {
+                json.addProperty(PARAMS[i].key, values[i]);
+            }
+        }
+        return json;
+    }
+
+    private void save(MinecraftClient client) {
+        try {
+            configManager.saveProfile(profile, toJson(best));
+        } catch (IOException e) {
+            message(client, "§cAuto-tune: couldn't save the profile: " + e.getMessage());
+        }
+    }
+
+    private void resetWindow(MiningController miner) {
+        windowTicks = 0;
+        windowConfirmed = 0;
+        windowRejected = 0;
+        windowGhosts = 0;
+        windowCorrections = 0;
+        lastConfirmed = miner.getConfirmedBreaks();
+        lastRejected = miner.getRejectedBreaks();
+        lastGhosts = miner.getGhostBlocks();
+    }
+
+    // Counters restart from zero with each run
+    private static int delta(int current, int last) {
+        return current >= last ? current - last : current;
+    }
+
+    private static double clamp(Param param, double value) {
+        double clamped = Math.max(param.min, Math.min(param.max, value));
+        return param.integral ? Math.round(clamped) : clamped;
+    }
+
+    private static String format(Param param, double value) {
+        return param.integral ? Long.toString(Math.round(value)) : String.format("%.1f", value);
+    }
+
+    private static void message(MinecraftClient client, String message) {
+        if (client.player != null) {
+            client.player.sendMessage(Text.literal(message), false);
+        }
+    }
+}
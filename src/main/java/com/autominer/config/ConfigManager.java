@@ -0,0 +1,300 @@
+package com.autominer.config;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ServerInfo;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Loads {@link MinerConfig} from {@code config/auto-miner/config.json} and reloads it
+ * while the game runs. The file has a {@code defaults} section and optional per-server
+ * profiles that override individual keys:
+ *
+ * <pre>{
+ *   "defaults": { "maxDelayTicks": 4, ... },
+ *   "servers": {
+ *     "play.example.net": { "maxDelayTicks": 2, "rotationSpeed": 40.0 },
+ *     "singleplayer": { ... }
+ *   }
+ * }</pre>
+ *
+ * The profile is picked by the address of the server we're connected to. The config
+ * directory is watched, and changes (and server switches) only take effect in
+ * {@link #tick(MinecraftClient)}, which runs before the controllers, so a controller
+ * never sees its tunables change halfway through a tick. A file that doesn't parse
+ * keeps the previous config in place.
+ */
+public class ConfigManager {
+
+    public static final String SINGLEPLAYER = "singleplayer";
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    // Editors often save in several writes; wait for the file to settle
+    private static final int RELOAD_DELAY_TICKS = 5;
+
+    private final Path directory;
+    private final Path file;
+    private WatchService watcher = null;
+
+    private JsonObject root = new JsonObject();   // Last contents that parsed
+    private MinerConfig config = new MinerConfig();
+    private String profile = null;
+    private boolean profileMatched = false;
+    private int reloadCountdown = 0;
+
+    // Problems and notices for the player, drained by the caller
+    private final List<String> messages = new ArrayList<>();
+
+    public ConfigManager() {
+        this.directory = FabricLoader.getInstance().getConfigDir().resolve("auto-miner");
+        this.file = directory.resolve("config.json");
+    }
+
+    /**
+     * Reads the file, writing one with the defaults first if there is none, and starts
+     * watching it. Without a watch service the config still loads, it just won't reload.
+     */
+    public void load() {
+        try {
+            Files.createDirectories(directory);
+            if (!Files.exists(file)) {
+                writeDefaults();
+            }
+        } catch (IOException e) {
+            messages.add("Couldn't create " + file + ": " + e.getMessage());
+        }
+        readFile();
+        resolve();
+
+        try {
+            watcher = FileSystems.getDefault().newWatchService();
+            directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | UnsupportedOperationException e) {
+            watcher = null;
+            messages.add("Config hot reload unavailable: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Call once per client tick, before the controllers. Returns true when a different
+     * config took effect this tick (the file changed or we joined another server).
+     */
+    public boolean tick(MinecraftClient client) {
+        pollWatcher();
+        boolean changed = false;
+        if (reloadCountdown > 0 && --reloadCountdown == 0) {
+            changed = readFile();
+        }
+        String current = profileOf(client);
+        if (!Objects.equals(current, profile)) {
+            profile = current;
+            changed = true;
+        }
+        if (changed) {
+            resolve();
+        }
+        return changed;
+    }
+
+    public MinerConfig getConfig() {
+        return config;
+    }
+
+    // Profile in use: the server address, "singleplayer", or null when not in a world
+    public String getProfile() {
+        return profile;
+    }
+
+    // True when the config file has a section for the current profile
+    public boolean isProfileMatched() {
+        return profileMatched;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public List<String> drainMessages() {
+        List<String> drained = new ArrayList<>(messages);
+        messages.clear();
+        return drained;
+    }
+
+    private void pollWatcher() {
+        if (watcher == null) return;
+        WatchKey key;
+        while ((key = watcher.poll()) != null) {
+            for (WatchEvent<?> event : key.pollEvents()) {
+                // An overflow may have swallowed our event; reload to be safe
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                        || file.getFileName().equals(event.context())) {
+                    reloadCountdown = RELOAD_DELAY_TICKS;
+                }
+            }
+            if (!key.reset()) {
+                watcher = null;
+                messages.add("Config directory went away; hot reload stopped");
+                return;
+            }
+        }
+    }
+
+    // Parses the file into root; false (and root untouched) when it can't be read
+    private boolean readFile() {
+        try (Reader reader = Files.newBufferedReader(file)) {
+            JsonElement parsed = JsonParser.parseReader(reader);
+            if (!parsed.isJsonObject()) {
+                messages.add("config.json must be a JSON object; keeping the previous config");
+                return false;
+            }
+            // Our own writes (saved tuning results) come back through the watcher too
+            if (parsed.equals(root)) return false;
+            root = parsed.getAsJsonObject();
+            return true;
+        } catch (IOException | JsonParseException e) {
+            messages.add("Couldn't read config.json (" + e.getMessage() + "); keeping the previous config");
+            return false;
+        }
+    }
+
+    /**
+     * The current profile's config with {@code overrides} applied on top, clamped into
+     * range. Used by the auto-tuner to try values without touching the file. Returns
+     * the current config if the result doesn't deserialize.
+     */
+    public MinerConfig resolveWith(JsonObject overrides) {
+        List<String> ignored = new ArrayList<>();
+        JsonObject merged = merge(ignored);
+        overlay(merged, overrides, "overrides", ignored);
+        try {
+            MinerConfig resolved = GSON.fromJson(merged, MinerConfig.class);
+            resolved.validate();
+            return resolved;
+        } catch (JsonParseException | NumberFormatException e) {
+            return config;
+        }
+    }
+
+    /**
+     * Writes {@code values} into the file's section for {@code profile}, creating it if
+     * needed. The watcher sees the write, but since the contents match what we hold it
+     * doesn't count as a change.
+     */
+    public void saveProfile(String profile, JsonObject values) throws IOException {
+        JsonObject servers = section(root, "servers");
+        if (servers == null) {
+            servers = new JsonObject();
+            root.add("servers", servers);
+        }
+        JsonObject server = findServer(servers, profile);
+        if (server == null) {
+            server = new JsonObject();
+            servers.add(profile, server);
+        }
+        for (Map.Entry<String, JsonElement> entry : values.entrySet()) {
+            server.add(entry.getKey(), entry.getValue());
+        }
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            GSON.toJson(root, writer);
+        }
+        resolve();
+    }
+
+    // Builds the config for the current profile: built-in defaults < "defaults" < server section
+    private void resolve() {
+        JsonObject merged = merge(messages);
+        MinerConfig resolved;
+        try {
+            resolved = GSON.fromJson(merged, MinerConfig.class);
+        } catch (JsonParseException | NumberFormatException e) {
+            messages.add("Bad value in config.json (" + e.getMessage() + "); keeping the previous config");
+            return;
+        }
+        for (String problem : resolved.validate()) {
+            messages.add(problem);
+        }
+        config = resolved;
+    }
+
+    private JsonObject merge(List<String> problems) {
+        JsonObject merged = GSON.toJsonTree(new MinerConfig()).getAsJsonObject();
+        overlay(merged, section(root, "defaults"), "defaults", problems);
+
+        JsonObject servers = section(root, "servers");
+        JsonObject server = profile != null ? findServer(servers, profile) : null;
+        profileMatched = server != null;
+        if (server != null) {
+            overlay(merged, server, "servers." + profile, problems);
+        }
+        return merged;
+    }
+
+    // Copies known keys from source onto target; unknown keys are reported (likely typos)
+    private static void overlay(JsonObject target, JsonObject source, String where, List<String> problems) {
+        if (source == null) return;
+        for (Map.Entry<String, JsonElement> entry : source.entrySet()) {
+            if (!target.has(entry.getKey())) {
+                problems.add("Unknown key " + where + "." + entry.getKey() + " ignored");
+                continue;
+            }
+            target.add(entry.getKey(), entry.getValue());
+        }
+    }
+
+    // Exact address first, then the host without its port; case-insensitive
+    private static JsonObject findServer(JsonObject servers, String profile) {
+        if (servers == null) return null;
+        int colon = profile.lastIndexOf(':');
+        String host = colon > 0 ? profile.substring(0, colon) : profile;
+        for (Map.Entry<String, JsonElement> entry : servers.entrySet()) {
+            String name = entry.getKey().toLowerCase(Locale.ROOT);
+            if ((name.equals(profile) || name.equals(host)) && entry.getValue().isJsonObject()) {
+                return entry.getValue().getAsJsonObject();
+            }
+        }
+        return null;
+    }
+
+    private static JsonObject section(JsonObject root, String name) {
+        JsonElement element = root.get(name);
+        return element != null && element.isJsonObject() ? element.getAsJsonObject() : null;
+    }
+
+    private static String profileOf(MinecraftClient client) {
+        if (client.world == null) return null;
+        if (client.isIntegratedServerRunning()) return SINGLEPLAYER;
+        ServerInfo server = client.getCurrentServerEntry();
+        return server != null ? server.address.toLowerCase(Locale.ROOT) : null;
+    }
+
+    private void writeDefaults() throws IOException {
+        JsonObject contents = new JsonObject();
+        contents.add("defaults", GSON.toJsonTree(new MinerConfig()));
+        contents.add("servers", new JsonObject());
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            GSON.toJson(contents, writer);
+        }
+    }
+}
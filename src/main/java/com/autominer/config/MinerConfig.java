@@ -0,0 +1,119 @@
+package com.autominer.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Throughput tunables for the controllers. Field names are the JSON keys in
+ * {@code config/auto-miner/config.json}; the initial values are the defaults the mod
+ * shipped with as constants. Instances are built by {@link ConfigManager} and never
+ * changed after {@link #validate()}, so a controller can keep the one it was given.
+ */
+public class MinerConfig {
+
+    // Mining
+    private float rotationSpeed = 25.0f;
+    private int stuckThreshold = 10;
+    private int maxPillarHeight = 64;
+    private int placementCooldownTicks = 0;
+    private int minDelayTicks = 0;
+    private int maxDelayTicks = 4;
+    private double vanillaReach = 4.5;
+    private double extendedReach = 15.0;
+
+    // Combat
+    private float combatRotationSpeed = 60.0f;
+    private int attackCooldownTicks = 10;
+    private double attackRange = 3.5;
+    private double detectionRange = 8.0;
+
+    /**
+     * Clamps every value into its supported range and returns one message per value
+     * that had to be changed (empty when the config was valid as written).
+     */
+    public List<String> validate() {
+        List<String> problems = new ArrayList<>();
+        rotationSpeed = clamp(problems, "rotationSpeed", rotationSpeed, 4.0f, 180.0f);
+        stuckThreshold = clamp(problems, "stuckThreshold", stuckThreshold, 2, 200);
+        maxPillarHeight = clamp(problems, "maxPillarHeight", maxPillarHeight, 1, 384);
+        placementCooldownTicks = clamp(problems, "placementCooldownTicks", placementCooldownTicks, 0, 40);
+        minDelayTicks = clamp(problems, "minDelayTicks", minDelayTicks, 0, 40);
+        maxDelayTicks = clamp(problems, "maxDelayTicks", maxDelayTicks, minDelayTicks, 40);
+        vanillaReach = clamp(problems, "vanillaReach", vanillaReach, 1.0, 6.0);
+        extendedReach = clamp(problems, "extendedReach", extendedReach, vanillaReach, 64.0);
+        combatRotationSpeed = clamp(problems, "combatRotationSpeed", combatRotationSpeed, 4.0f, 180.0f);
+        attackCooldownTicks = clamp(problems, "attackCooldownTicks", attackCooldownTicks, 0, 100);
+        attackRange = clamp(problems, "attackRange", attackRange, 1.0, 6.0);
+        detectionRange = clamp(problems, "detectionRange", detectionRange, 3.0, 20.0);
+        return problems;
+    }
+
+    public float getRotationSpeed() {
+        return rotationSpeed;
+    }
+
+    public int getStuckThreshold() {
+        return stuckThreshold;
+    }
+
+    public int getMaxPillarHeight() {
+        return maxPillarHeight;
+    }
+
+    public int getPlacementCooldownTicks() {
+        return placementCooldownTicks;
+    }
+
+    public int getMinDelayTicks() {
+        return minDelayTicks;
+    }
+
+    public int getMaxDelayTicks() {
+        return maxDelayTicks;
+    }
+
+    public double getVanillaReach() {
+        return vanillaReach;
+    }
+
+    public double getExtendedReach() {
+        return extendedReach;
+    }
+
+    public float getCombatRotationSpeed() {
+        return combatRotationSpeed;
+    }
+
+    public int getAttackCooldownTicks() {
+        return attackCooldownTicks;
+    }
+
+    public double getAttackRange() {
+        return attackRange;
+    }
+
+    public double getDetectionRange() {
+        return detectionRange;
+    }
+
+    private static int clamp(List<String> problems, String name, int value, int min, int max) {
+        if (value >= min && value <= max) return value;
+        int clamped = Math.max(min, Math.min(max, value));
+        problems.add(name + " " + value + " out of range [" + min + ", " + max + "], using " + clamped);
+        return clamped;
+    }
+
+    private static float clamp(List<String> problems, String name, float value, float min, float max) {
+        if (value >= min && value <= max) return value;
+        float clamped = Float.isNaN(value) ? min : Math.max(min, Math.min(max, value));
+        problems.add(name + " " + value + " out of range [" + min + ", " + max + "], using " + clamped);
+        return clamped;
+    }
+
+    private static double clamp(List<String> problems, String name, double value, double min, double max) {
+        if (value >= min && value <= max) return value;
+        double clamped = Double.isNaN(value) ? min : Math.max(min, Math.min(max, value));
+        problems.add(name + " " + value + " out of range [" + min + ", " + max + "], using " + clamped);
+        return clamped;
+    }
+}
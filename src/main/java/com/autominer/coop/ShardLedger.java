@@ -0,0 +1,156 @@
+package com.autominer.coop;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import net.minecraft.util.math.ChunkPos;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Shard claims for one job, shared between clients through a file. Every read-modify-write
+ * happens under an exclusive {@link FileLock}, so clients on the same machine (or on a
+ * shared filesystem that supports locks) never claim the same shard. Claims are leases:
+ * a client that crashes or disconnects loses its shard once the lease runs out.
+ *
+ * <p>One line per touched shard: {@code chunkX chunkZ owner|DONE leaseExpiresAtMillis}.
+ */
+public class ShardLedger {
+
+    public static final long LEASE_MS = 60_000;
+    private static final String DONE = "DONE";
+
+    private record Entry(String owner, long expiresAt) {
+        boolean isDone() {
+            return DONE.equals(owner);
+        }
+    }
+
+    private final Path file;
+    private final String owner;
+
+    public ShardLedger(Path directory, String jobId, String owner) {
+        this.file = directory.resolve(jobId + ".shards");
+        this.owner = owner;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Claims the free shard closest to the given chunk. Shards whose lease expired count
+     * as free. Returns null when every shard is done or leased by someone else.
+     */
+    public ChunkPos claim(List<ChunkPos> shards, int nearChunkX, int nearChunkZ) throws IOException {
+        ChunkPos[] claimed = new ChunkPos[1];
+        long now = System.currentTimeMillis();
+        transact(entries -> {
+            ChunkPos best = null;
+            long bestDist = Long.MAX_VALUE;
+            for (ChunkPos shard : shards) {
+                Entry entry = entries.get(shard.toLong());
+                if (entry != null && (entry.isDone() || (entry.expiresAt() > now && !entry.owner().equals(owner)))) {
+                    continue;
+                }
+                long dx = shard.x - nearChunkX;
+                long dz = shard.z - nearChunkZ;
+                long dist = dx * dx + dz * dz;
+                if (dist < bestDist) {
+                    bestDist = dist;
+                    best = shard;
+                }
+            }
+            if (best != null) {
+                entries.put(best.toLong(), new Entry(owner, now + LEASE_MS));
+            }
+            claimed[0] = best;
+        });
+        return claimed[0];
+    }
+
+    // Extends our lease; false if the shard was taken over or finished by someone else
+    public boolean renew(ChunkPos shard) throws IOException {
+        boolean[] held = new boolean[1];
+        transact(entries -> {
+            Entry entry = entries.get(shard.toLong());
+            if (entry != null && entry.owner().equals(owner)) {
+                entries.put(shard.toLong(), new Entry(owner, System.currentTimeMillis() + LEASE_MS));
+                held[0] = true;
+            }
+        });
+        return held[0];
+    }
+
+    public void complete(ChunkPos shard) throws IOException {
+        transact(entries -> entries.put(shard.toLong(), new Entry(DONE, 0L)));
+    }
+
+    // Gives a shard back unfinished
+    public void release(ChunkPos shard) throws IOException {
+        transact(entries -> {
+            Entry entry = entries.get(shard.toLong());
+            if (entry != null && entry.owner().equals(owner)) {
+                entries.remove(shard.toLong());
+            }
+        });
+    }
+
+    public int countDone() throws IOException {
+        int[] done = new int[1];
+        transact(entries -> {
+            for (Entry entry : entries.values()) {
+                if (entry.isDone()) done[0]++;
+            }
+        });
+        return done[0];
+    }
+
+    private void transact(Consumer<Long2ObjectLinkedOpenHashMap<Entry>> change) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock lock = channel.lock()) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Read the whole (small) ledger
+            }
+            Long2ObjectLinkedOpenHashMap<Entry> entries = parse(new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+
+            change.accept(entries);
+
+            StringBuilder out = new StringBuilder();
+            for (Long2ObjectLinkedOpenHashMap.Entry<Entry> e : entries.long2ObjectEntrySet()) {
+                ChunkPos pos = new ChunkPos(e.getLongKey());
+                out.append(pos.x).append(' ').append(pos.z).append(' ')
+                    .append(e.getValue().owner()).append(' ').append(e.getValue().expiresAt()).append('\n');
+            }
+            channel.truncate(0);
+            channel.position(0);
+            channel.write(ByteBuffer.wrap(out.toString().getBytes(StandardCharsets.UTF_8)));
+            channel.force(false);
+        }
+    }
+
+    private static Long2ObjectLinkedOpenHashMap<Entry> parse(String text) {
+        Long2ObjectLinkedOpenHashMap<Entry> entries = new Long2ObjectLinkedOpenHashMap<>();
+        for (String line : text.split("\n")) {
+            String[] parts = line.trim().split(" ");
+            if (parts.length != 4) continue;
+            try {
+                long key = ChunkPos.toLong(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+                entries.put(key, new Entry(parts[2], Long.parseLong(parts[3])));
+            } catch (NumberFormatException e) {
+                // Skip lines from a newer/broken writer rather than losing the whole ledger
+            }
+        }
+        return entries;
+    }
+}
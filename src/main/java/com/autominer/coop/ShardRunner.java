@@ -0,0 +1,151 @@
+package com.autominer.coop;
+
+import com.autominer.mining.MiningController;
+import com.autominer.selection.Shape;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.text.Text;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cooperative mode: the selection is split into chunk-column shards, and each client
+ * claims one shard at a time from the shared ledger, mines it with the normal
+ * controller and marks it done. Every client must select the same region.
+ */
+public class ShardRunner {
+
+    // Renew well before the lease runs out
+    private static final int RENEW_INTERVAL_TICKS = (int) (ShardLedger.LEASE_MS / 50 / 3);
+
+    private final MiningController controller;
+
+    private ShardLedger ledger = null;
+    private Shape region;
+    private BlockPos pos1, pos2;
+    private final List<ChunkPos> shards = new ArrayList<>();
+
+    private ChunkPos current = null;
+    private int runsBeforeShard = 0;
+    private int ticksSinceRenew = 0;
+
+    public ShardRunner(MiningController controller) {
+        this.controller = controller;
+    }
+
+    public boolean isActive() {
+        return ledger != null;
+    }
+
+    public void start(MinecraftClient client, BlockPos pos1, BlockPos pos2, Shape region) {
+        this.region = region;
+        this.pos1 = pos1;
+        this.pos2 = pos2;
+
+        // Every chunk column the selection reaches into is one shard
+        BlockBox bounds = region.getBounds();
+        shards.clear();
+        for (int cx = bounds.getMinX() >> 4; cx <= bounds.getMaxX() >> 4; cx++) {
+            for (int cz = bounds.getMinZ() >> 4; cz <= bounds.getMaxZ() >> 4; cz++) {
+                ChunkPos chunk = new ChunkPos(cx, cz);
+                Shape.Coverage coverage = region.classify(chunk.getStartX(), bounds.getMinY(), chunk.getStartZ(),
+                    chunk.getEndX(), bounds.getMaxY(), chunk.getEndZ());
+                if (coverage != Shape.Coverage.OUTSIDE) {
+                    shards.add(chunk);
+                }
+            }
+        }
+
+        Path directory = FabricLoader.getInstance().getConfigDir().resolve("auto-miner").resolve("shards");
+        ledger = new ShardLedger(directory, jobId(region), client.getSession().getUsername());
+        current = null;
+        showActionBarMessage(client, "§aCo-op mining: " + shards.size() + " shards");
+    }
+
+    public void stop(MinecraftClient client) {
+        if (ledger == null) return;
+        if (current != null) {
+            try {
+                ledger.release(current);
+            } catch (IOException e) {
+                // The lease simply runs out
+            }
+        }
+        if (controller.isMining()) {
+            controller.stop();
+        }
+        ledger = null;
+        current = null;
+    }
+
+    public void tick(MinecraftClient client) {
+        if (ledger == null || client.player == null) return;
+
+        try {
+            if (current != null) {
+                if (controller.isMining()) {
+                    if (++ticksSinceRenew >= RENEW_INTERVAL_TICKS) {
+                        ticksSinceRenew = 0;
+                        if (!ledger.renew(current)) {
+                            // Someone else took it over (our lease expired) - drop it
+                            showActionBarMessage(client, "§eShard lease lost, moving on");
+                            controller.stop();
+                            current = null;
+                        }
+                    }
+                    return;
+                }
+
+                if (controller.getCompletedRuns() == runsBeforeShard) {
+                    // Stopped by the player rather than finished
+                    stop(client);
+                    return;
+                }
+                ledger.complete(current);
+                current = null;
+            }
+
+            ChunkPos next = ledger.claim(shards, client.player.getChunkPos().x, client.player.getChunkPos().z);
+            if (next == null) {
+                int done = ledger.countDone();
+                showActionBarMessage(client, done >= shards.size()
+                    ? "§aCo-op mining complete: " + shards.size() + " shards"
+                    : "§eNo free shards left (" + done + "/" + shards.size() + " done)");
+                ledger = null;
+                return;
+            }
+
+            current = next;
+            runsBeforeShard = controller.getCompletedRuns();
+            ticksSinceRenew = 0;
+            controller.start(pos1, pos2, new ShardShape(region, next));
+            showActionBarMessage(client, "§aShard claimed: chunk " + next.x + ", " + next.z
+                + " (" + controller.getRemainingBlocks() + " blocks)");
+        } catch (IOException e) {
+            showActionBarMessage(client, "§cShard ledger unavailable: " + e.getMessage());
+            controller.stop();
+            ledger = null;
+            current = null;
+        }
+    }
+
+    // Same selection -> same ledger file on every client
+    private static String jobId(Shape region) {
+        BlockBox b = region.getBounds();
+        String id = region.getName() + "_" + b.getMinX() + "_" + b.getMinY() + "_" + b.getMinZ()
+            + "_" + b.getMaxX() + "_" + b.getMaxY() + "_" + b.getMaxZ();
+        return id.toLowerCase().replaceAll("[^a-z0-9_-]", "");
+    }
+
+    private static void showActionBarMessage(MinecraftClient client, String message) {
+        if (client.player != null) {
+            client.player.sendMessage(Text.literal(message), true);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.autominer.coop;
+
+import com.autominer.selection.Shape;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.ChunkPos;
+
+/**
+ * The part of a selection inside one chunk column.
+ */
+public class ShardShape implements Shape {
+
+    private final Shape region;
+    private final ChunkPos chunk;
+    private final BlockBox bounds;
+
+    public ShardShape(Shape region, ChunkPos chunk) {
+        this.region = region;
+        this.chunk = chunk;
+        BlockBox outer = region.getBounds();
+        this.bounds = new BlockBox(
+            Math.max(outer.getMinX(), chunk.getStartX()), outer.getMinY(), Math.max(outer.getMinZ(), chunk.getStartZ()),
+            Math.min(outer.getMaxX(), chunk.getEndX()), outer.getMaxY(), Math.min(outer.getMaxZ(), chunk.getEndZ())
+        );
+    }
+
+    public ChunkPos getChunk() {
+        return chunk;
+    }
+
+    @Override
+    public boolean contains(int x, int y, int z) {
+        return (x >> 4) == chunk.x && (z >> 4) == chunk.z && region.contains(x, y, z);
+    }
+
+    @Override
+    public BlockBox getBounds() {
+        return bounds;
+    }
+
+    @Override
+    public Coverage classify(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        if (maxX < chunk.getStartX() || minX > chunk.getEndX() || maxZ < chunk.getStartZ() || minZ > chunk.getEndZ()) {
+            return Coverage.OUTSIDE;
+        }
+        Coverage coverage = region.classify(minX, minY, minZ, maxX, maxY, maxZ);
+        boolean withinChunk = minX >= chunk.getStartX() && maxX <= chunk.getEndX()
+            && minZ >= chunk.getStartZ() && maxZ <= chunk.getEndZ();
+        return coverage == Coverage.INSIDE && !withinChunk ? Coverage.PARTIAL : coverage;
+    }
+
+    @Override
+    public String getName() {
+        return region.getName() + " @ chunk " + chunk.x + ", " + chunk.z;
+    }
+}
@@ -0,0 +1,207 @@
+package com.autominer.diag;
+
+import com.autominer.mining.BridgePlanner;
+import com.autominer.mining.FaceVisibility;
+import com.autominer.mining.PillarPlanner;
+import com.autominer.movement.MovementPredictor;
+import com.autominer.net.ConfirmationWait;
+import com.autominer.net.LatencyEstimator;
+import com.autominer.rotation.RotationController;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.BlockView;
+
+/**
+ * Offline allocation check for the helpers the steady MOVING/ROTATING/BREAKING
+ * ticks run: aiming, face ray-casts, gait and edge prediction, and the confirmation
+ * waits. Each case is warmed up, then measured with {@link AllocationProbe}; the
+ * process exits non-zero if a case still allocates in its best round, so a build
+ * step or CI job can run it like a test ({@code ./gradlew allocationCheck}, part of
+ * {@code check}), or by hand:
+ *
+ * <pre>java -cp auto-miner.jar:minecraft.jar com.autominer.diag.AllocationCheck [ops per round]</pre>
+ *
+ * The best round is used (not the mean) so a one-off deoptimisation doesn't fail the
+ * run; a path that allocates on every call allocates in every round.
+ */
+public final class AllocationCheck {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final int DEFAULT_OPS = 500_000;
+
+    private AllocationCheck() {
+    }
+
+    @FunctionalInterface
+    private interface Case {
+        // Runs ops steady ticks of the case; the result only keeps the work alive
+        long run(int ops);
+    }
+
+    public static void main(String[] args) {
+        int ops = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_OPS;
+        if (!AllocationProbe.isSupported()) {
+            System.out.println("AllocationCheck: this JVM has no per-thread allocation counter");
+            System.exit(2);
+        }
+
+        // Block states need the registries
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+
+        String[] names = {
+            "ROTATING aimAt+step",
+            "ROTATING/BREAKING face ray-cast",
+            "MOVING gait + edge prediction",
+            "PILLARING reach height",
+            "BREAKING confirmation wait"
+        };
+        Case[] cases = {
+            rotationCase(),
+            visibilityCase(),
+            movementCase(),
+            pillarCase(),
+            confirmationCase()
+        };
+
+        int failed = 0;
+        long sink = 0;
+        for (int c = 0; c < cases.length; c++) {
+            for (int round = 0; round < WARMUP_ROUNDS; round++) {
+                sink += cases[c].run(ops);
+            }
+            long bestBytes = Long.MAX_VALUE;
+            for (int round = 0; round < MEASURED_ROUNDS; round++) {
+                long before = AllocationProbe.allocatedBytes();
+                sink += cases[c].run(ops);
+                bestBytes = Math.min(bestBytes, AllocationProbe.allocatedBytes() - before);
+            }
+            boolean ok = bestBytes == 0;
+            if (!ok) failed++;
+            System.out.printf("%-34s %s  %.4f B/op (%d B in best round of %d ops)%n",
+                names[c], ok ? "ok  " : "FAIL", (double) bestBytes / ops, bestBytes, ops);
+        }
+
+        System.out.printf("%d of %d cases allocate (checksum %d)%n", failed, cases.length, sink);
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    private static Case rotationCase() {
+        RotationController rotation = new RotationController(25.0f);
+        float[] view = new float[2];
+        return ops -> {
+            long onTarget = 0;
+            for (int i = 0; i < ops; i++) {
+                int t = i >>> 3;
+                rotation.aimAt(view[0], 0.0, 1.62, 0.0, (t % 17) - 8 + 0.5, (t % 7) - 3 + 0.5, (t % 13) - 6 + 0.5, 0.5);
+                if (rotation.step(view[0], view[1])) onTarget++;
+                view[0] = rotation.getStepYaw();
+                view[1] = rotation.getStepPitch();
+            }
+            return onTarget;
+        };
+    }
+
+    private static Case visibilityCase() {
+        FaceVisibility visibility = new FaceVisibility();
+        CaveView world = new CaveView();
+        BlockPos.Mutable target = new BlockPos.Mutable();
+        return ops -> {
+            long visible = 0;
+            for (int i = 0; i < ops; i++) {
+                // A target comes back only after the cache's few ticks, so every call ray-casts
+                double eyeX = 0.5 + (i & 7) * 0.07;
+                target.set((i % 9) - 4, 62 + (i % 3), ((i >>> 4) % 9) - 4);
+                if (visibility.resolve(world, i, eyeX, 65.62, 0.5, target, 4.5)) visible++;
+            }
+            return visible;
+        };
+    }
+
+    private static Case movementCase() {
+        MovementPredictor.Gait[] gaits = MovementPredictor.Gait.values();
+        return ops -> {
+            long ticks = 0;
+            for (int i = 0; i < ops; i++) {
+                double distance = (i % 64) * 0.25;
+                double speed = (i % 5) * 0.05;
+                MovementPredictor.Gait gait = MovementPredictor.fastest(distance, speed, 0.3, (i & 1) == 0,
+                    MovementPredictor.DEFAULT_SLIPPERINESS);
+                ticks += MovementPredictor.ticksToCover(distance, gaits[i % gaits.length], speed,
+                    MovementPredictor.DEFAULT_SLIPPERINESS) + gait.ordinal();
+                ticks += (long) (BridgePlanner.distanceToEdge(i * 0.013, i * 0.029, 0.6, -0.8) * 100);
+                ticks += (long) (MovementPredictor.coastDistance(speed, true, MovementPredictor.DEFAULT_SLIPPERINESS) * 100);
+            }
+            return ticks;
+        };
+    }
+
+    private static Case pillarCase() {
+        return ops -> {
+            long height = 0;
+            for (int i = 0; i < ops; i++) {
+                height += PillarPlanner.heightToReach(65.62, (i % 20) * 0.1, 64 + (i % 12), 4.5);
+            }
+            return height;
+        };
+    }
+
+    private static Case confirmationCase() {
+        LatencyEstimator latency = new LatencyEstimator();
+        ConfirmationWait wait = new ConfirmationWait(latency);
+        return ops -> {
+            long confirmed = 0;
+            for (int i = 0; i < ops; i++) {
+                if ((i & 3) == 0) {
+                    wait.arm(i, i);
+                }
+                wait.tick();
+                if ((i & 3) == 2) {
+                    wait.confirmSequence(i);
+                }
+                if (!wait.isWaiting()) confirmed++;
+                confirmed += latency.getConfirmTicks();
+            }
+            return confirmed;
+        };
+    }
+
+    // Stone below y=65 with a few open cells, air above: enough for faces to be hidden and open
+    private static final class CaveView implements BlockView {
+
+        private final BlockState stone = Blocks.STONE.getDefaultState();
+        private final BlockState air = Blocks.AIR.getDefaultState();
+
+        @Override
+        public BlockEntity getBlockEntity(BlockPos pos) {
+            return null;
+        }
+
+        @Override
+        public BlockState getBlockState(BlockPos pos) {
+            if (pos.getY() >= 65) return air;
+            return ((pos.getX() * 31 + pos.getZ() * 17 + pos.getY()) & 3) == 0 ? air : stone;
+        }
+
+        @Override
+        public FluidState getFluidState(BlockPos pos) {
+            return getBlockState(pos).getFluidState();
+        }
+
+        @Override
+        public int getHeight() {
+            return 384;
+        }
+
+        @Override
+        public int getBottomY() {
+            return -64;
+        }
+    }
+}
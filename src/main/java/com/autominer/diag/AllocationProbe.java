@@ -0,0 +1,42 @@
+package com.autominer.diag;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Bytes allocated by the calling thread, read from HotSpot's per-thread allocation
+ * counter (the same one {@code -prof gc} uses). The flight recorder stores the
+ * difference around each controller tick, so a recording shows whether the steady
+ * MOVING/ROTATING/BREAKING ticks are still allocation-free; {@link AllocationCheck}
+ * uses it offline to fail the build when their helpers start allocating.
+ *
+ * <p>On JVMs without the counter {@link #isSupported()} is false and every reading is 0.
+ */
+public final class AllocationProbe {
+
+    private static final com.sun.management.ThreadMXBean THREADS = lookup();
+
+    private AllocationProbe() {
+    }
+
+    public static boolean isSupported() {
+        return THREADS != null;
+    }
+
+    // Running total for the current thread; only differences between two readings mean anything
+    public static long allocatedBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : 0L;
+    }
+
+    private static com.sun.management.ThreadMXBean lookup() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                    && threads.isThreadAllocatedMemorySupported()) {
+                threads.setThreadAllocatedMemoryEnabled(true);
+                return threads;
+            }
+        } catch (UnsupportedOperationException | SecurityException e) {
+            // Fall through: the probe simply reads zero
+        }
+        return null;
+    }
+}
@@ -0,0 +1,166 @@
+package com.autominer.diag;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Offline decoder for {@link FlightRecorder} dumps. Needs nothing from the game, so it
+ * runs with just the mod jar on the classpath:
+ *
+ * <pre>java -cp auto-miner.jar com.autominer.diag.FlightRecordDecoder [--ticks] file.amfr</pre>
+ *
+ * Prints a summary (time, ticks and allocation per state, event counts, slowest
+ * ticks); with
+ * {@code --ticks} it also prints every record.
+ */
+public final class FlightRecordDecoder {
+
+    private static final int SLOWEST_SHOWN = 10;
+
+    private FlightRecordDecoder() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean ticks = false;
+        Path file = null;
+        for (String arg : args) {
+            if (arg.equals("--ticks")) {
+                ticks = true;
+            } else {
+                file = Path.of(arg);
+            }
+        }
+        if (file == null) {
+            System.err.println("usage: FlightRecordDecoder [--ticks] <file.amfr>");
+            System.exit(2);
+        }
+
+        try (InputStream raw = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(raw))) {
+            if (in.readInt() != FlightRecorder.MAGIC) {
+                throw new IOException("Not a flight recording: " + file);
+            }
+            short version = in.readShort();
+            if (version != FlightRecorder.VERSION) {
+                throw new IOException("Unsupported recording version " + version);
+            }
+            int recordSize = in.readShort();
+            int count = in.readInt();
+            long dumpedAt = in.readLong();
+            String[] states = readNames(in);
+            String[] events = readNames(in);
+            String reason = in.readUTF();
+
+            System.out.println("Recording: " + file.getFileName() + " (" + count + " ticks, dumped "
+                + new Date(dumpedAt) + ", reason " + reason + ")");
+
+            long[] stateNanos = new long[states.length];
+            long[] stateAlloc = new long[states.length];
+            int[] allocatingTicks = new int[states.length];
+            int[] stateTicks = new int[states.length];
+            int[] eventCounts = new int[events.length];
+            List<long[]> slowest = new ArrayList<>();   // {nanos, tick}
+
+            byte[] bytes = new byte[recordSize];
+            ByteBuffer record = ByteBuffer.wrap(bytes);
+            for (int i = 0; i < count; i++) {
+                in.readFully(bytes);
+                long tick = record.getLong(FlightRecorder.OFF_TICK);
+                int nanos = record.getInt(FlightRecorder.OFF_NANOS);
+                int bits = record.getInt(FlightRecorder.OFF_EVENTS);
+                int state = record.get(FlightRecorder.OFF_STATE);
+                long alloc = record.getLong(FlightRecorder.OFF_ALLOC);
+
+                if (state >= 0 && state < states.length) {
+                    stateNanos[state] += nanos;
+                    stateTicks[state]++;
+                    stateAlloc[state] += alloc;
+                    if (alloc > 0) allocatingTicks[state]++;
+                }
+                for (int e = 0; e < events.length; e++) {
+                    if ((bits & (1 << e)) != 0) eventCounts[e]++;
+                }
+                keepSlowest(slowest, nanos, tick);
+
+                if (ticks) {
+                    System.out.println(formatRecord(record, states, events));
+                }
+            }
+
+            System.out.println();
+            System.out.println("Time per state:");
+            for (int s = 0; s < states.length; s++) {
+                if (stateTicks[s] == 0) continue;
+                System.out.printf("  %-18s %6d ticks  %9.3f ms total  %7.3f ms/tick  %9.1f B/tick  %6d allocating%n",
+                    states[s], stateTicks[s], stateNanos[s] / 1e6, stateNanos[s] / 1e6 / stateTicks[s],
+                    (double) stateAlloc[s] / stateTicks[s], allocatingTicks[s]);
+            }
+            System.out.println("Events:");
+            for (int e = 0; e < events.length; e++) {
+                if (eventCounts[e] > 0) {
+                    System.out.printf("  %-18s %6d%n", events[e], eventCounts[e]);
+                }
+            }
+            System.out.println("Slowest ticks:");
+            for (long[] slow : slowest) {
+                System.out.printf("  tick %-8d %9.3f ms%n", slow[1], slow[0] / 1e6);
+            }
+        }
+    }
+
+    private static String[] readNames(DataInputStream in) throws IOException {
+        String[] names = new String[in.readUnsignedByte()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = in.readUTF();
+        }
+        return names;
+    }
+
+    private static void keepSlowest(List<long[]> slowest, long nanos, long tick) {
+        if (slowest.size() == SLOWEST_SHOWN && slowest.get(SLOWEST_SHOWN - 1)[0] >= nanos) return;
+        int at = 0;
+        while (at < slowest.size() && slowest.get(at)[0] >= nanos) at++;
+        slowest.add(at, new long[]{nanos, tick});
+        if (slowest.size() > SLOWEST_SHOWN) {
+            slowest.remove(SLOWEST_SHOWN);
+        }
+    }
+
+    private static String formatRecord(ByteBuffer r, String[] states, String[] events) {
+        StringBuilder line = new StringBuilder();
+        int state = r.get(FlightRecorder.OFF_STATE);
+        line.append(String.format("%8d %-16s %7.3fms %7dB  pos %.2f %.2f %.2f  rot %.1f/%.1f  #%d",
+            r.getLong(FlightRecorder.OFF_TICK),
+            state >= 0 && state < states.length ? states[state] : "?" + state,
+            r.getInt(FlightRecorder.OFF_NANOS) / 1e6,
+            r.getLong(FlightRecorder.OFF_ALLOC),
+            r.getDouble(FlightRecorder.OFF_X), r.getDouble(FlightRecorder.OFF_Y), r.getDouble(FlightRecorder.OFF_Z),
+            r.getFloat(FlightRecorder.OFF_YAW), r.getFloat(FlightRecorder.OFF_PITCH),
+            r.getInt(FlightRecorder.OFF_QUEUE_INDEX)));
+
+        if (r.get(FlightRecorder.OFF_HAS_TARGET) != 0) {
+            // BlockPos packing: x in the top 26 bits, z in the next 26, y in the low 12
+            long packed = r.getLong(FlightRecorder.OFF_TARGET);
+            line.append("  target ").append((int) (packed >> 38)).append(' ')
+                .append((int) (packed << 52 >> 52)).append(' ')
+                .append((int) (packed << 26 >> 38));
+        }
+        int stuck = r.getShort(FlightRecorder.OFF_STUCK);
+        if (stuck > 0) {
+            line.append("  stuck ").append(stuck);
+        }
+        int bits = r.getInt(FlightRecorder.OFF_EVENTS);
+        for (int e = 0; e < events.length; e++) {
+            if ((bits & (1 << e)) != 0) line.append(' ').append(events[e]);
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,210 @@
+package com.autominer.diag;
+
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.client.network.ClientPlayerEntity;
+import net.minecraft.util.math.BlockPos;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Tick-level flight recorder. Every controller tick writes one fixed-size record
+ * (state, target, position, rotation, planner events, time and bytes allocated) into a
+ * preallocated off-heap ring, so recording costs a handful of stores and no garbage.
+ * The ring is written to a file on demand or shortly after an anomaly;
+ * {@link FlightRecordDecoder} turns the file back into text.
+ *
+ * <p>File layout (big-endian): magic, version, record size, record count, wall-clock
+ * millis, state name table, event name table, dump reason, then the records oldest
+ * first. Record layout is given by the {@code OFF_*} offsets.
+ */
+public class FlightRecorder {
+
+    static final int MAGIC = 0x414D4652;   // "AMFR"
+    static final short VERSION = 2;
+    static final int RECORD_SIZE = 72;
+
+    // Record field offsets
+    static final int OFF_TICK = 0;          // long
+    static final int OFF_NANOS = 8;         // int, time spent in the tick
+    static final int OFF_EVENTS = 12;       // int, Event bit set
+    static final int OFF_X = 16;            // double
+    static final int OFF_Y = 24;            // double
+    static final int OFF_Z = 32;            // double
+    static final int OFF_YAW = 40;          // float
+    static final int OFF_PITCH = 44;        // float
+    static final int OFF_TARGET = 48;       // long, packed BlockPos
+    static final int OFF_QUEUE_INDEX = 56;  // int
+    static final int OFF_STATE = 60;        // byte
+    static final int OFF_HAS_TARGET = 61;   // byte
+    static final int OFF_STUCK = 62;        // short
+    static final int OFF_ALLOC = 64;        // long, bytes allocated during the tick
+
+    // About three and a half minutes at 20 TPS (288 KiB)
+    private static final int CAPACITY = 4096;
+
+    // Anomaly dumps: keep recording a little so the file shows what happened next
+    private static final int POST_ANOMALY_TICKS = 20;
+    private static final long MIN_DUMP_INTERVAL_MS = 30_000;
+    private static final long SLOW_TICK_NANOS = 50_000_000L;
+
+    /** Planner decisions and incidents; at most 32. */
+    public enum Event {
+        TARGET_PICKED,
+        BREAK_STARTED,
+        BREAK_ROLLED_BACK,
+        STUCK,
+        NAVIGATION,
+        SKIP_UNREACHABLE,
+        SKIP_HAZARD,
+        PILLAR_FAILED,
+        NO_SCAFFOLD,
+        TOOL_WORN,
+        MAINTENANCE,
+        DEPOSIT,
+        COLLECT,
+        ILLEGAL_TRANSITION,
+        SLOW_TICK,
+        SETBACK;
+
+        final int bit = 1 << ordinal();
+    }
+
+    private static final int ANOMALIES = Event.SKIP_UNREACHABLE.bit | Event.PILLAR_FAILED.bit
+        | Event.NO_SCAFFOLD.bit | Event.TOOL_WORN.bit | Event.ILLEGAL_TRANSITION.bit | Event.SLOW_TICK.bit;
+
+    private final ByteBuffer ring = ByteBuffer.allocateDirect(CAPACITY * RECORD_SIZE);
+    private final String[] stateNames;
+    private final Path directory;
+
+    private long tickCount = 0;
+    private long written = 0;
+    private long tickStart = 0;
+    private long allocStart = 0;
+    private int events = 0;
+
+    private int dumpCountdown = -1;
+    private String pendingReason = null;
+    private long lastDumpMillis = 0;
+    private boolean enabled = true;
+
+    public FlightRecorder(String[] stateNames) {
+        this.stateNames = stateNames;
+        this.directory = FabricLoader.getInstance().getConfigDir().resolve("auto-miner").resolve("recordings");
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void beginTick() {
+        tickStart = System.nanoTime();
+        allocStart = AllocationProbe.allocatedBytes();
+        events = 0;
+    }
+
+    public void mark(Event event) {
+        events |= event.bit;
+    }
+
+    public void endTick(ClientPlayerEntity player, int state, BlockPos target, int queueIndex, int stuckTicks) {
+        if (!enabled) return;
+        long nanos = System.nanoTime() - tickStart;
+        long allocated = AllocationProbe.allocatedBytes() - allocStart;
+        if (nanos > SLOW_TICK_NANOS) {
+            events |= Event.SLOW_TICK.bit;
+        }
+
+        int base = (int) (written % CAPACITY) * RECORD_SIZE;
+        ring.putLong(base + OFF_TICK, tickCount++);
+        ring.putInt(base + OFF_NANOS, (int) Math.min(nanos, Integer.MAX_VALUE));
+        ring.putInt(base + OFF_EVENTS, events);
+        ring.putDouble(base + OFF_X, player.getX());
+        ring.putDouble(base + OFF_Y, player.getY());
+        ring.putDouble(base + OFF_Z, player.getZ());
+        ring.putFloat(base + OFF_YAW, player.getYaw());
+        ring.putFloat(base + OFF_PITCH, player.getPitch());
+        ring.putLong(base + OFF_TARGET, target != null ? target.asLong() : 0L);
+        ring.putInt(base + OFF_QUEUE_INDEX, queueIndex);
+        ring.put(base + OFF_STATE, (byte) state);
+        ring.put(base + OFF_HAS_TARGET, (byte) (target != null ? 1 : 0));
+        ring.putShort(base + OFF_STUCK, (short) Math.min(stuckTicks, Short.MAX_VALUE));
+        ring.putLong(base + OFF_ALLOC, allocated);
+        written++;
+
+        if ((events & ANOMALIES) != 0 && dumpCountdown < 0
+                && System.currentTimeMillis() - lastDumpMillis >= MIN_DUMP_INTERVAL_MS) {
+            dumpCountdown = POST_ANOMALY_TICKS;
+            pendingReason = firstAnomaly(events);
+        }
+        if (dumpCountdown >= 0 && dumpCountdown-- == 0) {
+            try {
+                dump(pendingReason);
+            } catch (IOException e) {
+                // A failed anomaly dump must never take the run down with it
+            }
+        }
+    }
+
+    // Writes an anomaly dump that is still waiting for its trailing ticks (the run ended)
+    public void flushPending() {
+        if (dumpCountdown < 0) return;
+        dumpCountdown = -1;
+        try {
+            dump(pendingReason);
+        } catch (IOException e) {
+            // Same as a failed anomaly dump in endTick
+        }
+    }
+
+    /**
+     * Writes the ring, oldest record first, to a new file and returns its path.
+     */
+    public Path dump(String reason) throws IOException {
+        lastDumpMillis = System.currentTimeMillis();
+        Files.createDirectories(directory);
+        String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date(lastDumpMillis));
+        Path file = directory.resolve("flight-" + stamp + "-" + reason.toLowerCase().replaceAll("[^a-z0-9_]", "") + ".amfr");
+
+        int count = (int) Math.min(written, CAPACITY);
+        int first = (int) ((written - count) % CAPACITY);
+        try (OutputStream raw = Files.newOutputStream(file);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(raw))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(RECORD_SIZE);
+            out.writeInt(count);
+            out.writeLong(lastDumpMillis);
+            out.writeByte(stateNames.length);
+            for (String name : stateNames) {
+                out.writeUTF(name);
+            }
+            out.writeByte(Event.values().length);
+            for (Event event : Event.values()) {
+                out.writeUTF(event.name());
+            }
+            out.writeUTF(reason);
+
+            byte[] record = new byte[RECORD_SIZE];
+            for (int i = 0; i < count; i++) {
+                ring.get(((first + i) % CAPACITY) * RECORD_SIZE, record);
+                out.write(record);
+            }
+        }
+        return file;
+    }
+
+    private static String firstAnomaly(int events) {
+        for (Event event : Event.values()) {
+            if ((events & ANOMALIES & event.bit) != 0) return event.name();
+        }
+        return "anomaly";
+    }
+}
@@ -0,0 +1,188 @@
+package com.autominer.diag;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import net.minecraft.block.BlockState;
+import net.minecraft.entity.Entity;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Java Flight Recorder events for the controllers' hot paths, so a session can be
+ * profiled with the standard JDK tools (the game's own {@code /jfr} command, or
+ * {@code jcmd <pid> JFR.start}) and controller activity lined up with GC and
+ * allocation. Every helper checks {@link Event#isEnabled()} before filling anything
+ * in; with no recording running the event object never escapes and the JIT removes it.
+ */
+public final class MinerEvents {
+
+    private static final String ROOT = "Auto Miner";
+
+    private MinerEvents() {
+    }
+
+    public static void targetSelected(BlockPos pos, BlockState state, int queueIndex) {
+        TargetSelected event = new TargetSelected();
+        if (!event.isEnabled()) return;
+        event.x = pos.getX();
+        event.y = pos.getY();
+        event.z = pos.getZ();
+        event.block = Registries.BLOCK.getId(state.getBlock()).toString();
+        event.queueIndex = queueIndex;
+        event.commit();
+    }
+
+    public static void breakStarted(BlockPos pos, BlockState state, int predictedTicks) {
+        BreakStarted event = new BreakStarted();
+        if (!event.isEnabled()) return;
+        event.x = pos.getX();
+        event.y = pos.getY();
+        event.z = pos.getZ();
+        event.block = Registries.BLOCK.getId(state.getBlock()).toString();
+        event.predictedTicks = predictedTicks;
+        event.commit();
+    }
+
+    public static void breakFinished(BlockPos pos, int predictedTicks, int actualTicks) {
+        BreakFinished event = new BreakFinished();
+        if (!event.isEnabled()) return;
+        event.x = pos.getX();
+        event.y = pos.getY();
+        event.z = pos.getZ();
+        event.predictedTicks = predictedTicks;
+        event.actualTicks = actualTicks;
+        event.commit();
+    }
+
+    public static void inventorySwap(int fromSlot, int toSlot, String reason) {
+        InventorySwap event = new InventorySwap();
+        if (!event.isEnabled()) return;
+        event.fromSlot = fromSlot;
+        event.toSlot = toSlot;
+        event.reason = reason;
+        event.commit();
+    }
+
+    public static void combatEngaged(Entity target, double distance, float health) {
+        CombatEngaged event = new CombatEngaged();
+        if (!event.isEnabled()) return;
+        event.entity = Registries.ENTITY_TYPE.getId(target.getType()).toString();
+        event.distance = distance;
+        event.health = health;
+        event.commit();
+    }
+
+    /** Duration event: begin before planning, then {@link #end(PathPlanned, String, int, double)}. */
+    public static PathPlanned beginPath() {
+        PathPlanned event = new PathPlanned();
+        event.begin();
+        return event;
+    }
+
+    public static void end(PathPlanned event, String kind, int stops, double length) {
+        if (!event.isEnabled()) return;
+        event.end();
+        event.kind = kind;
+        event.stops = stops;
+        event.length = length;
+        event.commit();
+    }
+
+    /** Duration event: begin at the start of a tick, then {@link #end(TickOverrun, String, String)}. */
+    public static TickOverrun beginTick() {
+        TickOverrun event = new TickOverrun();
+        event.begin();
+        return event;
+    }
+
+    // Only committed when the tick ran past the threshold
+    public static void end(TickOverrun event, String controller, String state) {
+        event.end();
+        if (!event.shouldCommit()) return;
+        event.controller = controller;
+        event.state = state;
+        event.commit();
+    }
+
+    @Name("autominer.TargetSelected")
+    @Label("Target Selected")
+    @Category({ROOT, "Mining"})
+    @StackTrace(false)
+    public static class TargetSelected extends Event {
+        @Label("X") int x;
+        @Label("Y") int y;
+        @Label("Z") int z;
+        @Label("Block") String block;
+        @Label("Queue Index") int queueIndex;
+    }
+
+    @Name("autominer.BreakStarted")
+    @Label("Break Started")
+    @Category({ROOT, "Mining"})
+    @StackTrace(false)
+    public static class BreakStarted extends Event {
+        @Label("X") int x;
+        @Label("Y") int y;
+        @Label("Z") int z;
+        @Label("Block") String block;
+        @Label("Predicted Ticks") int predictedTicks;
+    }
+
+    @Name("autominer.BreakFinished")
+    @Label("Break Finished")
+    @Description("STOP sent for a block; predicted vs. actual ticks spent breaking it")
+    @Category({ROOT, "Mining"})
+    @StackTrace(false)
+    public static class BreakFinished extends Event {
+        @Label("X") int x;
+        @Label("Y") int y;
+        @Label("Z") int z;
+        @Label("Predicted Ticks") int predictedTicks;
+        @Label("Actual Ticks") int actualTicks;
+    }
+
+    @Name("autominer.PathPlanned")
+    @Label("Path Planned")
+    @Category({ROOT, "Mining"})
+    @StackTrace(false)
+    public static class PathPlanned extends Event {
+        @Label("Kind") String kind;
+        @Label("Stops") int stops;
+        @Label("Length") double length;
+    }
+
+    @Name("autominer.InventorySwap")
+    @Label("Inventory Swap")
+    @Category({ROOT, "Inventory"})
+    @StackTrace(false)
+    public static class InventorySwap extends Event {
+        @Label("From Slot") int fromSlot;
+        @Label("To Slot") int toSlot;
+        @Label("Reason") String reason;
+    }
+
+    @Name("autominer.CombatEngaged")
+    @Label("Combat Engaged")
+    @Category({ROOT, "Combat"})
+    @StackTrace(false)
+    public static class CombatEngaged extends Event {
+        @Label("Entity") String entity;
+        @Label("Distance") double distance;
+        @Label("Health") float health;
+    }
+
+    @Name("autominer.TickOverrun")
+    @Label("Tick Overrun")
+    @Description("A controller tick that took longer than the threshold")
+    @Category({ROOT, "Timing"})
+    @Threshold("20 ms")
+    public static class TickOverrun extends Event {
+        @Label("Controller") String controller;
+        @Label("State") String state;
+    }
+}
@@ -0,0 +1,84 @@
+package com.autominer.diag;
+
+import com.autominer.rotation.RotationController;
+
+import java.util.Random;
+
+/**
+ * Offline microbenchmark for {@link RotationController}: ns and bytes per
+ * {@code aimAt} + {@code step}, the pair both controllers run every aiming tick.
+ * Needs no running game, world or player - only the mod jar and the Minecraft jar
+ * (for {@code MathHelper}) on the classpath:
+ *
+ * <pre>java -cp auto-miner.jar:minecraft.jar com.autominer.diag.RotationBenchmark [ops per round]</pre>
+ *
+ * Aims at a fixed pseudo-random set of block targets around the eye, feeding each
+ * step's view back in like the player would, and prints the best and mean of the
+ * measured rounds after warm-up.
+ */
+public final class RotationBenchmark {
+
+    private static final int TARGETS = 1024;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final int DEFAULT_OPS = 2_000_000;
+
+    private RotationBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int ops = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_OPS;
+
+        // Targets within extended reach, including straight up/down (the yaw-lock path)
+        Random random = new Random(42);
+        double[] xs = new double[TARGETS];
+        double[] ys = new double[TARGETS];
+        double[] zs = new double[TARGETS];
+        for (int i = 0; i < TARGETS; i++) {
+            boolean vertical = i % 16 == 0;
+            xs[i] = vertical ? 0.5 : random.nextInt(17) - 8 + 0.5;
+            ys[i] = random.nextInt(17) - 8 + 0.5;
+            zs[i] = vertical ? 0.5 : random.nextInt(17) - 8 + 0.5;
+        }
+
+        RotationController rotation = new RotationController(25.0f);
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            run(rotation, xs, ys, zs, ops);
+        }
+
+        double best = Double.MAX_VALUE;
+        double totalNanos = 0;
+        long totalBytes = 0;
+        long sink = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long bytesBefore = AllocationProbe.allocatedBytes();
+            long start = System.nanoTime();
+            sink += run(rotation, xs, ys, zs, ops);
+            long nanos = System.nanoTime() - start;
+            totalBytes += AllocationProbe.allocatedBytes() - bytesBefore;
+            double perOp = (double) nanos / ops;
+            best = Math.min(best, perOp);
+            totalNanos += perOp;
+        }
+
+        System.out.printf("aimAt+step: best %.1f ns/op, mean %.1f ns/op, %s B/op (%d ops x %d rounds, checksum %d)%n",
+            best, totalNanos / MEASURED_ROUNDS,
+            AllocationProbe.isSupported() ? String.format("%.2f", (double) totalBytes / ((long) ops * MEASURED_ROUNDS)) : "n/a",
+            ops, MEASURED_ROUNDS, sink);
+    }
+
+    // One round; returns how many steps landed on target so the work can't be optimised away
+    private static long run(RotationController rotation, double[] xs, double[] ys, double[] zs, int ops) {
+        float yaw = 0;
+        float pitch = 0;
+        long onTarget = 0;
+        for (int i = 0; i < ops; i++) {
+            int t = (i >>> 3) % TARGETS;   // A few ticks per target, like a real rotation
+            rotation.aimAt(yaw, 0.0, 1.62, 0.0, xs[t], ys[t], zs[t], 0.5);
+            if (rotation.step(yaw, pitch)) onTarget++;
+            yaw = rotation.getStepYaw();
+            pitch = rotation.getStepPitch();
+        }
+        return onTarget;
+    }
+}
@@ -0,0 +1,145 @@
+package com.autominer.maintenance;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayerEntity;
+import net.minecraft.component.DataComponentTypes;
+import net.minecraft.entity.player.PlayerInventory;
+import net.minecraft.item.BlockItem;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.screen.ScreenHandler;
+import net.minecraft.screen.slot.Slot;
+import net.minecraft.screen.slot.SlotActionType;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Watches for a filling inventory. Junk beyond its keep count is thrown out
+ * first; if that doesn't free enough space the controller pauses and deposits
+ * into a marked chest (or waits for the player).
+ */
+public class InventoryMonitor {
+
+    // Act once this few main-inventory slots are left
+    private static final int PRESSURE_FREE_SLOTS = 2;
+    private static final int THROW_STACK_BUTTON = 1;
+
+    // Item -> how many to keep (the rest is junk); defaults keep enough to build with
+    private final Map<Item, Integer> junkRules = new LinkedHashMap<>();
+
+    public InventoryMonitor() {
+        rule(Items.COBBLESTONE, 128);
+        rule(Items.COBBLED_DEEPSLATE, 64);
+        rule(Items.NETHERRACK, 64);
+        rule(Items.DIRT, 0);
+        rule(Items.GRAVEL, 0);
+        rule(Items.GRANITE, 0);
+        rule(Items.DIORITE, 0);
+        rule(Items.ANDESITE, 0);
+        rule(Items.TUFF, 0);
+        rule(Items.FLINT, 0);
+    }
+
+    public InventoryMonitor rule(Item item, int keep) {
+        junkRules.put(item, Math.max(0, keep));
+        return this;
+    }
+
+    public void removeRule(Item item) {
+        junkRules.remove(item);
+    }
+
+    public int getFreeSlots(ClientPlayerEntity player) {
+        PlayerInventory inventory = player.getInventory();
+        int free = 0;
+        for (int i = 0; i < 36; i++) {
+            if (inventory.getStack(i).isEmpty()) free++;
+        }
+        return free;
+    }
+
+    public boolean isUnderPressure(ClientPlayerEntity player) {
+        return getFreeSlots(player) <= PRESSURE_FREE_SLOTS;
+    }
+
+    /**
+     * Throws out one stack of junk beyond its keep count, facing {@code awayYaw} (away
+     * from the work) so it isn't picked straight back up. Returns false when there is no
+     * junk left. Only valid with no screen open.
+     */
+    public boolean dropJunk(MinecraftClient client, float awayYaw) {
+        ClientPlayerEntity player = client.player;
+        if (player.currentScreenHandler != player.playerScreenHandler) return false;
+
+        PlayerInventory inventory = player.getInventory();
+        Map<Item, Integer> kept = new LinkedHashMap<>();
+        // Main inventory first so the hotbar copy is the one that stays
+        for (int n = 0; n < 36; n++) {
+            int i = (n + 9) % 36;
+            ItemStack stack = inventory.getStack(i);
+            Integer keep = junkRules.get(stack.getItem());
+            if (stack.isEmpty() || keep == null) continue;
+
+            int have = kept.getOrDefault(stack.getItem(), 0);
+            if (have >= keep) {
+                player.setYaw(awayYaw);
+                player.setPitch(0.0f);
+                client.interactionManager.clickSlot(player.playerScreenHandler.syncId, toScreenSlot(i),
+                    THROW_STACK_BUTTON, SlotActionType.THROW, player);
+                return true;
+            }
+            kept.put(stack.getItem(), have + stack.getCount());
+        }
+        return false;
+    }
+
+    /**
+     * Quick-moves one depositable stack into the open container. Tools, food and the
+     * first stack of every block kept for scaffolding stay. Returns false when done.
+     */
+    public boolean depositNext(MinecraftClient client) {
+        ClientPlayerEntity player = client.player;
+        ScreenHandler handler = player.currentScreenHandler;
+        if (handler == player.playerScreenHandler) return false;
+
+        PlayerInventory inventory = player.getInventory();
+        Set<Item> kept = new HashSet<>();
+        for (int i = 0; i < 9; i++) {
+            // Hotbar is the working set - remember what it already holds
+            kept.add(inventory.getStack(i).getItem());
+        }
+        for (int i = 9; i < 36; i++) {
+            ItemStack stack = inventory.getStack(i);
+            if (stack.isEmpty() || isEquipment(stack)) continue;
+            if (stack.getItem() instanceof BlockItem && kept.add(stack.getItem())) {
+                continue;
+            }
+
+            Slot slot = findSlot(handler, inventory, i);
+            if (slot == null) return false;
+            client.interactionManager.clickSlot(handler.syncId, slot.id, 0, SlotActionType.QUICK_MOVE, player);
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isEquipment(ItemStack stack) {
+        return stack.isDamageable() || stack.get(DataComponentTypes.FOOD) != null;
+    }
+
+    private static Slot findSlot(ScreenHandler handler, PlayerInventory inventory, int index) {
+        for (Slot slot : handler.slots) {
+            if (slot.inventory == inventory && slot.getIndex() == index) return slot;
+        }
+        return null;
+    }
+
+    // Player inventory index -> player screen handler slot (hotbar is 36-44 there)
+    private static int toScreenSlot(int slot) {
+        return slot < 9 ? slot + 36 : slot;
+    }
+}
@@ -0,0 +1,237 @@
+package com.autominer.maintenance;
+
+import com.autominer.diag.MinerEvents;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayerEntity;
+import net.minecraft.component.DataComponentTypes;
+import net.minecraft.component.EnchantmentEffectComponentTypes;
+import net.minecraft.component.type.FoodComponent;
+import net.minecraft.enchantment.EnchantmentHelper;
+import net.minecraft.entity.player.PlayerInventory;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.screen.slot.SlotActionType;
+import net.minecraft.text.Text;
+
+import java.util.Set;
+
+/**
+ * Keeps a long run alive: tracks the hunger trend and eats during natural pauses,
+ * and keeps tools from being used up completely. Vanilla offers no client-side
+ * repair, so the only "repair" is parking a worn Mending tool in the off hand,
+ * where picked-up XP repairs it.
+ */
+public class MaintenanceManager {
+
+    // Durability left on a tool before it is retired from use
+    private static final int DURABILITY_RESERVE = 8;
+
+    // Hunger trend sampling
+    private static final int SAMPLE_INTERVAL_TICKS = 100;
+    private static final double TREND_SMOOTHING = 0.3;
+
+    // Eat once food is this low, or when the trend says we get there soon
+    private static final int EAT_BELOW = 14;
+    private static final int CRITICAL_FOOD = 6;            // Can't sprint at or below this
+    private static final int LOOKAHEAD_TICKS = 20 * 60;    // Eat early if we'd hit CRITICAL_FOOD within a minute
+    private static final int MAX_EAT_TICKS = 80;
+
+    private static final int OFF_HAND_BUTTON = 40;
+
+    // Food that does more harm than good
+    private static final Set<Item> BAD_FOOD = Set.of(
+        Items.ROTTEN_FLESH, Items.SPIDER_EYE, Items.POISONOUS_POTATO, Items.PUFFERFISH,
+        Items.CHORUS_FRUIT, Items.SUSPICIOUS_STEW
+    );
+
+    // Hunger trend: food + saturation lost per tick
+    private double drainPerTick = 0.0;
+    private float lastEnergy = -1;
+    private int sampleTicks = 0;
+
+    // Eating in progress
+    private boolean eating = false;
+    private int eatTicks = 0;
+    private int previousSlot = -1;
+    private int foodBefore = 0;
+
+    private boolean noFoodWarned = false;
+
+    // A food or mending swap was sent this tick
+    private boolean swapSent = false;
+
+    public boolean isEating() {
+        return eating;
+    }
+
+    // Food is being held, or a swap of ours went out this tick; leave the selected slot alone
+    public boolean isSwapping() {
+        return eating || swapSent;
+    }
+
+    public double getDrainPerMinute() {
+        return drainPerTick * 20 * 60;
+    }
+
+    /**
+     * Runs one tick of maintenance. {@code pause} is true while the controller is in a
+     * natural pause (waiting or walking). Returns true while maintenance owns the player,
+     * in which case the controller should skip its own tick.
+     */
+    public boolean tick(MinecraftClient client, boolean pause) {
+        ClientPlayerEntity player = client.player;
+        if (player == null || client.interactionManager == null) return false;
+
+        swapSent = false;
+        sampleHunger(player);
+
+        if (eating) {
+            continueEating(client, player);
+            return true;
+        }
+
+        int food = player.getHungerManager().getFoodLevel();
+        boolean urgent = food <= CRITICAL_FOOD;
+        if ((pause || urgent) && shouldEat(player, food)) {
+            return startEating(client, player);
+        }
+        return false;
+    }
+
+    public void reset(MinecraftClient client) {
+        if (eating) {
+            finishEating(client);
+        }
+        noFoodWarned = false;
+        swapSent = false;
+    }
+
+    // Whether a tool may still be used without risking it breaking
+    public boolean hasDurability(ItemStack stack) {
+        if (!stack.isDamageable()) return true;
+        return stack.getMaxDamage() - stack.getDamage() > DURABILITY_RESERVE;
+    }
+
+    public int getRemainingDurability(ItemStack stack) {
+        return stack.isDamageable() ? stack.getMaxDamage() - stack.getDamage() : Integer.MAX_VALUE;
+    }
+
+    /**
+     * A worn tool with Mending is moved to the empty off hand, where XP from mining
+     * repairs it. Returns true if the tool was moved.
+     */
+    public boolean parkForMending(MinecraftClient client, int slot) {
+        ClientPlayerEntity player = client.player;
+        if (!player.getOffHandStack().isEmpty()) return false;
+        ItemStack stack = player.getInventory().getStack(slot);
+        if (!EnchantmentHelper.hasAnyEnchantmentsWith(stack, EnchantmentEffectComponentTypes.REPAIR_WITH_XP)) {
+            return false;
+        }
+        MinerEvents.inventorySwap(slot, OFF_HAND_BUTTON, "mending");
+        client.interactionManager.clickSlot(player.currentScreenHandler.syncId, toScreenSlot(slot),
+            OFF_HAND_BUTTON, SlotActionType.SWAP, player);
+        swapSent = true;
+        return true;
+    }
+
+    private void sampleHunger(ClientPlayerEntity player) {
+        if (++sampleTicks < SAMPLE_INTERVAL_TICKS) return;
+        sampleTicks = 0;
+
+        float energy = player.getHungerManager().getFoodLevel() + player.getHungerManager().getSaturationLevel();
+        if (lastEnergy >= 0 && energy <= lastEnergy) {
+            // Only falling samples - eating would look like negative drain
+            double rate = (lastEnergy - energy) / SAMPLE_INTERVAL_TICKS;
+            drainPerTick += TREND_SMOOTHING * (rate - drainPerTick);
+        }
+        lastEnergy = energy;
+    }
+
+    private boolean shouldEat(ClientPlayerEntity player, int food) {
+        if (!player.getHungerManager().isNotFull()) return false;
+        if (food <= EAT_BELOW) return true;
+
+        // Saturation runs out first; then food drops at the trend rate
+        float energy = food + player.getHungerManager().getSaturationLevel();
+        return drainPerTick > 0 && (energy - CRITICAL_FOOD) / drainPerTick < LOOKAHEAD_TICKS;
+    }
+
+    private boolean startEating(MinecraftClient client, ClientPlayerEntity player) {
+        PlayerInventory inventory = player.getInventory();
+        int slot = findFood(inventory, player.getHungerManager().getFoodLevel());
+        if (slot == -1) {
+            if (!noFoodWarned) {
+                noFoodWarned = true;
+                player.sendMessage(Text.literal("§cHungry and no food in inventory!"), true);
+            }
+            return false;
+        }
+        noFoodWarned = false;
+
+        previousSlot = inventory.getSelectedSlot();
+        if (slot >= 9) {
+            // Bring it to the selected hotbar slot. The click is applied locally at once and
+            // the server handles it before the use packet, so eating can start right away
+            MinerEvents.inventorySwap(slot, previousSlot, "food");
+            client.interactionManager.clickSlot(player.currentScreenHandler.syncId, toScreenSlot(slot),
+                previousSlot, SlotActionType.SWAP, player);
+            swapSent = true;
+            slot = previousSlot;
+        } else {
+            MinerEvents.inventorySwap(previousSlot, slot, "food");
+            inventory.setSelectedSlot(slot);
+        }
+        eating = true;
+        eatTicks = 0;
+        foodBefore = player.getHungerManager().getFoodLevel();
+        client.options.useKey.setPressed(true);
+        return true;
+    }
+
+    private void continueEating(MinecraftClient client, ClientPlayerEntity player) {
+        eatTicks++;
+        client.options.useKey.setPressed(true);
+
+        boolean ate = player.getHungerManager().getFoodLevel() > foodBefore;
+        boolean gaveUp = eatTicks > MAX_EAT_TICKS || player.getMainHandStack().get(DataComponentTypes.FOOD) == null;
+        if (ate || gaveUp) {
+            finishEating(client);
+        }
+    }
+
+    private void finishEating(MinecraftClient client) {
+        client.options.useKey.setPressed(false);
+        if (previousSlot >= 0 && client.player != null) {
+            client.player.getInventory().setSelectedSlot(previousSlot);
+        }
+        eating = false;
+        previousSlot = -1;
+    }
+
+    // Food that fills the gap best without waste; hotbar preferred
+    private int findFood(PlayerInventory inventory, int food) {
+        int missing = 20 - food;
+        int best = -1;
+        int bestScore = Integer.MIN_VALUE;
+        for (int i = 0; i < 36; i++) {
+            ItemStack stack = inventory.getStack(i);
+            FoodComponent component = stack.get(DataComponentTypes.FOOD);
+            if (component == null || BAD_FOOD.contains(stack.getItem())) continue;
+
+            int nutrition = component.nutrition();
+            int score = Math.min(nutrition, missing) * 4 - Math.max(0, nutrition - missing) * 2
+                + (int) (component.saturation() * 2) + (i < 9 ? 4 : 0);
+            if (score > bestScore) {
+                bestScore = score;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    // Player inventory index -> player screen handler slot (hotbar is 36-44 there)
+    private static int toScreenSlot(int slot) {
+        return slot < 9 ? slot + 36 : slot;
+    }
+}
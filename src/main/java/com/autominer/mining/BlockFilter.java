@@ -0,0 +1,126 @@
+package com.autominer.mining;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.FluidBlock;
+import net.minecraft.registry.tag.BlockTags;
+import net.minecraft.registry.tag.TagKey;
+import net.minecraft.world.chunk.ChunkSection;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Selects which blocks in a region get mined. Rules are block IDs, block tags and
+ * arbitrary state predicates; a whitelist mines only matching blocks, a blacklist
+ * mines everything else.
+ */
+public class BlockFilter {
+
+    public enum Mode {
+        ALL,
+        WHITELIST,
+        BLACKLIST
+    }
+
+    private final String name;
+    private final Mode mode;
+    private final Set<Block> blocks = new HashSet<>();
+    private final List<TagKey<Block>> tags = new ArrayList<>();
+    private final List<Predicate<BlockState>> predicates = new ArrayList<>();
+
+    // Cached so palette checks don't allocate a lambda per section
+    private final Predicate<BlockState> selectable = this::isSelectable;
+
+    public BlockFilter(String name, Mode mode) {
+        this.name = name;
+        this.mode = mode;
+    }
+
+    public static BlockFilter all() {
+        return new BlockFilter("All blocks", Mode.ALL);
+    }
+
+    public static BlockFilter ores() {
+        return new BlockFilter("Ores only", Mode.WHITELIST)
+            .tag(BlockTags.COAL_ORES)
+            .tag(BlockTags.IRON_ORES)
+            .tag(BlockTags.COPPER_ORES)
+            .tag(BlockTags.GOLD_ORES)
+            .tag(BlockTags.REDSTONE_ORES)
+            .tag(BlockTags.LAPIS_ORES)
+            .tag(BlockTags.DIAMOND_ORES)
+            .tag(BlockTags.EMERALD_ORES)
+            .block(Blocks.NETHER_QUARTZ_ORE)
+            .block(Blocks.ANCIENT_DEBRIS);
+    }
+
+    public static BlockFilter excludeContainers() {
+        return new BlockFilter("No containers/spawners", Mode.BLACKLIST)
+            .block(Blocks.CHEST)
+            .block(Blocks.TRAPPED_CHEST)
+            .block(Blocks.BARREL)
+            .block(Blocks.ENDER_CHEST)
+            .block(Blocks.SPAWNER)
+            .block(Blocks.TRIAL_SPAWNER)
+            .tag(BlockTags.SHULKER_BOXES);
+    }
+
+    public BlockFilter block(Block block) {
+        blocks.add(block);
+        return this;
+    }
+
+    public BlockFilter tag(TagKey<Block> tag) {
+        tags.add(tag);
+        return this;
+    }
+
+    public BlockFilter state(Predicate<BlockState> predicate) {
+        predicates.add(predicate);
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    // Whether a block in this state should be mined (air and bare fluids are never selected)
+    public boolean isSelectable(BlockState state) {
+        if (state.isAir() || state.getBlock() instanceof FluidBlock) return false;
+        return switch (mode) {
+            case ALL -> true;
+            case WHITELIST -> matchesRules(state);
+            case BLACKLIST -> !matchesRules(state);
+        };
+    }
+
+    /**
+     * Palette check for a whole 16x16x16 section. False means no cell in the
+     * section can be selected, so the section can be skipped without reading cells.
+     */
+    public boolean mayContainSelectable(ChunkSection section) {
+        if (section.isEmpty()) return false;
+        if (mode == Mode.ALL) return true;
+        return section.hasAny(selectable);
+    }
+
+    private boolean matchesRules(BlockState state) {
+        if (blocks.contains(state.getBlock())) return true;
+        for (TagKey<Block> tag : tags) {
+            if (state.isIn(tag)) return true;
+        }
+        for (Predicate<BlockState> predicate : predicates) {
+            if (predicate.test(state)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,279 @@
+package com.autominer.mining;
+
+import com.autominer.diag.MinerEvents;
+import com.autominer.mixin.ClientPlayerInteractionManagerAccessor;
+import com.autominer.net.LatencyEstimator;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayNetworkHandler;
+import net.minecraft.client.network.ClientPlayerEntity;
+import net.minecraft.client.network.PendingUpdateManager;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.network.packet.c2s.play.PlayerActionC2SPacket;
+import net.minecraft.util.Hand;
+import net.minecraft.util.Util;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+
+/**
+ * Sends START/STOP_DESTROY_BLOCK actions directly with sequence numbers and tracks
+ * the server's acknowledgements. Finished breaks are predicted locally, so the next
+ * block can be started while up to {@link #WINDOW} earlier breaks are still unconfirmed.
+ */
+public class BreakPipeline {
+
+    // Maximum number of breaks waiting for a server acknowledgement
+    private static final int WINDOW = 4;
+    private static final int MAX_RETRIES = 2;
+    private static final int MIN_ACK_TIMEOUT_TICKS = 20;
+
+    private final LatencyEstimator latency;
+
+    // Block currently being mined
+    private BlockPos active = null;
+    private Direction activeFace = null;
+    private float activeProgress = 0;
+    private int activeTicks = 0;
+    private int activePredictedTicks = 0;
+
+    // Breaks sent but not yet acknowledged (parallel arrays, insertion ordered)
+    private final int[] pendingSequence = new int[WINDOW];
+    private final long[] pendingPos = new long[WINDOW];
+    private final int[] pendingAge = new int[WINDOW];
+    private final long[] pendingSentMs = new long[WINDOW];
+    private int pendingCount = 0;
+
+    // Rejected breaks the controller should mine again, and how often each was rejected
+    private final LongArrayFIFOQueue rejected = new LongArrayFIFOQueue();
+    private final Long2IntOpenHashMap rejections = new Long2IntOpenHashMap();
+
+    // Statistics
+    private int confirmedCount = 0;
+    private int rejectedCount = 0;
+
+    public BreakPipeline(LatencyEstimator latency) {
+        this.latency = latency;
+    }
+
+    public boolean hasCapacity() {
+        return pendingCount < WINDOW;
+    }
+
+    public boolean isBreaking(BlockPos pos) {
+        return active != null && active.equals(pos);
+    }
+
+    public boolean isInFlight(BlockPos pos) {
+        long key = pos.asLong();
+        for (int i = 0; i < pendingCount; i++) {
+            if (pendingPos[i] == key) return true;
+        }
+        return false;
+    }
+
+    public int getInFlightCount() {
+        return pendingCount;
+    }
+
+    public int getConfirmedCount() {
+        return confirmedCount;
+    }
+
+    public int getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Start mining a block. Instant-break blocks are finished in the same call.
+     * Returns false if the window is full or the block cannot be mined.
+     */
+    public boolean start(MinecraftClient client, BlockPos pos, Direction face) {
+        if (!hasCapacity() || active != null) return false;
+
+        ClientPlayerEntity player = client.player;
+        ClientWorld world = client.world;
+        BlockState state = world.getBlockState(pos);
+        if (state.isAir()) return false;
+
+        float delta = state.calcBlockBreakingDelta(player, world, pos);
+        if (delta <= 0) return false;
+
+        active = pos.toImmutable();
+        activeFace = face;
+        activeProgress = 0;
+        activeTicks = 0;
+        activePredictedTicks = delta >= 1.0f ? 0 : (int) Math.ceil(1.0f / delta);
+        MinerEvents.breakStarted(active, state, activePredictedTicks);
+
+        if (delta >= 1.0f) {
+            // Instant break: START alone destroys the block server-side
+            finish(client, PlayerActionC2SPacket.Action.START_DESTROY_BLOCK);
+            return true;
+        }
+
+        send(client, PlayerActionC2SPacket.Action.START_DESTROY_BLOCK, active, face, false);
+        return true;
+    }
+
+    /**
+     * Advance the active break by one tick. Returns true once the STOP action has been
+     * sent and the block is predicted broken.
+     */
+    public boolean continueBreaking(MinecraftClient client) {
+        if (active == null) return false;
+
+        ClientPlayerEntity player = client.player;
+        ClientWorld world = client.world;
+        BlockState state = world.getBlockState(active);
+        if (state.isAir()) {
+            active = null;
+            return true;
+        }
+
+        activeProgress += state.calcBlockBreakingDelta(player, world, active);
+        activeTicks++;
+        player.swingHand(Hand.MAIN_HAND);
+        world.setBlockBreakingInfo(player.getId(), active, (int) (activeProgress * 10.0f) - 1);
+
+        if (activeProgress >= 1.0f) {
+            finish(client, PlayerActionC2SPacket.Action.STOP_DESTROY_BLOCK);
+            return true;
+        }
+        return false;
+    }
+
+    // Abort the active break (if any) without touching in-flight ones
+    public void abort(MinecraftClient client) {
+        if (active == null) return;
+        ClientPlayNetworkHandler handler = client.getNetworkHandler();
+        if (handler != null) {
+            handler.sendPacket(new PlayerActionC2SPacket(
+                PlayerActionC2SPacket.Action.ABORT_DESTROY_BLOCK, active, activeFace));
+        }
+        if (client.world != null && client.player != null) {
+            client.world.setBlockBreakingInfo(client.player.getId(), active, -1);
+        }
+        active = null;
+        activeProgress = 0;
+    }
+
+    public void reset(MinecraftClient client) {
+        abort(client);
+        pendingCount = 0;
+        rejected.clear();
+        rejections.clear();
+        confirmedCount = 0;
+        rejectedCount = 0;
+    }
+
+    // Age in-flight breaks and resolve those the server never answered
+    public void tick(MinecraftClient client) {
+        for (int i = 0; i < pendingCount; i++) {
+            pendingAge[i]++;
+        }
+        int timeout = Math.max(MIN_ACK_TIMEOUT_TICKS, latency.getConfirmTicks() * 3);
+        while (pendingCount > 0 && pendingAge[0] > timeout) {
+            resolve(client.world, 0);
+        }
+    }
+
+    // Server processed every action with a sequence number up to and including this one
+    public void onActionAcknowledged(MinecraftClient client, int sequence) {
+        if (client.world == null) return;
+        int i = 0;
+        while (i < pendingCount) {
+            if (pendingSequence[i] <= sequence) {
+                latency.sampleSince(pendingSentMs[i]);
+                resolve(client.world, i);
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * A predicted break the server contradicted outside an acknowledgement (a block
+     * update, or the prediction expiring). Breaks still waiting for their ack are left
+     * to it, so each rejection is counted - and spends the retry budget - once.
+     */
+    public void onRolledBack(BlockPos pos) {
+        long key = pos.asLong();
+        for (int i = 0; i < pendingCount; i++) {
+            if (pendingPos[i] == key) return;
+        }
+        reject(key);
+    }
+
+    // Next rejected break to mine again, or null
+    public BlockPos pollRejected() {
+        if (rejected.isEmpty()) return null;
+        return BlockPos.fromLong(rejected.dequeueLong());
+    }
+
+    private void finish(MinecraftClient client, PlayerActionC2SPacket.Action action) {
+        int sequence = send(client, action, active, activeFace, true);
+        MinerEvents.breakFinished(active, activePredictedTicks, activeTicks);
+        client.world.setBlockBreakingInfo(client.player.getId(), active, -1);
+
+        pendingSequence[pendingCount] = sequence;
+        pendingPos[pendingCount] = active.asLong();
+        pendingAge[pendingCount] = 0;
+        pendingSentMs[pendingCount] = Util.getMeasuringTimeMs();
+        pendingCount++;
+
+        active = null;
+        activeProgress = 0;
+    }
+
+    private int send(MinecraftClient client, PlayerActionC2SPacket.Action action, BlockPos pos,
+                     Direction face, boolean predictBreak) {
+        ClientPlayNetworkHandler handler = client.getNetworkHandler();
+        ClientWorld world = client.world;
+        if (handler == null) return 0;
+
+        // The server judges the break with whatever tool it thinks is held, so a tool
+        // switch made this tick has to reach it first (vanilla does this for its own actions)
+        ((ClientPlayerInteractionManagerAccessor) client.interactionManager).autominer$syncSelectedSlot();
+
+        // Predicting inside the sequence scope lets vanilla roll the block back if rejected
+        try (PendingUpdateManager pending = world.getPendingUpdateManager().incrementSequence()) {
+            int sequence = pending.getSequence();
+            handler.sendPacket(new PlayerActionC2SPacket(action, pos, face, sequence));
+            if (predictBreak) {
+                client.interactionManager.breakBlock(pos);
+            }
+            return sequence;
+        }
+    }
+
+    private void resolve(ClientWorld world, int index) {
+        long key = pendingPos[index];
+
+        // By now vanilla has restored the server's state for this position
+        if (world == null || world.getBlockState(BlockPos.fromLong(key)).isAir()) {
+            confirmedCount++;
+            rejections.remove(key);
+        } else {
+            reject(key);
+        }
+
+        // Remove while keeping insertion order
+        for (int i = index + 1; i < pendingCount; i++) {
+            pendingSequence[i - 1] = pendingSequence[i];
+            pendingPos[i - 1] = pendingPos[i];
+            pendingAge[i - 1] = pendingAge[i];
+            pendingSentMs[i - 1] = pendingSentMs[i];
+        }
+        pendingCount--;
+    }
+
+    // Retry a few times, then give the block up (protected, or otherwise unbreakable for us)
+    private void reject(long key) {
+        rejectedCount++;
+        if (rejections.addTo(key, 1) < MAX_RETRIES) {
+            rejected.enqueue(key);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.autominer.mining;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Deck line for bridging across a gap: the cells one below the feet, at the height
+ * bridging started, under the straight walk from the player to the target column.
+ * Cells are traced with a grid walk that steps one axis at a time, so a diagonal
+ * bridge is a staircase of face-connected cells - each can be placed against the one
+ * before it, and the player is never asked to stand across a corner. Where the line
+ * runs exactly through a corner, the side that is already solid is taken, so existing
+ * ground and earlier scaffold are walked on rather than built again.
+ *
+ * <p>The deck is re-traced every tick from the player's position into a reused list;
+ * index 0 is always the cell under the player.
+ */
+public class BridgePlanner {
+
+    // Longest deck traced at once; bridging ends well before this (reach)
+    private static final int MAX_CELLS = 64;
+
+    private static final double CORNER_EPSILON = 1e-6;
+
+    // The player's box is 0.6 wide, so it still rests on a cell this far past its edge
+    private static final double PLAYER_HALF_WIDTH = 0.3;
+
+    private final LongArrayList deck = new LongArrayList();
+    private final BlockPos.Mutable cell = new BlockPos.Mutable();
+    private int deckY = 0;
+
+    public void start(int deckY) {
+        this.deckY = deckY;
+        deck.clear();
+    }
+
+    public int getDeckY() {
+        return deckY;
+    }
+
+    public int size() {
+        return deck.size();
+    }
+
+    public long get(int index) {
+        return deck.getLong(index);
+    }
+
+    /**
+     * Traces the deck from (fromX, fromZ) toward the centre of the target column,
+     * stopping short of the column itself (that's the block being mined).
+     */
+    public void plan(ClientWorld world, PredictedWorld predicted, double fromX, double fromZ, int toX, int toZ) {
+        deck.clear();
+        int x = (int) Math.floor(fromX);
+        int z = (int) Math.floor(fromZ);
+        double dx = toX + 0.5 - fromX;
+        double dz = toZ + 0.5 - fromZ;
+        int stepX = dx > 0 ? 1 : -1;
+        int stepZ = dz > 0 ? 1 : -1;
+        double tDeltaX = dx == 0 ? Double.POSITIVE_INFINITY : 1.0 / Math.abs(dx);
+        double tDeltaZ = dz == 0 ? Double.POSITIVE_INFINITY : 1.0 / Math.abs(dz);
+        double tMaxX = dx == 0 ? Double.POSITIVE_INFINITY : (stepX > 0 ? x + 1 - fromX : fromX - x) * tDeltaX;
+        double tMaxZ = dz == 0 ? Double.POSITIVE_INFINITY : (stepZ > 0 ? z + 1 - fromZ : fromZ - z) * tDeltaZ;
+
+        while (deck.size() < MAX_CELLS && (x != toX || z != toZ)) {
+            deck.add(BlockPos.asLong(x, deckY, z));
+            if (Math.abs(tMaxX - tMaxZ) < CORNER_EPSILON) {
+                // Through a corner: either neighbour connects, so take one that's already there
+                if (isSolid(world, predicted, x + stepX, z) || !isSolid(world, predicted, x, z + stepZ)) {
+                    x += stepX;
+                    tMaxX += tDeltaX;
+                } else {
+                    z += stepZ;
+                    tMaxZ += tDeltaZ;
+                }
+            } else if (tMaxX < tMaxZ) {
+                x += stepX;
+                tMaxX += tDeltaX;
+            } else {
+                z += stepZ;
+                tMaxZ += tDeltaZ;
+            }
+        }
+    }
+
+    /** Index of the first deck cell that still has to be placed, or -1 if the deck is whole. */
+    public int firstGap(ClientWorld world, PredictedWorld predicted) {
+        for (int i = 0; i < deck.size(); i++) {
+            cell.set(deck.getLong(i));
+            if (predicted.getBlockState(world, cell).isAir()) return i;
+        }
+        return -1;
+    }
+
+    /** True when every deck cell up to {@code index} is a block the server has confirmed. */
+    public boolean isConfirmedThrough(ClientWorld world, PredictedWorld predicted, int index) {
+        for (int i = 0; i <= index && i < deck.size(); i++) {
+            cell.set(deck.getLong(i));
+            if (!predicted.isConfirmedSolid(world, cell)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Blocks the player can still move along (dirX, dirZ) before their box stops
+     * overlapping the cell under them - where they would step off it.
+     */
+    public static double distanceToEdge(double x, double z, double dirX, double dirZ) {
+        double cellX = Math.floor(x);
+        double cellZ = Math.floor(z);
+        double toX = dirX > 0 ? (cellX + 1 - x) / dirX : dirX < 0 ? (cellX - x) / dirX : Double.POSITIVE_INFINITY;
+        double toZ = dirZ > 0 ? (cellZ + 1 - z) / dirZ : dirZ < 0 ? (cellZ - z) / dirZ : Double.POSITIVE_INFINITY;
+        return Math.min(toX, toZ) + PLAYER_HALF_WIDTH;
+    }
+
+    private boolean isSolid(ClientWorld world, PredictedWorld predicted, int x, int z) {
+        cell.set(x, deckY, z);
+        return !predicted.getBlockState(world, cell).isAir();
+    }
+}
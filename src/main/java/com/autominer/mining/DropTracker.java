@@ -0,0 +1,268 @@
+package com.autominer.mining;
+
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayerEntity;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.ItemEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Item drops from blocks we broke, kept in a spatial hash so the controller can
+ * pick them up later. With extended reach most drops land out of pickup range;
+ * at natural breakpoints (end of a slice, end of a batch) the controller asks for
+ * a short route through the ones nearby and walks it.
+ */
+public class DropTracker {
+
+    // Spatial hash bucket size (8 blocks)
+    private static final int BUCKET_SHIFT = 3;
+
+    // An item that appears this soon after a break, in or next to the broken cell, is ours
+    private static final int BREAK_MEMORY_TICKS = 60;
+
+    // Route limits: keep the detour short
+    private static final double MAX_ROUTE_RADIUS = 24.0;
+    private static final double MAX_VERTICAL_OFFSET = 4.0;
+    private static final int MAX_ROUTE_STOPS = 24;
+    private static final int MAX_TWO_OPT_PASSES = 8;
+
+    // Vanilla picks items up within the player box expanded by 1 horizontally
+    private static final double PICKUP_RANGE = 1.3;
+
+    // Recently broken cells -> tick broken
+    private final Long2IntOpenHashMap recentBreaks = new Long2IntOpenHashMap();
+    private final LongArrayFIFOQueue breakOrder = new LongArrayFIFOQueue();
+    private final IntArrayFIFOQueue breakTicks = new IntArrayFIFOQueue();
+    private int tickCount = 0;
+
+    // Bucket -> tracked entity ids, and entity id -> the bucket it was filed under
+    private final Long2ObjectOpenHashMap<IntArrayList> buckets = new Long2ObjectOpenHashMap<>();
+    private final Int2LongOpenHashMap bucketOf = new Int2LongOpenHashMap();
+
+    private double lastRouteLength = 0;
+
+    public void tick() {
+        tickCount++;
+        // Breaks are recorded in tick order, so the expired ones are at the front
+        while (!breakOrder.isEmpty() && tickCount - breakTicks.firstInt() > BREAK_MEMORY_TICKS) {
+            long key = breakOrder.dequeueLong();
+            int tick = breakTicks.dequeueInt();
+            if (recentBreaks.get(key) == tick) {
+                recentBreaks.remove(key);
+            }
+        }
+    }
+
+    public void recordBreak(BlockPos pos) {
+        recentBreaks.put(pos.asLong(), tickCount);
+        breakOrder.enqueue(pos.asLong());
+        breakTicks.enqueue(tickCount);
+    }
+
+    // Walking distance of the last planned route
+    public double getLastRouteLength() {
+        return lastRouteLength;
+    }
+
+    public int size() {
+        return bucketOf.size();
+    }
+
+    public void clear() {
+        recentBreaks.clear();
+        breakOrder.clear();
+        breakTicks.clear();
+        buckets.clear();
+        bucketOf.clear();
+    }
+
+    // Entity load callback: keep item entities that spawned where we just mined
+    public void onEntityLoad(Entity entity, ClientWorld world) {
+        if (!(entity instanceof ItemEntity) || recentBreaks.isEmpty()) return;
+
+        // Anything next to us gets picked up anyway (and keeps our own thrown junk out)
+        ClientPlayerEntity player = MinecraftClient.getInstance().player;
+        if (player != null && entity.squaredDistanceTo(player) < 4.0) return;
+
+        // Drops spawn inside the broken cell, but may be pushed into a neighbour
+        BlockPos at = entity.getBlockPos();
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    if (recentBreaks.containsKey(BlockPos.asLong(at.getX() + dx, at.getY() + dy, at.getZ() + dz))) {
+                        file(entity.getId(), entity.getX(), entity.getY(), entity.getZ());
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    // Stops dropping this item from future routes (e.g. it proved unreachable)
+    public void forget(int id) {
+        unfile(id);
+    }
+
+    // Entity unload callback: picked up (by anyone), despawned or out of view
+    public void onEntityUnload(Entity entity, ClientWorld world) {
+        unfile(entity.getId());
+    }
+
+    /**
+     * Plans a pickup route from {@code from} through the tracked drops nearby that are
+     * not already within pickup range: nearest neighbour first, then 2-opt to remove
+     * crossings. Returns the entity ids in visiting order.
+     */
+    public IntArrayList planRoute(ClientWorld world, Vec3d from) {
+        IntArrayList ids = new IntArrayList();
+        lastRouteLength = 0;
+        int radius = (int) Math.ceil(MAX_ROUTE_RADIUS) >> BUCKET_SHIFT;
+        int bx = (int) Math.floor(from.x) >> BUCKET_SHIFT;
+        int by = (int) Math.floor(from.y) >> BUCKET_SHIFT;
+        int bz = (int) Math.floor(from.z) >> BUCKET_SHIFT;
+
+        // Gather candidates from the surrounding buckets
+        IntArrayList stale = new IntArrayList();
+        List<Vec3d> points = new ArrayList<>();
+        for (int x = bx - radius; x <= bx + radius; x++) {
+            for (int y = by - 1; y <= by + 1; y++) {
+                for (int z = bz - radius; z <= bz + radius; z++) {
+                    IntArrayList bucket = buckets.get(bucketKey(x, y, z));
+                    if (bucket == null) continue;
+                    for (int i = 0; i < bucket.size(); i++) {
+                        int id = bucket.getInt(i);
+                        Entity entity = world.getEntityById(id);
+                        if (!(entity instanceof ItemEntity) || entity.isRemoved()) {
+                            stale.add(id);
+                            continue;
+                        }
+                        Vec3d pos = entity.getPos();
+                        double horizontal = Math.hypot(pos.x - from.x, pos.z - from.z);
+                        if (horizontal > MAX_ROUTE_RADIUS || Math.abs(pos.y - from.y) > MAX_VERTICAL_OFFSET
+                                || (horizontal <= PICKUP_RANGE && Math.abs(pos.y - from.y) <= 1.0)) {
+                            continue;
+                        }
+                        ids.add(id);
+                        points.add(pos);
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < stale.size(); i++) {
+            unfile(stale.getInt(i));
+        }
+        if (ids.isEmpty()) return ids;
+
+        // Items move (fall, slide, merge) - refile the ones we're about to route through
+        for (int i = 0; i < ids.size(); i++) {
+            Vec3d p = points.get(i);
+            file(ids.getInt(i), p.x, p.y, p.z);
+        }
+
+        int[] order = nearestNeighbour(from, points);
+        twoOpt(from, points, order);
+
+        IntArrayList route = new IntArrayList(order.length);
+        Vec3d at = from;
+        for (int index : order) {
+            route.add(ids.getInt(index));
+            lastRouteLength += at.distanceTo(points.get(index));
+            at = points.get(index);
+        }
+        return route;
+    }
+
+    // Greedy tour from the start point, capped at MAX_ROUTE_STOPS
+    private static int[] nearestNeighbour(Vec3d from, List<Vec3d> points) {
+        int n = Math.min(points.size(), MAX_ROUTE_STOPS);
+        int[] order = new int[n];
+        boolean[] used = new boolean[points.size()];
+        Vec3d at = from;
+        for (int step = 0; step < n; step++) {
+            int best = -1;
+            double bestDist = Double.MAX_VALUE;
+            for (int i = 0; i < points.size(); i++) {
+                if (used[i]) continue;
+                double dist = at.squaredDistanceTo(points.get(i));
+                if (dist < bestDist) {
+                    bestDist = dist;
+                    best = i;
+                }
+            }
+            used[best] = true;
+            order[step] = best;
+            at = points.get(best);
+        }
+        return order;
+    }
+
+    // 2-opt on an open path with a fixed start: reverse order[i..j] while it shortens the walk
+    private static void twoOpt(Vec3d from, List<Vec3d> points, int[] order) {
+        int n = order.length;
+        for (int pass = 0; pass < MAX_TWO_OPT_PASSES; pass++) {
+            boolean improved = false;
+            for (int i = 0; i < n - 1; i++) {
+                Vec3d before = i == 0 ? from : points.get(order[i - 1]);
+                Vec3d first = points.get(order[i]);
+                for (int j = i + 1; j < n; j++) {
+                    Vec3d last = points.get(order[j]);
+                    double removed = before.distanceTo(first);
+                    double added = before.distanceTo(last);
+                    if (j < n - 1) {
+                        Vec3d after = points.get(order[j + 1]);
+                        removed += last.distanceTo(after);
+                        added += first.distanceTo(after);
+                    }
+                    if (added < removed - 1e-6) {
+                        for (int a = i, b = j; a < b; a++, b--) {
+                            int swap = order[a];
+                            order[a] = order[b];
+                            order[b] = swap;
+                        }
+                        first = points.get(order[i]);
+                        improved = true;
+                    }
+                }
+            }
+            if (!improved) return;
+        }
+    }
+
+    private void file(int id, double x, double y, double z) {
+        long key = bucketKey((int) Math.floor(x) >> BUCKET_SHIFT, (int) Math.floor(y) >> BUCKET_SHIFT,
+            (int) Math.floor(z) >> BUCKET_SHIFT);
+        if (bucketOf.containsKey(id)) {
+            if (bucketOf.get(id) == key) return;
+            unfile(id);
+        }
+        buckets.computeIfAbsent(key, k -> new IntArrayList()).add(id);
+        bucketOf.put(id, key);
+    }
+
+    private void unfile(int id) {
+        if (!bucketOf.containsKey(id)) return;
+        long key = bucketOf.remove(id);
+        IntArrayList bucket = buckets.get(key);
+        if (bucket == null) return;
+        bucket.rem(id);
+        if (bucket.isEmpty()) {
+            buckets.remove(key);
+        }
+    }
+
+    // Buckets reuse BlockPos packing; coordinates are already shifted down so they fit
+    private static long bucketKey(int x, int y, int z) {
+        return BlockPos.asLong(x, y, z);
+    }
+}
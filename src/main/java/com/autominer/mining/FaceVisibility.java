@@ -0,0 +1,256 @@
+package com.autominer.mining;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.BlockView;
+
+import java.util.Arrays;
+
+/**
+ * Voxel DDA ray-caster with a small direct-mapped cache of the visible face
+ * and aim point for each target block. An entry holds only for the same reach and
+ * (nearly) the same eye position, and is dropped when a block next to its target
+ * changes.
+ */
+public class FaceVisibility {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    // Offsets tried on each face (centre first, then towards the corners)
+    private static final double[] FACE_OFFSETS = {0.0, 0.0, 0.3, 0.3, -0.3, 0.3, 0.3, -0.3, -0.3, -0.3};
+
+    // Aim points are pulled slightly inside the block so the ray ends in the target cell
+    private static final double INSET = 0.01;
+
+    private static final int CACHE_SIZE = 256;
+    private static final int CACHE_TICKS = 5;
+
+    // Eye movement (per axis) an entry survives; any further and the rays are re-cast
+    private static final double EYE_TOLERANCE = 0.05;
+
+    // Cache entries (parallel arrays, indexed by hashed target position)
+    private final long[] cacheTarget = new long[CACHE_SIZE];
+    private final double[] cacheEye = new double[CACHE_SIZE * 3];
+    private final double[] cacheReach = new double[CACHE_SIZE];
+    private final long[] cacheTime = new long[CACHE_SIZE];
+    private final byte[] cacheFace = new byte[CACHE_SIZE];
+    private final double[] cacheAim = new double[CACHE_SIZE * 3];
+    private final boolean[] cacheValid = new boolean[CACHE_SIZE];
+
+    // Scratch position for world lookups
+    private final BlockPos.Mutable scratch = new BlockPos.Mutable();
+
+    // Result of the last resolve() call
+    private Direction face = null;
+    private double aimX, aimY, aimZ;
+
+    public Direction getFace() {
+        return face;
+    }
+
+    public double getAimX() {
+        return aimX;
+    }
+
+    public double getAimY() {
+        return aimY;
+    }
+
+    public double getAimZ() {
+        return aimZ;
+    }
+
+    public void invalidate() {
+        Arrays.fill(cacheValid, false);
+    }
+
+    // A block changed at pos: drop entries for it and the targets whose faces it covers
+    public void invalidateAround(BlockPos pos) {
+        invalidateTarget(pos.asLong());
+        for (Direction dir : DIRECTIONS) {
+            invalidateTarget(BlockPos.offset(pos.asLong(), dir));
+        }
+    }
+
+    private void invalidateTarget(long targetKey) {
+        int slot = (int) (mix(targetKey) & (CACHE_SIZE - 1));
+        if (cacheTarget[slot] == targetKey) {
+            cacheValid[slot] = false;
+        }
+    }
+
+    /**
+     * Find the closest unobstructed face of {@code target} within {@code reach} of the eye.
+     * Returns false if no face can be hit; otherwise the face and aim point are available
+     * through the getters until the next call.
+     */
+    public boolean resolve(BlockView world, long time, double eyeX, double eyeY, double eyeZ,
+                           BlockPos target, double reach) {
+        long targetKey = target.asLong();
+        int slot = (int) (mix(targetKey) & (CACHE_SIZE - 1));
+
+        if (cacheValid[slot] && cacheTarget[slot] == targetKey && cacheReach[slot] == reach
+                && time - cacheTime[slot] < CACHE_TICKS
+                && Math.abs(cacheEye[slot * 3] - eyeX) <= EYE_TOLERANCE
+                && Math.abs(cacheEye[slot * 3 + 1] - eyeY) <= EYE_TOLERANCE
+                && Math.abs(cacheEye[slot * 3 + 2] - eyeZ) <= EYE_TOLERANCE) {
+            return loadCached(slot);
+        }
+
+        boolean visible = compute(world, eyeX, eyeY, eyeZ, target, reach);
+
+        cacheValid[slot] = true;
+        cacheTarget[slot] = targetKey;
+        cacheEye[slot * 3] = eyeX;
+        cacheEye[slot * 3 + 1] = eyeY;
+        cacheEye[slot * 3 + 2] = eyeZ;
+        cacheReach[slot] = reach;
+        cacheTime[slot] = time;
+        cacheFace[slot] = (byte) (visible ? face.ordinal() : -1);
+        cacheAim[slot * 3] = aimX;
+        cacheAim[slot * 3 + 1] = aimY;
+        cacheAim[slot * 3 + 2] = aimZ;
+        return visible;
+    }
+
+    private boolean loadCached(int slot) {
+        int ordinal = cacheFace[slot];
+        if (ordinal < 0) {
+            face = null;
+            return false;
+        }
+        face = DIRECTIONS[ordinal];
+        aimX = cacheAim[slot * 3];
+        aimY = cacheAim[slot * 3 + 1];
+        aimZ = cacheAim[slot * 3 + 2];
+        return true;
+    }
+
+    private boolean compute(BlockView world, double eyeX, double eyeY, double eyeZ, BlockPos target, double reach) {
+        int tx = target.getX();
+        int ty = target.getY();
+        int tz = target.getZ();
+        double cx = tx + 0.5;
+        double cy = ty + 0.5;
+        double cz = tz + 0.5;
+        double reachSq = reach * reach;
+
+        Direction bestFace = null;
+        double bestDistSq = Double.MAX_VALUE;
+        double bestX = 0, bestY = 0, bestZ = 0;
+
+        for (Direction dir : DIRECTIONS) {
+            int nx = dir.getOffsetX();
+            int ny = dir.getOffsetY();
+            int nz = dir.getOffsetZ();
+
+            double faceX = cx + nx * 0.5;
+            double faceY = cy + ny * 0.5;
+            double faceZ = cz + nz * 0.5;
+
+            // Face must point towards the eye
+            if ((eyeX - faceX) * nx + (eyeY - faceY) * ny + (eyeZ - faceZ) * nz <= 0) continue;
+
+            // Face must not be covered by its neighbour
+            if (isOccluding(world, tx + nx, ty + ny, tz + nz)) continue;
+
+            for (int i = 0; i < FACE_OFFSETS.length; i += 2) {
+                double u = FACE_OFFSETS[i];
+                double v = FACE_OFFSETS[i + 1];
+
+                // Spread the offset over the two axes tangent to the face
+                double px = faceX - nx * INSET + (nx == 0 ? u : 0);
+                double py = faceY - ny * INSET + (ny == 0 ? (nx == 0 ? v : u) : 0);
+                double pz = faceZ - nz * INSET + (nz == 0 ? v : 0);
+
+                double ddx = px - eyeX;
+                double ddy = py - eyeY;
+                double ddz = pz - eyeZ;
+                double distSq = ddx * ddx + ddy * ddy + ddz * ddz;
+                if (distSq > reachSq || distSq >= bestDistSq) continue;
+
+                if (traceClear(world, eyeX, eyeY, eyeZ, px, py, pz, tx, ty, tz)) {
+                    bestFace = dir;
+                    bestDistSq = distSq;
+                    bestX = px;
+                    bestY = py;
+                    bestZ = pz;
+                    break;
+                }
+            }
+        }
+
+        face = bestFace;
+        aimX = bestX;
+        aimY = bestY;
+        aimZ = bestZ;
+        return bestFace != null;
+    }
+
+    /**
+     * Amanatides-Woo traversal from the eye to a point inside the target cell.
+     * Returns true if the first occluding cell on the way is the target itself.
+     */
+    private boolean traceClear(BlockView world, double x0, double y0, double z0,
+                               double x1, double y1, double z1, int tx, int ty, int tz) {
+        int x = (int) Math.floor(x0);
+        int y = (int) Math.floor(y0);
+        int z = (int) Math.floor(z0);
+
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        double dz = z1 - z0;
+
+        int stepX = dx > 0 ? 1 : (dx < 0 ? -1 : 0);
+        int stepY = dy > 0 ? 1 : (dy < 0 ? -1 : 0);
+        int stepZ = dz > 0 ? 1 : (dz < 0 ? -1 : 0);
+
+        double tDeltaX = stepX != 0 ? Math.abs(1.0 / dx) : Double.MAX_VALUE;
+        double tDeltaY = stepY != 0 ? Math.abs(1.0 / dy) : Double.MAX_VALUE;
+        double tDeltaZ = stepZ != 0 ? Math.abs(1.0 / dz) : Double.MAX_VALUE;
+
+        double tMaxX = stepX > 0 ? (x + 1 - x0) * tDeltaX : (stepX < 0 ? (x0 - x) * tDeltaX : Double.MAX_VALUE);
+        double tMaxY = stepY > 0 ? (y + 1 - y0) * tDeltaY : (stepY < 0 ? (y0 - y) * tDeltaY : Double.MAX_VALUE);
+        double tMaxZ = stepZ > 0 ? (z + 1 - z0) * tDeltaZ : (stepZ < 0 ? (z0 - z) * tDeltaZ : Double.MAX_VALUE);
+
+        // Bounded by the number of cell boundaries between the two points
+        int maxSteps = Math.abs((int) Math.floor(x1) - x) + Math.abs((int) Math.floor(y1) - y)
+            + Math.abs((int) Math.floor(z1) - z) + 1;
+
+        for (int i = 0; i < maxSteps; i++) {
+            if (tMaxX < tMaxY && tMaxX < tMaxZ) {
+                x += stepX;
+                tMaxX += tDeltaX;
+            } else if (tMaxY < tMaxZ) {
+                y += stepY;
+                tMaxY += tDeltaY;
+            } else {
+                z += stepZ;
+                tMaxZ += tDeltaZ;
+            }
+
+            if (x == tx && y == ty && z == tz) {
+                return true;
+            }
+            if (isOccluding(world, x, y, z)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private boolean isOccluding(BlockView world, int x, int y, int z) {
+        scratch.set(x, y, z);
+        BlockState state = world.getBlockState(scratch);
+        if (state.isAir()) return false;
+        return !state.getOutlineShape(world, scratch).isEmpty();
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,240 @@
+package com.autominer.mining;
+
+import com.autominer.selection.Shape;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.FallingBlock;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.registry.tag.FluidTags;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Falling-block stacks and fluid-adjacent cells for a region (plus a band around it),
+ * computed once at start so the planner can reorder and insert mitigation steps.
+ */
+public class HazardMap {
+
+    // How far above the region a gravity stack is followed
+    private static final int MAX_STACK_SCAN = 32;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final Predicate<BlockState> HAZARD_STATE =
+        state -> state.getBlock() instanceof FallingBlock || !state.getFluidState().isEmpty();
+
+    // Column (packed x/z) -> packed (bottom y, stack height) of the lowest gravity stack
+    private final Long2LongOpenHashMap gravityColumns = new Long2LongOpenHashMap();
+
+    // Region cells whose removal lets a stack fall
+    private final LongOpenHashSet gravityCells = new LongOpenHashSet();
+
+    // Region cell -> fluid cells outside the region to seal before mining it
+    private final Long2ObjectOpenHashMap<long[]> fluidSeals = new Long2ObjectOpenHashMap<>();
+
+    private boolean lavaNearby = false;
+
+    public static HazardMap empty() {
+        return new HazardMap();
+    }
+
+    public static HazardMap analyze(ClientWorld world, Shape shape) {
+        HazardMap map = new HazardMap();
+        BlockBox bounds = shape.getBounds();
+        BlockPos.Mutable cell = new BlockPos.Mutable();
+        BlockPos.Mutable neighbour = new BlockPos.Mutable();
+        LongArrayList seals = new LongArrayList();
+
+        for (int x = bounds.getMinX(); x <= bounds.getMaxX(); x++) {
+            for (int z = bounds.getMinZ(); z <= bounds.getMaxZ(); z++) {
+                if (!world.getChunkManager().isChunkLoaded(x >> 4, z >> 4)) continue;
+                WorldChunk chunk = world.getChunk(x >> 4, z >> 4);
+                // On a chunk edge the seal scan reaches into the chunk next door
+                WorldChunk sideX = (x & 15) == 0 ? loadedChunk(world, (x >> 4) - 1, z >> 4)
+                    : (x & 15) == 15 ? loadedChunk(world, (x >> 4) + 1, z >> 4) : null;
+                WorldChunk sideZ = (z & 15) == 0 ? loadedChunk(world, x >> 4, (z >> 4) - 1)
+                    : (z & 15) == 15 ? loadedChunk(world, x >> 4, (z >> 4) + 1) : null;
+
+                // Highest selected cell in this column; the band starts above it
+                int top = bounds.getMaxY();
+                while (top >= bounds.getMinY() && !shape.contains(x, top, z)) top--;
+                if (top < bounds.getMinY()) continue;
+
+                // Bottom of the contiguous run of loose blocks ending at the current cell
+                int stackBottom = Integer.MIN_VALUE;
+                int topStackBottom = Integer.MIN_VALUE;
+                for (int y = bounds.getMinY(); y <= top; y++) {
+                    // Palette check: skip sections (and their band) without sand/gravel or fluids,
+                    // here or in the neighbouring chunk's section beside them
+                    if ((y & 15) == 0 || y == bounds.getMinY()) {
+                        if (!sectionMayHaveHazards(chunk, y) && !sectionMayHaveHazards(chunk, y - 1)
+                            && !sectionMayHaveHazards(chunk, y + 16)
+                            && (sideX == null || !sectionMayHaveHazards(sideX, y))
+                            && (sideZ == null || !sectionMayHaveHazards(sideZ, y))) {
+                            y = Math.min(top, (y | 15));
+                            stackBottom = Integer.MIN_VALUE;
+                            continue;
+                        }
+                    }
+                    if (!shape.contains(x, y, z)) {
+                        stackBottom = Integer.MIN_VALUE;
+                        continue;
+                    }
+
+                    BlockState state = world.getBlockState(cell.set(x, y, z));
+                    if (!(state.getBlock() instanceof FallingBlock)) {
+                        stackBottom = Integer.MIN_VALUE;
+                    } else if (stackBottom == Integer.MIN_VALUE) {
+                        stackBottom = y;
+                    }
+                    if (y == top) topStackBottom = stackBottom;
+                    if (state.isAir()) continue;
+
+                    // Fluids just outside the region flood in once this cell is opened
+                    seals.clear();
+                    for (Direction dir : DIRECTIONS) {
+                        neighbour.set(x + dir.getOffsetX(), y + dir.getOffsetY(), z + dir.getOffsetZ());
+                        if (shape.contains(neighbour)) continue;
+                        FluidState fluid = world.getFluidState(neighbour);
+                        if (fluid.isEmpty()) continue;
+                        boolean lava = fluid.isIn(FluidTags.LAVA);
+                        if (fluid.isStill() || lava) {
+                            seals.add(neighbour.asLong());
+                            map.lavaNearby |= lava;
+                        }
+                    }
+                    if (!seals.isEmpty()) {
+                        map.fluidSeals.put(BlockPos.asLong(x, y, z), seals.toLongArray());
+                    }
+                }
+
+                // Follow loose blocks resting on the top of the column (the band above)
+                int bandHeight = 0;
+                while (bandHeight < MAX_STACK_SCAN
+                    && world.getBlockState(cell.set(x, top + 1 + bandHeight, z)).getBlock() instanceof FallingBlock) {
+                    bandHeight++;
+                }
+
+                // Mined top-down, loose blocks inside the region never fall on their own;
+                // only a stack continuing into the band keeps refilling the column
+                if (bandHeight > 0) {
+                    if (topStackBottom == Integer.MIN_VALUE) {
+                        // Only the band is loose - the top cell is what holds it up
+                        topStackBottom = top;
+                    }
+                    int height = top - topStackBottom + 1 + bandHeight;
+                    map.gravityColumns.put(ChunkPos.toLong(x, z), pack(topStackBottom, height));
+                    for (int y = topStackBottom; y <= top; y++) {
+                        map.gravityCells.add(BlockPos.asLong(x, y, z));
+                    }
+                }
+            }
+        }
+        return map;
+    }
+
+    /**
+     * The same checks for a batch of streamed targets (a few tunnel segments), where
+     * there is no shape to scan ahead of time. {@code inside} is the stream's volume.
+     * Fluids next to a cell get seals, and a cell under a loose block outside the
+     * volume is a gravity cell, so the controller waits for what falls in. Stacks
+     * aren't followed: the stream re-queues cells that fill up again.
+     */
+    public static HazardMap analyzeCells(ClientWorld world, List<BlockPos> cells, Predicate<BlockPos> inside) {
+        HazardMap map = new HazardMap();
+        BlockPos.Mutable neighbour = new BlockPos.Mutable();
+        LongArrayList seals = new LongArrayList();
+        for (BlockPos pos : cells) {
+            if (world.getBlockState(pos).isAir()) continue;
+
+            seals.clear();
+            for (Direction dir : DIRECTIONS) {
+                neighbour.set(pos, dir);
+                if (inside.test(neighbour)) continue;
+                FluidState fluid = world.getFluidState(neighbour);
+                if (fluid.isEmpty()) continue;
+                boolean lava = fluid.isIn(FluidTags.LAVA);
+                if (fluid.isStill() || lava) {
+                    seals.add(neighbour.asLong());
+                    map.lavaNearby |= lava;
+                }
+            }
+            if (!seals.isEmpty()) {
+                map.fluidSeals.put(pos.asLong(), seals.toLongArray());
+            }
+
+            neighbour.set(pos, Direction.UP);
+            if (!inside.test(neighbour) && world.getBlockState(neighbour).getBlock() instanceof FallingBlock) {
+                map.gravityCells.add(pos.asLong());
+            }
+        }
+        return map;
+    }
+
+    public boolean isEmpty() {
+        return gravityColumns.isEmpty() && fluidSeals.isEmpty();
+    }
+
+    public boolean hasLavaNearby() {
+        return lavaNearby;
+    }
+
+    public int getGravityColumnCount() {
+        return gravityColumns.size();
+    }
+
+    public int getSealCount() {
+        return fluidSeals.size();
+    }
+
+    // Bottom of the falling stack in a column, or Integer.MIN_VALUE if the column is stable
+    public int getStackBottom(int x, int z) {
+        long packed = gravityColumns.getOrDefault(ChunkPos.toLong(x, z), Long.MIN_VALUE);
+        return packed == Long.MIN_VALUE ? Integer.MIN_VALUE : (int) (packed >> 32);
+    }
+
+    // Number of loose blocks that will come down through the bottom cell
+    public int getStackHeight(int x, int z) {
+        long packed = gravityColumns.getOrDefault(ChunkPos.toLong(x, z), Long.MIN_VALUE);
+        return packed == Long.MIN_VALUE ? 0 : (int) packed;
+    }
+
+    public boolean isGravityCell(BlockPos pos) {
+        return gravityCells.contains(pos.asLong());
+    }
+
+    // Fluid cells to seal before mining pos, or null
+    public long[] getSeals(BlockPos pos) {
+        return fluidSeals.get(pos.asLong());
+    }
+
+    public void clearSeals(BlockPos pos) {
+        fluidSeals.remove(pos.asLong());
+    }
+
+    private static WorldChunk loadedChunk(ClientWorld world, int chunkX, int chunkZ) {
+        return world.getChunkManager().isChunkLoaded(chunkX, chunkZ) ? world.getChunk(chunkX, chunkZ) : null;
+    }
+
+    private static boolean sectionMayHaveHazards(WorldChunk chunk, int y) {
+        int index = chunk.getSectionIndex(y);
+        ChunkSection[] sections = chunk.getSectionArray();
+        if (index < 0 || index >= sections.length) return false;
+        ChunkSection section = sections[index];
+        return !section.isEmpty() && section.hasAny(HAZARD_STATE);
+    }
+
+    private static long pack(int bottom, int height) {
+        return ((long) bottom << 32) | (height & 0xFFFFFFFFL);
+    }
+}
@@ -1,27 +1,52 @@
 package com.autominer.mining;
 
+import com.autominer.config.MinerConfig;
+import com.autominer.diag.FlightRecorder;
+import com.autominer.diag.MinerEvents;
+import com.autominer.maintenance.InventoryMonitor;
+import com.autominer.maintenance.MaintenanceManager;
+import com.autominer.movement.MovementController;
+import com.autominer.movement.MovementPredictor;
+import com.autominer.movement.SetbackMonitor;
+import com.autominer.net.ConfirmationWait;
+import com.autominer.net.LatencyEstimator;
+import com.autominer.rotation.RotationController;
+import com.autominer.selection.Cuboid;
+import com.autominer.selection.Shape;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
+import net.minecraft.block.FallingBlock;
+import net.minecraft.block.FluidBlock;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.network.ClientPlayerEntity;
-import net.minecraft.client.network.ClientPlayerInteractionManager;
 import net.minecraft.client.world.ClientWorld;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.FallingBlockEntity;
+import net.minecraft.entity.ItemEntity;
+import net.minecraft.entity.player.PlayerInventory;
 import net.minecraft.item.BlockItem;
 import net.minecraft.item.ItemStack;
+import net.minecraft.registry.tag.FluidTags;
 import net.minecraft.text.Text;
 import net.minecraft.util.ActionResult;
 import net.minecraft.util.Hand;
 import net.minecraft.util.hit.BlockHitResult;
+import net.minecraft.util.math.BlockBox;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
 import net.minecraft.util.math.Direction;
 import net.minecraft.util.math.Vec3d;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
+import java.util.function.Predicate;
 
 public class MiningController {
     
@@ -33,10 +58,12 @@ public class MiningController {
         WAITING,
         PILLARING,
         BRIDGING,
-        CLEANUP_SCAFFOLD
+        CLEANUP_SCAFFOLD,
+        DEPOSITING,
+        COLLECTING
     }
     
-    private State state = State.IDLE;
+    private final StateMachine<State> machine = new StateMachine<>(State.class, State.IDLE);
     private List<BlockPos> blocksToMine = new ArrayList<>();
     private List<BlockPos> deferredBlocks = new ArrayList<>();
     private boolean miningDeferredBlocks = false;
@@ -45,40 +72,96 @@ public class MiningController {
     private BlockPos queueTarget = null;        // The target from the mining queue
     private boolean targetLocked = false;       // Don't switch targets while rotating/breaking
     
+    // Cheapest-first selection over the next LOOKAHEAD queue entries
+    private final TargetQueue window = new TargetQueue();
+    private TargetCost targetCost = new WeightedTargetCost();
+    private int windowEnd = 0;                  // blocksToMine entries before this index are windowed
+    private int promotedIndex = -1;             // Queue index the current head was chosen for
+    private long scoredFromCell = Long.MIN_VALUE;
+    private final BlockPos.Mutable scoreScratch = new BlockPos.Mutable();
+    private final BlockPos.Mutable aboveScratch = new BlockPos.Mutable();
+    
     // Start position for linear mining
     private BlockPos startPos = null;
     
-    // Perimeter bounds for checking blocking blocks
-    private int perimeterMinX, perimeterMinY, perimeterMinZ;
-    private int perimeterMaxX, perimeterMaxY, perimeterMaxZ;
+    // Incremental target source (vein, tunnel), null for region runs
+    private TargetStream stream = null;
+    
+    // Sand/gravel stacks and fluids around the region
+    private HazardMap hazards = HazardMap.empty();
+    private int settleTicks = 0;
+    
+    // Selected region, also the perimeter for checking blocking blocks
+    private Shape region = null;
     
     // Timing for anti-cheat
     private long lastActionTime = 0;
     private int waitTicks = 0;
     private final Random random = new Random();
     
-    // Breaking progress
-    private float breakingProgress = 0;
-    private BlockPos breakingBlock = null;
+    // Connection-adaptive waits
+    private final LatencyEstimator latency;
+    private final ConfirmationWait placementWait;  // Placed block until the server confirms it
+    
+    // Packet-level breaking with acknowledgement tracking
+    private final BreakPipeline breakPipeline;
+    
+    // Hunger and tool durability
+    private final MaintenanceManager maintenance;
+    
+    // Inventory pressure: junk dropping, deposit trips to a marked chest
+    private final InventoryMonitor inventoryMonitor = new InventoryMonitor();
+    private BlockPos depositChest = null;
+    private int resumeIndex = 0;
+    private int depositTicks = 0;
+    private boolean chestOpened = false;
+    
+    // Drops left out of pickup range, collected at slice/batch ends
+    private final DropTracker drops = new DropTracker();
+    private final IntArrayList sliceEnds = new IntArrayList();   // Queue index where each slice ends
+    private int sliceCursor = 0;
+    private IntArrayList pickupRoute = null;
+    private int pickupIndex = 0;
+    private int pickupTicks = 0;
+    
+    // Per-tick trace for diagnosing stalls
+    private final FlightRecorder recorder = new FlightRecorder(stateNames());
+    
+    // Our unconfirmed breaks/placements layered over client.world
+    private final PredictedWorld predicted;
+    private final List<BlockPos> retryBlocks = new ArrayList<>();  // Breaks the server rejected
     
     // Rotation tracking
-    private float targetYaw = 0;
-    private float targetPitch = 0;
+    private final RotationController rotation;
     private int rotationTicks = 0;
-    private float lockedYaw = 0;  // Yaw to use when looking steeply up/down
-    private boolean yawLocked = false;
+    
+    // Line-of-sight and face selection
+    private final FaceVisibility visibility = new FaceVisibility();
     
     // Movement tracking
+    private final MovementController movement;   // Key-driven walking with setback budgets
     private int stuckTicks = 0;
-    private Vec3d lastPosition = null;
+    private double lastX, lastY, lastZ;         // Player position last tick (stuck detection)
+    private boolean hasLastPosition = false;
+    
+    // Scratch cell for per-tick world lookups; never stored
+    private final BlockPos.Mutable scratchPos = new BlockPos.Mutable();
+    
+    // Bound once: a method reference capturing this is a new object each time it's evaluated
+    private final Predicate<BlockPos> inPerimeter = this::isInPerimeter;
     
     // Pillaring/Bridging tracking
     private int pillarHeight = 0;
     private int maxPillarHeight = 0;
+    private int pillarStartY = 0;                // Feet height the pillar started from
+    private int jumpFromY = NO_JUMP;             // Feet height of the current jump's take-off
+    private final PillarPlanner pillar = new PillarPlanner();
     private BlockPos bridgeTarget = null;
-    private int placementCooldown = 0;
+    private int placeSequence = 0;               // Sequence number of the last accepted placement
+    private final BridgePlanner bridge = new BridgePlanner();
     private Set<BlockPos> placedBlocks = new HashSet<>();
-    private int swapCooldown = 0;  // Wait after swapping items
+    private final Set<BlockPos> pillarBlocks = new HashSet<>();   // Subset of placedBlocks we pillared up on
+    private boolean cleanupEndsRun = false;      // Cleanup was entered because the queue is done
     
     // Scaffold blocks (common building blocks)
     private static final Set<Block> SCAFFOLD_BLOCKS = Set.of(
@@ -91,41 +174,145 @@ public class MiningController {
     );
     
     // Constants
-    private static final double VANILLA_REACH_DISTANCE = 4.5;
-    private static final double EXTENDED_REACH_DISTANCE = 15.0;
-    private static final float ROTATION_SPEED = 25.0f;  // Faster rotation
-    private static final int MIN_DELAY_TICKS = 0;
-    private static final int MAX_DELAY_TICKS = 1;
-    private static final int STUCK_THRESHOLD = 10;
+    private static final Direction[] FALLBACK_FACES = {Direction.NORTH, Direction.SOUTH, Direction.EAST, Direction.WEST, Direction.UP};
+    private static final Direction[] DIRECTIONS = Direction.values();
     private static final int ROTATION_SETTLE_TICKS = 1;  // Reduced from 3
-    private static final int MAX_PILLAR_HEIGHT_DEFAULT = 20;
-    private static final int PLACEMENT_COOLDOWN_TICKS = 4;
+    private static final int MAX_SETTLE_TICKS = 40;  // Give up waiting for a falling block to land
+    private static final int LOOKAHEAD = 32;
+    private static final int MAX_DEPOSIT_TICKS = 20 * 30;      // Give up on an unreachable/full chest
+    private static final double CHEST_REACH = 4.0;
+    private static final double MOVE_STOP_SHORT = 1.0;     // Don't walk into the target's column
+    private static final int NO_JUMP = Integer.MIN_VALUE;
+    private static final int EDGE_GUARD_TICKS = 2;          // Sneak this long before stepping onto unconfirmed deck
+    private static final int MAX_PICKUP_TICKS_PER_STOP = 20 * 5;
+    private static final double COVERED_PENALTY = 1000.0;  // Keeps columns top-down
 
-    private double reachDistance = VANILLA_REACH_DISTANCE;
+    // Tunables (reach, rotation speed, delays, stuck/pillar limits); swapped between ticks
+    private MinerConfig config = new MinerConfig();
+    private boolean extendedReach = false;
+    private double reachDistance = config.getVanillaReach();
+    private int completedRuns = 0;
+    
+    // Which blocks in the region get mined
+    private BlockFilter filter = BlockFilter.all();
+    
+    public MiningController(LatencyEstimator latency, MovementController movement) {
+        this.latency = latency;
+        this.movement = movement;
+        this.placementWait = new ConfirmationWait(latency);
+        this.breakPipeline = new BreakPipeline(latency);
+        this.predicted = new PredictedWorld(latency);
+        this.maintenance = new MaintenanceManager();
+        this.rotation = new RotationController(config.getRotationSpeed());
+        
+        machine.on(State.IDLE, this::findNextBlock)
+            .on(State.MOVING, this::handleMoving)
+            .on(State.ROTATING, this::handleRotating)
+            .on(State.BREAKING, this::handleBreaking)
+            .on(State.WAITING, this::handleWaiting)
+            .on(State.PILLARING, this::handlePillaring)
+            .on(State.BRIDGING, this::handleBridging)
+            .on(State.CLEANUP_SCAFFOLD, this::handleCleanupScaffold)
+            .on(State.DEPOSITING, this::handleDepositing)
+            .on(State.COLLECTING, this::handleCollecting);
+        
+        // Stopping, skipping and finishing all go back to IDLE; everything else is listed
+        machine.allowFromAny(State.IDLE)
+            .allow(State.IDLE, State.MOVING, State.CLEANUP_SCAFFOLD, State.COLLECTING, State.DEPOSITING)
+            .allow(State.MOVING, State.ROTATING, State.PILLARING, State.BRIDGING, State.DEPOSITING)
+            .allow(State.ROTATING, State.BREAKING)
+            .allow(State.BREAKING, State.WAITING)
+            .allow(State.WAITING, State.CLEANUP_SCAFFOLD, State.DEPOSITING)
+            .allow(State.PILLARING, State.ROTATING, State.MOVING)
+            .allow(State.BRIDGING, State.MOVING)
+            .allow(State.COLLECTING, State.DEPOSITING)
+            .onIllegalTransition((from, to) -> recorder.mark(FlightRecorder.Event.ILLEGAL_TRANSITION));
+        
+        // Per-state fields live exactly as long as the state
+        machine.onExit(State.ROTATING, () -> rotationTicks = 0)
+            .onExit(State.MOVING, movement::release)
+            .onEnter(State.PILLARING, () -> {
+                ClientPlayerEntity player = MinecraftClient.getInstance().player;
+                pillarHeight = 0;
+                pillarStartY = player != null ? player.getBlockY() : 0;
+                jumpFromY = NO_JUMP;
+            })
+            .onExit(State.PILLARING, () -> {
+                pillarHeight = 0;
+                maxPillarHeight = 0;
+                jumpFromY = NO_JUMP;
+                movement.release();
+            })
+            .onExit(State.BRIDGING, () -> {
+                bridgeTarget = null;
+                movement.release();
+            })
+            .onEnter(State.DEPOSITING, () -> {
+                depositTicks = 0;
+                chestOpened = false;
+                stuckTicks = 0;
+                hasLastPosition = false;
+            })
+            .onExit(State.DEPOSITING, () -> {
+                movement.release();
+                ClientPlayerEntity player = MinecraftClient.getInstance().player;
+                if (player != null && player.currentScreenHandler != player.playerScreenHandler) {
+                    player.closeHandledScreen();
+                }
+            })
+            .onEnter(State.COLLECTING, () -> {
+                pickupIndex = 0;
+                pickupTicks = 0;
+            })
+            .onExit(State.COLLECTING, () -> {
+                pickupRoute = null;
+                movement.release();
+            });
+    }
+    
+    // Ticks spent and average time per tick in each state since the run started
+    public String getStateTimings() {
+        return machine.formatTimings();
+    }
     
     public void start(BlockPos pos1, BlockPos pos2) {
+        start(pos1, pos2, new Cuboid(pos1, pos2));
+    }
+    
+    /**
+     * Mines every cell of a shape. The walk runs from pos1's side of the shape's
+     * bounds towards pos2's side.
+     */
+    public void start(BlockPos pos1, BlockPos pos2, Shape shape) {
         blocksToMine.clear();
         deferredBlocks.clear();
         miningDeferredBlocks = false;
         currentBlockIndex = 0;
+        stream = null;
         
         // Store start position - mining will proceed FROM pos1 TOWARDS pos2
         startPos = pos1;
-        
-        int minX = Math.min(pos1.getX(), pos2.getX());
-        int minY = Math.min(pos1.getY(), pos2.getY());
-        int minZ = Math.min(pos1.getZ(), pos2.getZ());
-        int maxX = Math.max(pos1.getX(), pos2.getX());
-        int maxY = Math.max(pos1.getY(), pos2.getY());
-        int maxZ = Math.max(pos1.getZ(), pos2.getZ());
-        
-        // Store perimeter bounds for blocking block checks
-        perimeterMinX = minX;
-        perimeterMinY = minY;
-        perimeterMinZ = minZ;
-        perimeterMaxX = maxX;
-        perimeterMaxY = maxY;
-        perimeterMaxZ = maxZ;
+        region = shape;
+        resetWindow();
+        machine.resetTimings();
+        sliceEnds.clear();
+        sliceCursor = 0;
+        
+        BlockBox bounds = shape.getBounds();
+        int minX = bounds.getMinX();
+        int minY = bounds.getMinY();
+        int minZ = bounds.getMinZ();
+        int maxX = bounds.getMaxX();
+        int maxY = bounds.getMaxY();
+        int maxZ = bounds.getMaxZ();
+        
+        // Shape and palette pre-pass: sections outside the shape or with nothing selectable
+        // are skipped without reading cells
+        ClientWorld world = MinecraftClient.getInstance().world;
+        SectionMask sections = SectionMask.build(world, filter, shape);
+        
+        // Hazard pass: gravity columns are reordered, fluids get sealed before their neighbours open
+        hazards = HazardMap.analyze(world, shape);
         
         // VERTICAL SLICE PATTERN: Mine column by column, standing in front of each slice
         // Determine the primary direction (which axis has the most distance from pos1 to pos2)
@@ -138,8 +325,8 @@ public class MiningController {
         if (walkAlongZ) {
             // Walk along Z axis, mine X columns at each Z position
             boolean zForward = pos1.getZ() <= pos2.getZ();
-            int zStart = pos1.getZ();
-            int zEnd = pos2.getZ();
+            int zStart = zForward ? minZ : maxZ;
+            int zEnd = zForward ? maxZ : minZ;
             int zStep = zForward ? 1 : -1;
             
             int sliceIndex = 0;
@@ -152,17 +339,16 @@ public class MiningController {
                 
                 for (int x = xStart; reverseX ? (x >= xEnd) : (x <= xEnd); x += xStep) {
                     // Mine from top to bottom at each (x, z) position
-                    for (int y = maxY; y >= minY; y--) {
-                        blocksToMine.add(new BlockPos(x, y, z));
-                    }
+                    addColumn(world, sections, x, z, minY, maxY);
                 }
                 sliceIndex++;
+                sliceEnds.add(blocksToMine.size());
             }
         } else {
             // Walk along X axis, mine Z columns at each X position
             boolean xForward = pos1.getX() <= pos2.getX();
-            int xStart = pos1.getX();
-            int xEnd = pos2.getX();
+            int xStart = xForward ? minX : maxX;
+            int xEnd = xForward ? maxX : minX;
             int xStep = xForward ? 1 : -1;
             
             int sliceIndex = 0;
@@ -175,23 +361,131 @@ public class MiningController {
                 
                 for (int z = zStart; reverseZ ? (z >= zEnd) : (z <= zEnd); z += zStep) {
                     // Mine from top to bottom at each (x, z) position
-                    for (int y = maxY; y >= minY; y--) {
-                        blocksToMine.add(new BlockPos(x, y, z));
-                    }
+                    addColumn(world, sections, x, z, minY, maxY);
                 }
                 sliceIndex++;
+                sliceEnds.add(blocksToMine.size());
             }
         }
         
-        state = State.IDLE;
+        machine.transition(State.IDLE);
         stuckTicks = 0;
-        lastPosition = null;
+        hasLastPosition = false;
         rotationTicks = 0;
+        settleTicks = 0;
+        if (!hazards.isEmpty()) {
+            showActionBarMessage(MinecraftClient.getInstance(), "§eHazards: " + hazards.getGravityColumnCount()
+                + " sand/gravel columns, " + hazards.getSealCount() + " blocks next to fluid"
+                + (hazards.hasLavaNearby() ? " (lava!)" : ""));
+        }
         findNextBlock(MinecraftClient.getInstance());
     }
 
+    public void startStream(TargetStream source) {
+        blocksToMine.clear();
+        deferredBlocks.clear();
+        miningDeferredBlocks = false;
+        currentBlockIndex = 0;
+        startPos = null;
+        stream = source;
+        region = null;
+        hazards = HazardMap.empty();
+        resetWindow();
+        sliceEnds.clear();
+        sliceCursor = 0;
+        
+        machine.transition(State.IDLE);
+        stuckTicks = 0;
+        hasLastPosition = false;
+        rotationTicks = 0;
+        findNextBlock(MinecraftClient.getInstance());
+    }
+    
+    private void addColumn(ClientWorld world, SectionMask sections, int x, int z, int minY, int maxY) {
+        BlockPos.Mutable cell = new BlockPos.Mutable();
+        
+        // A stack reaching above the region is taken from the bottom: the same cell is queued
+        // once per loose block so each one is mined as it lands, then swept again at the end
+        int stackBottom = hazards.getStackBottom(x, z);
+        if (stackBottom != Integer.MIN_VALUE) {
+            BlockPos bottom = new BlockPos(x, stackBottom, z);
+            for (int i = hazards.getStackHeight(x, z); i > 0; i--) {
+                blocksToMine.add(bottom);
+            }
+            deferredBlocks.add(bottom);
+            maxY = stackBottom - 1;
+        }
+        
+        for (int y = maxY; y >= minY; y--) {
+            byte verdict = sections.get(x, y, z);
+            if (verdict == SectionMask.SKIP) {
+                // Jump to the bottom of this section
+                y = Math.max(minY, y & ~15);
+                continue;
+            }
+            // Only sections on the shape's boundary need the per-cell test
+            if (sections.isPartial(x, y, z) && !region.contains(x, y, z)) {
+                continue;
+            }
+            // Filtered runs only queue matching cells; unloaded chunks are checked when reached
+            if (verdict == SectionMask.SCAN && filter.getMode() != BlockFilter.Mode.ALL
+                    && !filter.isSelectable(world.getBlockState(cell.set(x, y, z)))) {
+                continue;
+            }
+            blocksToMine.add(new BlockPos(x, y, z));
+        }
+    }
+    
+    // Chest to empty the inventory into when it fills up
+    public void setDepositChest(BlockPos chest) {
+        this.depositChest = chest;
+    }
+    
+    public BlockPos getDepositChest() {
+        return depositChest;
+    }
+    
+    public void onEntityLoad(Entity entity, ClientWorld world) {
+        if (isMining()) {
+            drops.onEntityLoad(entity, world);
+        }
+    }
+    
+    public void onEntityUnload(Entity entity, ClientWorld world) {
+        drops.onEntityUnload(entity, world);
+    }
+    
+    public InventoryMonitor getInventoryMonitor() {
+        return inventoryMonitor;
+    }
+    
+    public void setTargetCost(TargetCost targetCost) {
+        this.targetCost = targetCost;
+        scoredFromCell = Long.MIN_VALUE;
+    }
+    
+    public void setFilter(BlockFilter filter) {
+        this.filter = filter;
+    }
+    
+    public BlockFilter getFilter() {
+        return filter;
+    }
+
     public void setExtendedReach(boolean enabled) {
-        reachDistance = enabled ? EXTENDED_REACH_DISTANCE : VANILLA_REACH_DISTANCE;
+        extendedReach = enabled;
+        reachDistance = enabled ? config.getExtendedReach() : config.getVanillaReach();
+    }
+    
+    /**
+     * Takes new tunables. Called between ticks by the config manager; a run in progress
+     * carries on with the new values.
+     */
+    public void applyConfig(MinerConfig config) {
+        this.config = config;
+        rotation.setMaxStep(config.getRotationSpeed());
+        placementWait.setMinTicks(config.getPlacementCooldownTicks());
+        setExtendedReach(extendedReach);
     }
 
     public double getReachDistance() {
@@ -199,35 +493,118 @@ public class MiningController {
     }
     
     public void stop() {
-        state = State.IDLE;
+        machine.transition(State.IDLE);
         blocksToMine.clear();
         deferredBlocks.clear();
         miningDeferredBlocks = false;
         currentBlockIndex = 0;
+        stream = null;
+        region = null;
+        hazards = HazardMap.empty();
+        settleTicks = 0;
+        resetWindow();
         currentTarget = null;
         queueTarget = null;
         targetLocked = false;
-        breakingBlock = null;
-        breakingProgress = 0;
+        retryBlocks.clear();
+        predicted.clear();
         stuckTicks = 0;
-        lastPosition = null;
-        rotationTicks = 0;
+        hasLastPosition = false;
         startPos = null;
-        pillarHeight = 0;
-        maxPillarHeight = 0;
-        bridgeTarget = null;
-        placementCooldown = 0;
+        drops.clear();
+        sliceEnds.clear();
+        sliceCursor = 0;
+        placementWait.clear();
         placedBlocks.clear();
-        yawLocked = false;
+        pillarBlocks.clear();
+        cleanupEndsRun = false;
+        rotation.reset();
         
         MinecraftClient client = MinecraftClient.getInstance();
+        recorder.flushPending();
+        maintenance.reset(client);
+        breakPipeline.reset(client);
         if (client.interactionManager != null) {
             client.interactionManager.cancelBlockBreaking();
         }
     }
     
+    // The run finished on its own (as opposed to being stopped)
+    private void complete(MinecraftClient client) {
+        stop();
+        completedRuns++;
+        showActionBarMessage(client, "§aMining complete!");
+    }
+    
+    public int getCompletedRuns() {
+        return completedRuns;
+    }
+    
+    // Breaks the server confirmed / rejected this run
+    public int getConfirmedBreaks() {
+        return breakPipeline.getConfirmedCount();
+    }
+    
+    public int getRejectedBreaks() {
+        return breakPipeline.getRejectedCount();
+    }
+    
+    // Predicted placements the server later contradicted (ghost blocks); rolled-back
+    // breaks are counted once, as rejected breaks
+    public int getGhostBlocks() {
+        return predicted.getGhostCount();
+    }
+    
+    public void onActionAcknowledged(int sequence) {
+        breakPipeline.onActionAcknowledged(MinecraftClient.getInstance(), sequence);
+        collectRejectedBreaks();
+        // Placements are sequenced too, but only our placement's ack ends the wait
+        placementWait.confirmSequence(sequence);
+    }
+    
+    public void onBlockUpdated(BlockPos pos, BlockState blockState) {
+        placementWait.confirm(pos.asLong());
+        predicted.onBlockUpdated(pos, blockState);
+        visibility.invalidateAround(pos);
+    }
+    
+    // The server set us back while we were moving; the jump isn't us being stuck
+    public void onSetback(SetbackMonitor.Pattern pattern) {
+        recorder.mark(FlightRecorder.Event.SETBACK);
+        hasLastPosition = false;
+        stuckTicks = 0;
+    }
+    
+    private void collectRejectedBreaks() {
+        BlockPos rejected;
+        
+        // Blocks that reappeared after we predicted them broken share the pipeline's
+        // retry budget, so a block we may never break isn't retried forever
+        while ((rejected = predicted.pollRolledBackBreak()) != null) {
+            breakPipeline.onRolledBack(rejected);
+        }
+        
+        while ((rejected = breakPipeline.pollRejected()) != null) {
+            recorder.mark(FlightRecorder.Event.BREAK_ROLLED_BACK);
+            if (!retryBlocks.contains(rejected)) {
+                retryBlocks.add(rejected);
+            }
+        }
+        
+        // Scaffold the server never accepted can't be stood on or cleaned up
+        while ((rejected = predicted.pollRolledBackPlacement()) != null) {
+            placedBlocks.remove(rejected);
+            pillarBlocks.remove(rejected);
+        }
+    }
+    
+    // Block state as the planner should see it (includes unconfirmed changes)
+    private BlockState blockAt(MinecraftClient client, BlockPos pos) {
+        return predicted.getBlockState(client.world, pos);
+    }
+    
     public boolean isMining() {
-        return state != State.IDLE || !blocksToMine.isEmpty();
+        return !machine.is(State.IDLE) || !blocksToMine.isEmpty() || stream != null;
     }
     
     public int getRemainingBlocks() {
@@ -235,44 +612,73 @@ public class MiningController {
     }
     
     public void tick(MinecraftClient client) {
-        if (state == State.IDLE && blocksToMine.isEmpty()) return;
+        if (!isMining()) return;
         if (client.player == null || client.world == null) return;
         
-        // Decrement placement cooldown
-        if (placementCooldown > 0) placementCooldown--;
-        if (swapCooldown > 0) swapCooldown--;
+        MinerEvents.TickOverrun overrun = MinerEvents.beginTick();
+        recorder.beginTick();
+        runTick(client);
+        recorder.endTick(client.player, machine.getState().ordinal(), currentTarget != null ? currentTarget : queueTarget,
+            currentBlockIndex, stuckTicks);
+        MinerEvents.end(overrun, "mining", machine.getState().name());
+    }
+    
+    public FlightRecorder getRecorder() {
+        return recorder;
+    }
+    
+    private static String[] stateNames() {
+        State[] states = State.values();
+        String[] names = new String[states.length];
+        for (int i = 0; i < states.length; i++) {
+            names[i] = states[i].name();
+        }
+        return names;
+    }
+    
+    private void runTick(MinecraftClient client) {
+        // Expire waits whose confirmation is overdue
+        placementWait.tick();
+        
+        // Resolve breaks the server never answered and expire stale predictions
+        breakPipeline.tick(client);
+        predicted.tick(client.world);
+        drops.tick();
+        collectRejectedBreaks();
+        
+        // Eat during natural pauses (or whenever hunger is critical). Movement keys stay
+        // held between ticks, so anything that takes over the tick lets go of them first
+        boolean pause = machine.is(State.IDLE) || machine.is(State.WAITING) || machine.is(State.MOVING)
+            || machine.is(State.COLLECTING);
+        if (maintenance.tick(client, pause)) {
+            movement.release();
+            recorder.mark(FlightRecorder.Event.MAINTENANCE);
+            return;
+        }
         
-        switch (state) {
-            case IDLE:
-                findNextBlock(client);
-                break;
-            case MOVING:
-                handleMoving(client);
-                break;
-            case ROTATING:
-                handleRotating(client);
-                break;
-            case BREAKING:
-                handleBreaking(client);
-                break;
-            case WAITING:
-                handleWaiting(client);
-                break;
-            case PILLARING:
-                handlePillaring(client);
-                break;
-            case BRIDGING:
-                handleBridging(client);
-                break;
-            case CLEANUP_SCAFFOLD:
-                handleCleanupScaffold(client);
-                break;
+        // Full inventory: throw junk, then deposit (or wait) before drops start getting lost
+        if (pause && inventoryMonitor.isUnderPressure(client.player)) {
+            if (inventoryMonitor.dropJunk(client, awayFromWork(client.player))) {
+                movement.release();
+                return;
+            }
+            if (inventoryMonitor.getFreeSlots(client.player) == 0) {
+                beginDeposit(client);
+            }
         }
+        
+        machine.tick(client);
     }
     
     private void findNextBlock(MinecraftClient client) {
+        // End of a slice: pick up what fell out of reach before walking off
+        if (passedSliceEnd() && beginCollecting(client)) {
+            return;
+        }
+        
         // Find the next valid block from the queue
         while (currentBlockIndex < blocksToMine.size()) {
+            promoteCheapest(client);
             BlockPos pos = blocksToMine.get(currentBlockIndex);
 
             // Defer mining of scaffold blocks we placed ourselves
@@ -282,58 +688,180 @@ public class MiningController {
                 continue;
             }
 
-            BlockState blockState = client.world.getBlockState(pos);
+            BlockState blockState = blockAt(client, pos);
+            
+            // Repeated stack entry: wait for the next loose block to land here
+            if (blockState.isAir() && hazards.isGravityCell(pos) && isStackSettling(client, pos)) {
+                if (++settleTicks <= MAX_SETTLE_TICKS) {
+                    machine.transition(State.IDLE);
+                    return;
+                }
+            }
+            settleTicks = 0;
             
-            // Skip air and unbreakable blocks
-            if (!blockState.isAir() && blockState.getHardness(client.world, pos) >= 0) {
+            // Skip air, filtered-out and unbreakable blocks
+            if (isWanted(client, pos, blockState)) {
+                recorder.mark(FlightRecorder.Event.TARGET_PICKED);
+                MinerEvents.targetSelected(pos, blockState, currentBlockIndex);
                 queueTarget = pos;
                 currentTarget = pos;
                 targetLocked = false;
-                state = State.MOVING;
+                machine.transition(State.MOVING);
                 stuckTicks = 0;
                 return;
             }
             currentBlockIndex++;
         }
 
+        // Streaming sources hand out targets in batches as the run progresses
+        if (stream != null) {
+            if (beginCollecting(client)) {
+                return;
+            }
+            blocksToMine.clear();
+            currentBlockIndex = 0;
+            resetWindow();
+            stream.fill(client, blocksToMine);
+            // Streams can't be scanned up front; each batch gets its own hazard pass
+            hazards = HazardMap.analyzeCells(client.world, blocksToMine, stream::contains);
+            if (!blocksToMine.isEmpty()) {
+                findNextBlock(client);
+                return;
+            }
+            if (!stream.isExhausted()) {
+                // Waiting on the world (e.g. unloaded chunks) - try again next tick
+                machine.transition(State.IDLE);
+                return;
+            }
+            if (stream.getEndMessage() != null) {
+                showActionBarMessage(client, stream.getEndMessage());
+            }
+            stream = null;
+        }
+
+        // Rejected breaks we never got back to are mined with the deferred pass
+        if (!retryBlocks.isEmpty()) {
+            deferredBlocks.addAll(retryBlocks);
+            retryBlocks.clear();
+        }
+        
         // If we deferred blocks, mine them after all normal blocks are done
         if (!deferredBlocks.isEmpty()) {
             blocksToMine = deferredBlocks;
             deferredBlocks = new ArrayList<>();
             currentBlockIndex = 0;
+            resetWindow();
+            sliceEnds.clear();
+            sliceCursor = 0;
             miningDeferredBlocks = true;
             findNextBlock(client);
             return;
         }
         
         // All done
+        if (beginCollecting(client)) {
+            return;
+        }
         if (!placedBlocks.isEmpty()) {
-            state = State.CLEANUP_SCAFFOLD;
+            cleanupEndsRun = true;
+            machine.transition(State.CLEANUP_SCAFFOLD);
             showActionBarMessage(client, "§bCleaning scaffold...");
             return;
         }
-        stop();
-        showActionBarMessage(client, "§aMining complete!");
+        complete(client);
+    }
+    
+    private boolean isWanted(MinecraftClient client, BlockPos pos, BlockState blockState) {
+        boolean wanted = stream != null ? stream.accepts(blockState) : filter.isSelectable(blockState);
+        return wanted && blockState.getHardness(client.world, pos) >= 0;
+    }
+    
+    /**
+     * Moves the cheapest entry of the lookahead window to the head of the queue, so
+     * the rest of the controller can keep consuming blocksToMine by index.
+     */
+    private void promoteCheapest(MinecraftClient client) {
+        if (promotedIndex == currentBlockIndex) return;
+        promotedIndex = currentBlockIndex;
+        
+        // Repeated stack entries must stay in queue order
+        if (hazards.isGravityCell(blocksToMine.get(currentBlockIndex))) return;
+        
+        // Extend the window up to the next gravity entry or duplicate
+        windowEnd = Math.max(windowEnd, currentBlockIndex);
+        int limit = Math.min(blocksToMine.size(), currentBlockIndex + LOOKAHEAD);
+        while (windowEnd < limit) {
+            BlockPos pos = blocksToMine.get(windowEnd);
+            long key = pos.asLong();
+            if (hazards.isGravityCell(pos) || window.contains(key)) break;
+            window.update(key, scoreTarget(client, key));
+            windowEnd++;
+        }
+        if (window.isEmpty()) return;
+        
+        // Distances and turn angles all change once the player is in another cell
+        long cell = client.player.getBlockPos().asLong();
+        if (cell != scoredFromCell) {
+            scoredFromCell = cell;
+            window.rescore(key -> scoreTarget(client, key));
+        }
+        
+        long best = window.poll();
+        for (int i = currentBlockIndex; i < windowEnd; i++) {
+            if (blocksToMine.get(i).asLong() == best) {
+                Collections.swap(blocksToMine, i, currentBlockIndex);
+                return;
+            }
+        }
+    }
+    
+    private double scoreTarget(MinecraftClient client, long key) {
+        BlockPos pos = scoreScratch.set(key);
+        BlockState blockState = blockAt(client, pos);
+        if (!isWanted(client, pos, blockState)) {
+            // Skipped by the queue anyway - let it surface only when nothing else is left
+            return Double.POSITIVE_INFINITY;
+        }
+        double cost = targetCost.score(client.player, client.world, hazards, pos, blockState);
+        
+        // Walking still needed before it's in reach, in predicted ticks
+        cost += MovementPredictor.travelTicks(eyeDistance(client.player, pos) - reachDistance);
+        
+        // Never open a cell while the one above it is still waiting to be mined
+        long above = BlockPos.offset(key, Direction.UP);
+        boolean aboveQueued = window.contains(above)
+            || (currentBlockIndex < blocksToMine.size() && blocksToMine.get(currentBlockIndex).asLong() == above);
+        if (aboveQueued && !blockAt(client, aboveScratch.set(above)).isAir()) {
+            cost += COVERED_PENALTY;
+        }
+        return cost;
+    }
+    
+    private void resetWindow() {
+        window.clear();
+        windowEnd = 0;
+        promotedIndex = -1;
+        scoredFromCell = Long.MIN_VALUE;
     }
     
     private void handleMoving(MinecraftClient client) {
         if (queueTarget == null) {
-            state = State.IDLE;
+            machine.transition(State.IDLE);
             return;
         }
         
         ClientPlayerEntity player = client.player;
-        Vec3d playerPos = new Vec3d(player.getX(), player.getY(), player.getZ());
-        Vec3d playerEyes = player.getEyePos();
-        Vec3d queueTargetCenter = Vec3d.ofCenter(queueTarget);
+        double playerX = player.getX();
+        double playerY = player.getY();
+        double playerZ = player.getZ();
+        double targetX = queueTarget.getX() + 0.5;
+        double targetZ = queueTarget.getZ() + 0.5;
         
-        // First check: Is the queue target visible but out of reach?
-        double distToQueueTarget = playerEyes.distanceTo(queueTargetCenter);
+        // How far off the queue target is, horizontally and above our eyes
         double horizontalDistToQueue = Math.sqrt(
-            Math.pow(queueTarget.getX() + 0.5 - playerPos.x, 2) +
-            Math.pow(queueTarget.getZ() + 0.5 - playerPos.z, 2)
+            (targetX - playerX) * (targetX - playerX) + (targetZ - playerZ) * (targetZ - playerZ)
         );
-        double verticalDistToQueue = queueTarget.getY() - playerEyes.y;
+        double verticalDistToQueue = queueTarget.getY() - player.getEyeY();
         
         // Find the closest mineable block within reach FIRST
         BlockPos closestBlock = findClosestReachableBlock(client, player);
@@ -342,7 +870,7 @@ public class MiningController {
             // Found a block we can mine - lock onto it
             currentTarget = closestBlock;
             targetLocked = true;
-            state = State.ROTATING;
+            machine.transition(State.ROTATING);
             stuckTicks = 0;
             return;
         }
@@ -357,61 +885,66 @@ public class MiningController {
         
         // No block in reach - move towards queue target
         // BUT don't spin head looking at unreachable blocks - just face movement direction
-        double dx = queueTargetCenter.x - playerPos.x;
-        double dz = queueTargetCenter.z - playerPos.z;
-        float yaw = (float) (Math.atan2(-dx, dz) * 180.0 / Math.PI);
+        // (or keep walking straight on to get out from under a sand/gravel column)
+        float yaw = isUnderGravityColumn(player, queueTarget) ? player.getYaw()
+            : RotationController.yawTo(targetX - playerX, targetZ - playerZ);
+        
+        // Up on a pillar: come down by the way that doesn't cost health
+        if (tryDescend(client, player, yaw)) {
+            return;
+        }
         
         // Stuck detection
-        if (lastPosition != null) {
-            double moved = playerPos.distanceTo(lastPosition);
-            if (moved < 0.01) {
+        if (hasLastPosition) {
+            double dx = playerX - lastX;
+            double dy = playerY - lastY;
+            double dz = playerZ - lastZ;
+            if (dx * dx + dy * dy + dz * dz < 0.01 * 0.01) {
                 stuckTicks++;
             } else {
                 stuckTicks = 0;
             }
         }
-        lastPosition = playerPos;
+        lastX = playerX;
+        lastY = playerY;
+        lastZ = playerZ;
+        hasLastPosition = true;
         
-        // Set player yaw for movement direction (horizontal only - don't look up at unreachable blocks)
-        player.setYaw(yaw);
         // Keep pitch level when moving, don't tilt head up/down at unreachable targets
         if (Math.abs(player.getPitch()) > 30) {
             player.setPitch(player.getPitch() * 0.9f);  // Gradually level out
         }
-        player.setSprinting(true);
-        
-        // Check if we need to jump
-        boolean shouldJump = shouldJump(client, player, yaw);
         
-        // Simulate forward movement
-        double speed = player.isSprinting() ? 0.2 : 0.13;
-        double motionX = -Math.sin(Math.toRadians(yaw)) * speed;
-        double motionZ = Math.cos(Math.toRadians(yaw)) * speed;
-        
-        // Apply jump if needed
-        double motionY = player.getVelocity().y;
-        if (shouldJump && player.isOnGround()) {
-            motionY = 0.42; // Standard jump velocity
+        // Walk (horizontal only - don't look up at unreachable blocks); the steering point
+        // is the target, or a few blocks straight ahead to clear a gravity column
+        double goalX = targetX;
+        double goalZ = targetZ;
+        if (isUnderGravityColumn(player, queueTarget)) {
+            goalX = playerX + RotationController.forwardX(yaw) * 4.0;
+            goalZ = playerZ + RotationController.forwardZ(yaw) * 4.0;
         }
-        
-        player.setVelocity(motionX, motionY, motionZ);
+        movement.steer(client, player, goalX, goalZ, MOVE_STOP_SHORT, shouldJump(client, player, yaw),
+            SetbackMonitor.Pattern.SPRINT);
         
         // If stuck, try advanced navigation sooner
-        if (stuckTicks > STUCK_THRESHOLD) {
+        if (stuckTicks > config.getStuckThreshold()) {
+            recorder.mark(FlightRecorder.Event.STUCK);
             if (tryAdvancedNavigation(client, player)) {
+                recorder.mark(FlightRecorder.Event.NAVIGATION);
                 stuckTicks = 0;
                 return;
             }
         }
         
         // If still stuck after even longer, skip block
-        if (stuckTicks > STUCK_THRESHOLD * 4) {
+        if (stuckTicks > config.getStuckThreshold() * 4) {
             showActionBarMessage(client, "§eCan't reach block, skipping...");
+            recorder.mark(FlightRecorder.Event.SKIP_UNREACHABLE);
             currentBlockIndex++;
             queueTarget = null;
             currentTarget = null;
             targetLocked = false;
-            state = State.IDLE;
+            machine.transition(State.IDLE);
             stuckTicks = 0;
         }
     }
@@ -422,55 +955,79 @@ public class MiningController {
             return false;
         }
         
-        Vec3d playerEyes = player.getEyePos();
-        double verticalDist = queueTarget.getY() - playerEyes.y;
-        
-        // Calculate pillar height from eye level
-        maxPillarHeight = (int) Math.ceil(verticalDist) + 2;
-        maxPillarHeight = Math.min(maxPillarHeight, MAX_PILLAR_HEIGHT_DEFAULT);
-        pillarHeight = 0;
-        state = State.PILLARING;
+        // Exactly as high as it takes to have the target in reach; don't start a pillar
+        // taller than the configured limit only to give up at the top
+        double dx = queueTarget.getX() + 0.5 - player.getX();
+        double dz = queueTarget.getZ() + 0.5 - player.getZ();
+        int height = PillarPlanner.heightToReach(player.getEyeY(), Math.sqrt(dx * dx + dz * dz),
+            queueTarget.getY(), reachDistance);
+        if (height <= 0 || height > config.getMaxPillarHeight()) {
+            return false;
+        }
+        maxPillarHeight = height;
+        machine.transition(State.PILLARING);
         showActionBarMessage(client, "§bPillaring up...");
         return true;
     }
     
     private BlockPos findClosestReachableBlock(MinecraftClient client, ClientPlayerEntity player) {
-        Vec3d playerEyes = player.getEyePos();
         ClientWorld world = client.world;
         BlockPos closest = null;
         double closestDist = Double.MAX_VALUE;
         
         // Check the queue target
         if (queueTarget != null) {
-            BlockState state = world.getBlockState(queueTarget);
-            if (!state.isAir() && state.getHardness(world, queueTarget) >= 0) {
-                double dist = playerEyes.distanceTo(Vec3d.ofCenter(queueTarget));
-                if (dist <= reachDistance) {
+            BlockState state = blockAt(client, queueTarget);
+            if (isMineable(world, queueTarget, state) && !isUnderGravityColumn(player, queueTarget)) {
+                double dist = eyeDistance(player, queueTarget);
+                if (dist <= reachDistance && canSeeBlock(client, queueTarget)) {
                     closest = queueTarget;
                     closestDist = dist;
                 }
             }
         }
         
-        // Check for blocking blocks in front (within perimeter)
+        // Re-mine blocks the server rolled back
+        for (int i = retryBlocks.size() - 1; i >= 0; i--) {
+            BlockPos retry = retryBlocks.get(i);
+            BlockState retryState = blockAt(client, retry);
+            if (retryState.isAir()) {
+                retryBlocks.remove(i);
+                continue;
+            }
+            double dist = eyeDistance(player, retry);
+            if (dist <= reachDistance && dist < closestDist && canSeeBlock(client, retry)) {
+                closest = retry;
+                closestDist = dist;
+            }
+        }
+        
+        // Check for blocking blocks in front (within perimeter); cells are probed through the
+        // scratch position and only the winner is turned into a real BlockPos. Blocks the
+        // filter rejects (chests, spawners...) are never broken to clear the way - the stuck
+        // handling walks around them or skips the target
         float yaw = player.getYaw();
+        double forwardX = RotationController.forwardX(yaw);
+        double forwardZ = RotationController.forwardZ(yaw);
+        int feetY = (int) Math.floor(player.getY());
+        long frontKey = 0;
+        boolean frontWins = false;
+        BlockPos.Mutable checkPos = scratchPos;
         for (double checkDist = 0.5; checkDist <= 2.5; checkDist += 0.5) {
-            double frontX = player.getX() - Math.sin(Math.toRadians(yaw)) * checkDist;
-            double frontZ = player.getZ() + Math.cos(Math.toRadians(yaw)) * checkDist;
+            int frontX = (int) Math.floor(player.getX() + forwardX * checkDist);
+            int frontZ = (int) Math.floor(player.getZ() + forwardZ * checkDist);
             
             for (int yOffset = 0; yOffset <= 2; yOffset++) {
-                BlockPos checkPos = new BlockPos(
-                    (int) Math.floor(frontX), 
-                    (int) Math.floor(player.getY()) + yOffset, 
-                    (int) Math.floor(frontZ)
-                );
+                checkPos.set(frontX, feetY + yOffset, frontZ);
                 
                 if (isInPerimeter(checkPos)) {
-                    BlockState blockState = world.getBlockState(checkPos);
-                    if (!blockState.isAir() && blockState.getHardness(world, checkPos) >= 0) {
-                        double dist = playerEyes.distanceTo(Vec3d.ofCenter(checkPos));
-                        if (dist <= reachDistance && dist < closestDist) {
-                            closest = checkPos;
+                    BlockState blockState = blockAt(client, checkPos);
+                    if (isMineable(world, checkPos, blockState) && isWanted(client, checkPos, blockState)
+                            && !isUnderGravityColumn(player, checkPos)) {
+                        double dist = eyeDistance(player, checkPos);
+                        if (dist <= reachDistance && dist < closestDist && canSeeBlock(client, checkPos)) {
+                            frontKey = checkPos.asLong();
+                            frontWins = true;
                             closestDist = dist;
                         }
                     }
@@ -478,19 +1035,24 @@ public class MiningController {
             }
         }
         
-        return closest;
+        return frontWins ? BlockPos.fromLong(frontKey) : closest;
+    }
+    
+    // Distance from the player's eyes to a block centre, without building Vec3ds
+    private static double eyeDistance(ClientPlayerEntity player, BlockPos pos) {
+        double dx = pos.getX() + 0.5 - player.getX();
+        double dy = pos.getY() + 0.5 - player.getEyeY();
+        double dz = pos.getZ() + 0.5 - player.getZ();
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
     }
     
     private boolean tryAdvancedNavigation(MinecraftClient client, ClientPlayerEntity player) {
         if (queueTarget == null) return false;
         
-        Vec3d playerPos = new Vec3d(player.getX(), player.getY(), player.getZ());
-        Vec3d playerEyes = player.getEyePos();
         double targetY = queueTarget.getY();
-        double horizontalDist = Math.sqrt(
-            Math.pow(queueTarget.getX() + 0.5 - playerPos.x, 2) +
-            Math.pow(queueTarget.getZ() + 0.5 - playerPos.z, 2)
-        );
+        double dx = queueTarget.getX() + 0.5 - player.getX();
+        double dz = queueTarget.getZ() + 0.5 - player.getZ();
+        double horizontalDist = Math.sqrt(dx * dx + dz * dz);
         
         // Check if we have scaffold blocks
         int scaffoldSlot = findScaffoldBlock(client);
@@ -500,7 +1062,7 @@ public class MiningController {
         
         // Need to pillar up (target is significantly above eye level)
         // Use eye position for more accurate check
-        double verticalDistFromEyes = targetY - playerEyes.y;
+        double verticalDistFromEyes = targetY - player.getEyeY();
         
         // Only pillar if target is more than 2 blocks above eyes AND we're close horizontally
         // Don't pillar if we already have scaffold nearby
@@ -516,12 +1078,7 @@ public class MiningController {
                 }
             }
             
-            if (!hasNearbyScaffold) {
-                maxPillarHeight = (int) Math.ceil(verticalDistFromEyes) + 2;
-                maxPillarHeight = Math.min(maxPillarHeight, MAX_PILLAR_HEIGHT_DEFAULT);
-                pillarHeight = 0;
-                state = State.PILLARING;
-                showActionBarMessage(client, "§bPillaring up...");
+            if (!hasNearbyScaffold && tryPillarUp(client, player)) {
                 return true;
             }
         }
@@ -529,18 +1086,17 @@ public class MiningController {
         // Need to bridge (there's a gap in front)
         float yaw = player.getYaw();
         double checkDist = 1.5;
-        double frontX = playerPos.x - Math.sin(Math.toRadians(yaw)) * checkDist;
-        double frontZ = playerPos.z + Math.cos(Math.toRadians(yaw)) * checkDist;
-        BlockPos inFront = new BlockPos((int) Math.floor(frontX), (int) Math.floor(playerPos.y), (int) Math.floor(frontZ));
-        BlockPos belowInFront = inFront.down();
+        double frontX = player.getX() + RotationController.forwardX(yaw) * checkDist;
+        double frontZ = player.getZ() + RotationController.forwardZ(yaw) * checkDist;
+        BlockPos.Mutable inFront = scratchPos.set(Math.floor(frontX), Math.floor(player.getY()), Math.floor(frontZ));
         
-        ClientWorld world = client.world;
-        boolean gapInFront = world.getBlockState(belowInFront).isAir() && 
-                            world.getBlockState(inFront).isAir();
+        boolean gapInFront = blockAt(client, inFront).isAir()
+            && blockAt(client, inFront.move(Direction.DOWN)).isAir();
         
         if (gapInFront && horizontalDist > 1.5) {
             bridgeTarget = queueTarget;
-            state = State.BRIDGING;
+            bridge.start((int) Math.floor(player.getY()) - 1);
+            machine.transition(State.BRIDGING);
             showActionBarMessage(client, "§bBridging across...");
             return true;
         }
@@ -551,141 +1107,164 @@ public class MiningController {
     private void handlePillaring(MinecraftClient client) {
         ClientPlayerEntity player = client.player;
         if (player == null || queueTarget == null) {
-            state = State.IDLE;
+            machine.transition(State.IDLE);
             return;
         }
         
-        Vec3d playerEyes = player.getEyePos();
-        Vec3d targetCenter = Vec3d.ofCenter(queueTarget);
-        double distance = playerEyes.distanceTo(targetCenter);
-        
         // Check if target is now within reach
-        if (distance <= reachDistance) {
+        if (eyeDistance(player, queueTarget) <= reachDistance) {
             showActionBarMessage(client, "§aDone pillaring, target reachable!");
             // Go directly to finding the block, skip movement phase
             BlockPos closestBlock = findClosestReachableBlock(client, player);
             if (closestBlock != null) {
                 currentTarget = closestBlock;
                 targetLocked = true;
-                state = State.ROTATING;
+                machine.transition(State.ROTATING);
             } else {
-                state = State.MOVING;
+                machine.transition(State.MOVING);
             }
-            pillarHeight = 0;
-            maxPillarHeight = 0;
             stuckTicks = 0;
             return;
         }
         
-        // Reached max pillar height
+        int feetY = player.getBlockY();
+        pillarHeight = feetY - pillarStartY;
+        
+        // Reached the planned height but drifted out of reach: walk it out from up here
         if (pillarHeight >= maxPillarHeight) {
-            showActionBarMessage(client, "§cCan't reach target (max height)");
-            // Skip this block
-            currentBlockIndex++;
-            queueTarget = null;
-            currentTarget = null;
-            state = State.IDLE;
-            pillarHeight = 0;
-            maxPillarHeight = 0;
+            machine.transition(State.MOVING);
             stuckTicks = 0;
             return;
         }
         
-        // Wait for swap cooldown
-        if (swapCooldown > 0) {
-            // Still jump during swap cooldown to keep momentum
-            if (player.isOnGround()) {
-                player.jump();
+        int x = player.getBlockX();
+        int z = player.getBlockZ();
+        if (player.isOnGround()) {
+            jumpFromY = NO_JUMP;
+            
+            // A step of natural terrain next to us is a free block of height
+            Direction step = pillar.findFoothold(client.world, predicted, x, feetY, z, inPerimeter);
+            if (step != null) {
+                movement.steer(client, player, x + 0.5 + step.getOffsetX(), z + 0.5 + step.getOffsetZ(), 0.0, true,
+                    SetbackMonitor.Pattern.WALK);
+                return;
+            }
+            movement.release();
+            
+            // Ceiling: the pillar can't grow and nothing beside us to climb
+            if (!pillar.hasHeadroom(client.world, predicted, x, feetY, z)) {
+                showActionBarMessage(client, "§cCan't reach target (ceiling)");
+                recorder.mark(FlightRecorder.Event.PILLAR_FAILED);
+                // Skip this block
+                currentBlockIndex++;
+                queueTarget = null;
+                currentTarget = null;
+                machine.transition(State.IDLE);
+                stuckTicks = 0;
+                return;
             }
-            return;
         }
         
         // Find and select scaffold block
         int scaffoldSlot = findScaffoldBlock(client);
         if (scaffoldSlot == -1) {
             showActionBarMessage(client, "§cNo blocks to build with!");
-            state = State.MOVING;
+            recorder.mark(FlightRecorder.Event.NO_SCAFFOLD);
+            machine.transition(State.MOVING);
             return;
         }
         
-        // Switch to scaffold block if needed
-        if (player.getInventory().getSelectedSlot() != scaffoldSlot) {
-            player.getInventory().setSelectedSlot(scaffoldSlot);
-            swapCooldown = 2;
-            return;
-        }
-        
-        // Check if we have a valid block in hand
-        ItemStack heldItem = player.getMainHandStack();
-        if (heldItem.isEmpty() || !(heldItem.getItem() instanceof BlockItem)) {
-            swapCooldown = 2;
-            return;
-        }
+        // Switch to scaffold block if needed (the slot change is synced ahead of the next placement)
+        selectSlot(player.getInventory(), scaffoldSlot, "scaffold");
         
         // Always look straight down while pillaring
         player.setPitch(90.0f);
         
-        // Get the block position directly below player's feet
-        BlockPos feetPos = player.getBlockPos();
-        BlockPos belowFeet = feetPos.down();
-        
-        // Always try to jump when on ground
         if (player.isOnGround()) {
-            player.jump();
+            // Take off only if this jump's block can be placed on time: against a wall, or
+            // against the last pillar block once the server confirms it - expected before
+            // the feet clear the new cell
+            boolean wall = pillar.hasWallSupport(client.world, predicted, x, feetY, z);
+            boolean confirmedInTime = !placementWait.isWaiting()
+                || latency.getConfirmTicks() <= PillarPlanner.TICKS_TO_CLEAR_BLOCK;
+            if (wall || confirmedInTime) {
+                player.jump();
+                jumpFromY = feetY;
+            }
+            return;
         }
         
-        // Decrement placement cooldown
-        if (placementCooldown > 0) {
+        // In the air: place the take-off cell on the first tick the feet clear it, which
+        // lands us on it at the end of this jump
+        if (jumpFromY == NO_JUMP || player.getY() < jumpFromY + 1.0) {
             return;
         }
-        
-        // When in the air, try to place block below
-        if (!player.isOnGround() && player.getVelocity().y > -0.8) {
-            // Check if there's air below us where we can place
-            if (client.world.getBlockState(belowFeet).isAir()) {
-                // Find a solid block to place against
-                BlockPos placeAgainst = belowFeet.down();
-                
-                if (!client.world.getBlockState(placeAgainst).isAir()) {
-                    // Place on top of the block below
-                    Vec3d hitVec = new Vec3d(placeAgainst.getX() + 0.5, placeAgainst.getY() + 1.0, placeAgainst.getZ() + 0.5);
-                    BlockHitResult hitResult = new BlockHitResult(hitVec, Direction.UP, placeAgainst, false);
-                    
-                    ActionResult result = client.interactionManager.interactBlock(player, Hand.MAIN_HAND, hitResult);
-                    if (result.isAccepted()) {
-                        placedBlocks.add(belowFeet);
-                        pillarHeight++;
-                        placementCooldown = 3;
-                        player.swingHand(Hand.MAIN_HAND);
-                        showActionBarMessage(client, "§aPillaring: " + pillarHeight + "/" + maxPillarHeight);
-                    }
-                }
-            }
+        if (placementWait.isWaiting()) {
+            return;
+        }
+        ItemStack heldItem = player.getMainHandStack();
+        if (heldItem.isEmpty() || !(heldItem.getItem() instanceof BlockItem)) {
+            return;
+        }
+        if (!blockAt(client, scratchPos.set(x, jumpFromY, z)).isAir()) {
+            return;
+        }
+        BlockPos cell = scratchPos.toImmutable();
+        if (placeBlock(client, cell)) {
+            pillarBlocks.add(cell);
+            placementWait.arm(cell.asLong(), placeSequence);
+            player.swingHand(Hand.MAIN_HAND);
+            jumpFromY = NO_JUMP;
+            showActionBarMessage(client, "§aPillaring: " + (pillarHeight + 1) + "/" + maxPillarHeight);
         }
     }
     
+    /**
+     * Standing on our own pillar with nothing in reach and a drop ahead that's too far
+     * (and not into water): mine the block under us to come down one level. Bridge deck
+     * is never mined this way - that would drop us into the gap it spans. Returns true
+     * when a descent step was started.
+     */
+    private boolean tryDescend(MinecraftClient client, ClientPlayerEntity player, float yaw) {
+        BlockPos.Mutable below = scratchPos.set(player.getBlockX(), player.getBlockY() - 1, player.getBlockZ());
+        if (!pillarBlocks.contains(below)) return false;
+        int aheadX = (int) Math.floor(player.getX() + RotationController.forwardX(yaw));
+        int aheadZ = (int) Math.floor(player.getZ() + RotationController.forwardZ(yaw));
+        if (pillar.isSafeDrop(client.world, predicted, aheadX, player.getBlockY(), aheadZ)) return false;
+        
+        showActionBarMessage(client, "§bMining down the pillar...");
+        currentTarget = below.toImmutable();
+        targetLocked = true;
+        machine.transition(State.ROTATING);
+        stuckTicks = 0;
+        return true;
+    }
+    
     private void handleBridging(MinecraftClient client) {
         ClientPlayerEntity player = client.player;
         if (player == null || queueTarget == null) {
-            state = State.IDLE;
+            machine.transition(State.IDLE);
             return;
         }
         
-        Vec3d playerPos = new Vec3d(player.getX(), player.getY(), player.getZ());
-        Vec3d targetCenter = Vec3d.ofCenter(queueTarget);
-        double distance = player.getEyePos().distanceTo(targetCenter);
-        
         // Check if we can now reach the target
-        if (distance <= reachDistance && canSeeBlock(client, queueTarget)) {
-            state = State.MOVING;
-            player.setSneaking(false);
-            bridgeTarget = null;
+        if (eyeDistance(player, queueTarget) <= reachDistance && canSeeBlock(client, queueTarget)) {
+            machine.transition(State.MOVING);
             stuckTicks = 0;
             return;
         }
         
-        // Wait for cooldown
-        if (placementCooldown > 0) {
+        // Safety: fell off the deck (or far below the target), walk it out normally
+        if (player.getY() < bridge.getDeckY() || player.getY() < queueTarget.getY() - 5) {
+            machine.transition(State.MOVING);
+            return;
+        }
+        
+        // Deck from here to the target; nothing left to place means it's just a walk
+        bridge.plan(client.world, predicted, player.getX(), player.getZ(), queueTarget.getX(), queueTarget.getZ());
+        int gap = bridge.firstGap(client.world, predicted);
+        if (gap < 0) {
+            machine.transition(State.MOVING);
             return;
         }
         
@@ -693,53 +1272,43 @@ public class MiningController {
         int scaffoldSlot = findScaffoldBlock(client);
         if (scaffoldSlot == -1) {
             showActionBarMessage(client, "§cNo blocks to build with!");
-            state = State.MOVING;
-            player.setSneaking(false);
+            recorder.mark(FlightRecorder.Event.NO_SCAFFOLD);
+            machine.transition(State.MOVING);
             return;
         }
         
-        player.getInventory().setSelectedSlot(scaffoldSlot);
+        selectSlot(player.getInventory(), scaffoldSlot, "scaffold");
         
-        // Calculate direction to target
-        double dx = targetCenter.x - playerPos.x;
-        double dz = targetCenter.z - playerPos.z;
-        float yaw = (float) (Math.atan2(-dx, dz) * 180.0 / Math.PI);
-        
-        // Look down and slightly forward
-        player.setYaw(yaw);
+        // Walk the deck, and sneak (edge clipping) only when the feet would leave the
+        // current cell within EDGE_GUARD_TICKS while the next one isn't confirmed yet
+        float yaw = RotationController.yawTo(queueTarget.getX() + 0.5 - player.getX(), queueTarget.getZ() + 0.5 - player.getZ());
+        boolean guard = !bridge.isConfirmedThrough(client.world, predicted, 0);
+        if (!guard && !bridge.isConfirmedThrough(client.world, predicted, 1)) {
+            double vx = player.getVelocity().x;
+            double vz = player.getVelocity().z;
+            double toEdge = BridgePlanner.distanceToEdge(player.getX(), player.getZ(),
+                RotationController.forwardX(yaw), RotationController.forwardZ(yaw));
+            guard = MovementPredictor.ticksToCover(toEdge, MovementPredictor.Gait.WALK, Math.sqrt(vx * vx + vz * vz),
+                MovementPredictor.DEFAULT_SLIPPERINESS) <= EDGE_GUARD_TICKS;
+        }
+        movement.bridge(client, player, queueTarget.getX() + 0.5, queueTarget.getZ() + 0.5, guard);
         player.setPitch(75.0f);
         
-        // Check if there's air in front where we need to place
-        BlockPos placePos = new BlockPos(
-            (int) Math.floor(playerPos.x - Math.sin(Math.toRadians(yaw)) * 1.0),
-            (int) Math.floor(playerPos.y) - 1,
-            (int) Math.floor(playerPos.z + Math.cos(Math.toRadians(yaw)) * 1.0)
-        );
-        
-        ClientWorld world = client.world;
-        
-        // Sneak to avoid falling
-        player.setSneaking(true);
-        
-        if (world.getBlockState(placePos).isAir()) {
-            // Try to place a block
-            if (placeBlock(client, placePos)) {
-                placementCooldown = PLACEMENT_COOLDOWN_TICKS;
-                player.swingHand(Hand.MAIN_HAND);
-            }
+        // Place the next missing cell on the first tick it's valid: the block before it is
+        // confirmed (placeBlock only builds against those) and it's within reach
+        if (placementWait.isWaiting()) {
+            return;
         }
-        
-        // Move forward slowly
-        double speed = 0.08;
-        double motionX = -Math.sin(Math.toRadians(yaw)) * speed;
-        double motionZ = Math.cos(Math.toRadians(yaw)) * speed;
-        player.setVelocity(motionX, player.getVelocity().y, motionZ);
-        
-        // Safety: if we've bridged too far or are falling, stop
-        if (playerPos.y < queueTarget.getY() - 5) {
-            state = State.MOVING;
-            player.setSneaking(false);
-            bridgeTarget = null;
+        long gapCell = bridge.get(gap);
+        if (eyeDistance(player, scratchPos.set(gapCell)) > reachDistance) {
+            return;
+        }
+        BlockPos placePos = BlockPos.fromLong(gapCell);
+        if (placeBlock(client, placePos)) {
+            // A mined pillar cell can come back as deck; it's no longer one to descend from
+            pillarBlocks.remove(placePos);
+            placementWait.arm(gapCell, placeSequence);
+            player.swingHand(Hand.MAIN_HAND);
         }
     }
     
@@ -822,10 +1391,8 @@ public class MiningController {
             client.player
         );
         
-        // Set swap cooldown so we wait for the item to arrive
-        swapCooldown = 3;
-        
-        // Return the hotbar slot (item should be there after cooldown)
+        // The click is applied locally at once, and the server handles it before the next
+        // placement packet, so the slot can be used right away
         return targetHotbarSlot;
     }
     
@@ -833,13 +1400,15 @@ public class MiningController {
         if (client.interactionManager == null || client.player == null) return false;
         
         ClientWorld world = client.world;
+        // Read before interactBlock: placing the last of a stack empties the hand
+        BlockState placing = heldBlockState(client);
         
         // Find an adjacent solid block to place against
-        for (Direction dir : Direction.values()) {
+        for (Direction dir : DIRECTIONS) {
             BlockPos adjacentPos = pos.offset(dir);
-            BlockState adjacentState = world.getBlockState(adjacentPos);
             
-            if (!adjacentState.isAir() && adjacentState.isSolidBlock(world, adjacentPos)) {
+            // Only build against blocks the server has confirmed
+            if (predicted.isConfirmedSolid(world, adjacentPos)) {
                 // Place against this block
                 Direction placeDir = dir.getOpposite();
                 Vec3d hitVec = Vec3d.ofCenter(adjacentPos).add(
@@ -863,6 +1432,9 @@ public class MiningController {
                 
                 if (result.isAccepted()) {
                     placedBlocks.add(pos);
+                    placeSequence = client.world.getPendingUpdateManager().getSequence();
+                    predicted.recordPlace(pos, placing);
+                    visibility.invalidateAround(pos);
                     return true;
                 }
             }
@@ -883,10 +1455,11 @@ public class MiningController {
         if (heldItem.isEmpty() || !(heldItem.getItem() instanceof BlockItem)) {
             return false;
         }
+        BlockState placing = heldBlockState(client);
         
         // Priority: try to place against the block directly below (most common for pillaring)
         BlockPos below = pos.down();
-        if (!world.getBlockState(below).isAir()) {
+        if (!predicted.isPending(below) && !world.getBlockState(below).isAir()) {
             // Place on top of the block below us
             Vec3d hitVec = new Vec3d(below.getX() + 0.5, below.getY() + 1.0, below.getZ() + 0.5);
             BlockHitResult hitResult = new BlockHitResult(hitVec, Direction.UP, below, false);
@@ -894,16 +1467,19 @@ public class MiningController {
             ActionResult result = client.interactionManager.interactBlock(player, Hand.MAIN_HAND, hitResult);
             if (result.isAccepted()) {
                 placedBlocks.add(pos);
+                placeSequence = client.world.getPendingUpdateManager().getSequence();
+                predicted.recordPlace(pos, placing);
+                visibility.invalidateAround(pos);
                 return true;
             }
         }
         
         // Fallback: try all other directions
-        for (Direction dir : new Direction[]{Direction.NORTH, Direction.SOUTH, Direction.EAST, Direction.WEST, Direction.UP}) {
+        for (Direction dir : FALLBACK_FACES) {
             BlockPos adjacentPos = pos.offset(dir);
             BlockState adjacentState = world.getBlockState(adjacentPos);
             
-            if (!adjacentState.isAir()) {
+            if (!predicted.isPending(adjacentPos) && !adjacentState.isAir()) {
                 Direction placeDir = dir.getOpposite();
                 Vec3d hitVec = Vec3d.ofCenter(adjacentPos).add(
                     placeDir.getOffsetX() * 0.5,
@@ -916,6 +1492,9 @@ public class MiningController {
                 
                 if (result.isAccepted()) {
                     placedBlocks.add(pos);
+                    placeSequence = client.world.getPendingUpdateManager().getSequence();
+                    predicted.recordPlace(pos, placing);
+                    visibility.invalidateAround(pos);
                     return true;
                 }
             }
@@ -924,58 +1503,155 @@ public class MiningController {
         return false;
     }
     
+    private BlockState heldBlockState(MinecraftClient client) {
+        ItemStack held = client.player.getMainHandStack();
+        if (held.getItem() instanceof BlockItem blockItem) {
+            return blockItem.getBlock().getDefaultState();
+        }
+        return Blocks.AIR.getDefaultState();
+    }
+    
     private boolean isInPerimeter(BlockPos pos) {
-        return pos.getX() >= perimeterMinX && pos.getX() <= perimeterMaxX &&
-               pos.getY() >= perimeterMinY && pos.getY() <= perimeterMaxY &&
-               pos.getZ() >= perimeterMinZ && pos.getZ() <= perimeterMaxZ;
+        if (stream != null) {
+            return stream.contains(pos);
+        }
+        return region != null && region.contains(pos);
+    }
+    
+    // Breakable and not a bare fluid (fluids can't be mined, only sealed)
+    private static boolean isMineable(ClientWorld world, BlockPos pos, BlockState state) {
+        return !state.isAir() && !(state.getBlock() instanceof FluidBlock) && state.getHardness(world, pos) >= 0;
+    }
+    
+    // Mining this cell would drop its column onto the player
+    private boolean isUnderGravityColumn(ClientPlayerEntity player, BlockPos pos) {
+        return hazards.isGravityCell(pos)
+            && player.getBlockX() == pos.getX() && player.getBlockZ() == pos.getZ()
+            && player.getBlockY() <= pos.getY();
+    }
+    
+    // A loose block is still on its way down into this cell
+    private boolean isStackSettling(MinecraftClient client, BlockPos pos) {
+        if (blockAt(client, pos.up()).getBlock() instanceof FallingBlock) return true;
+        return !client.world.getEntitiesByClass(FallingBlockEntity.class,
+            new Box(pos).stretch(0, MAX_SETTLE_TICKS, 0), entity -> true).isEmpty();
+    }
+    
+    /**
+     * Places blocks into the fluid sources next to a target before it is opened.
+     * Returns true while sealing is still in progress (or waiting on the server).
+     */
+    private boolean sealFluids(MinecraftClient client, BlockPos target) {
+        long[] seals = hazards.getSeals(target);
+        if (seals == null) return false;
+        
+        ClientPlayerEntity player = client.player;
+        BlockPos.Mutable seal = scratchPos;
+        boolean lava = false;
+        BlockPos open = null;
+        for (long key : seals) {
+            seal.set(key);
+            BlockState sealState = blockAt(client, seal);
+            if (sealState.getFluidState().isEmpty()) continue;
+            lava |= sealState.getFluidState().isIn(FluidTags.LAVA);
+            if (open == null && eyeDistance(player, seal) <= reachDistance) {
+                open = seal.toImmutable();
+            }
+        }
+        if (open == null) {
+            hazards.clearSeals(target);
+            return false;
+        }
+        
+        // Don't stack onto a block the server hasn't confirmed
+        if (placementWait.isWaiting()) return true;
+        
+        int scaffoldSlot = findScaffoldBlock(client);
+        if (scaffoldSlot == -1) {
+            hazards.clearSeals(target);
+            if (lava) {
+                // Opening next to lava without a block to seal it is not worth the risk
+                showActionBarMessage(client, "§cLava next to block and nothing to seal it, skipping...");
+                recorder.mark(FlightRecorder.Event.SKIP_HAZARD);
+                skipTarget(target);
+                return true;
+            }
+            return false;
+        }
+        selectSlot(player.getInventory(), scaffoldSlot, "scaffold");
+        if (!(player.getMainHandStack().getItem() instanceof BlockItem)) {
+            return true;
+        }
+        
+        // Placed against the target itself, which is still solid
+        if (placeBlock(client, open)) {
+            // Seals outside the region are left in place by the scaffold cleanup
+            if (!isInPerimeter(open)) {
+                placedBlocks.remove(open);
+            }
+            placementWait.arm(open.asLong(), placeSequence);
+            player.swingHand(Hand.MAIN_HAND);
+            return true;
+        }
+        hazards.clearSeals(target);
+        return false;
+    }
+    
+    private void skipTarget(BlockPos target) {
+        if (target.equals(queueTarget)) {
+            currentBlockIndex++;
+            queueTarget = null;
+        }
+        currentTarget = null;
+        targetLocked = false;
+        machine.transition(State.IDLE);
     }
     
     private boolean shouldJump(MinecraftClient client, ClientPlayerEntity player, float yaw) {
         // Check block in front of player at feet and head level
         double checkDist = 0.8;
-        double frontX = player.getX() - Math.sin(Math.toRadians(yaw)) * checkDist;
-        double frontZ = player.getZ() + Math.cos(Math.toRadians(yaw)) * checkDist;
-        
-        BlockPos feetPos = new BlockPos((int) Math.floor(frontX), (int) Math.floor(player.getY()), (int) Math.floor(frontZ));
-        BlockPos headPos = feetPos.up();
+        double frontX = player.getX() + RotationController.forwardX(yaw) * checkDist;
+        double frontZ = player.getZ() + RotationController.forwardZ(yaw) * checkDist;
         
         ClientWorld world = client.world;
-        BlockState feetBlock = world.getBlockState(feetPos);
-        BlockState headBlock = world.getBlockState(headPos);
-        BlockState aboveHeadBlock = world.getBlockState(headPos.up());
+        BlockPos.Mutable cell = scratchPos.set(Math.floor(frontX), Math.floor(player.getY()), Math.floor(frontZ));
+        BlockState feetBlock = world.getBlockState(cell);
+        boolean blockAtFeet = !feetBlock.isAir() && feetBlock.isSolidBlock(world, cell);
+        
+        cell.move(Direction.UP);
+        BlockState headBlock = world.getBlockState(cell);
+        boolean spaceAbove = headBlock.isAir() || !headBlock.isSolidBlock(world, cell);
+        
+        cell.move(Direction.UP);
+        BlockState aboveHeadBlock = world.getBlockState(cell);
+        boolean spaceAboveHead = aboveHeadBlock.isAir() || !aboveHeadBlock.isSolidBlock(world, cell);
         
         // Jump if there's a solid block at feet level but space above
-        boolean blockAtFeet = !feetBlock.isAir() && feetBlock.isSolidBlock(world, feetPos);
-        boolean spaceAbove = headBlock.isAir() || !headBlock.isSolidBlock(world, headPos);
-        boolean spaceAboveHead = aboveHeadBlock.isAir() || !aboveHeadBlock.isSolidBlock(world, headPos.up());
         
         // Also jump if target is above us
         boolean targetAbove = currentTarget != null && currentTarget.getY() > player.getY() + 0.5;
         
         // Also jump if stuck
-        boolean isStuck = stuckTicks > STUCK_THRESHOLD;
+        boolean isStuck = stuckTicks > config.getStuckThreshold();
         
         return (blockAtFeet && spaceAbove && spaceAboveHead) || (targetAbove && isStuck) || (isStuck && player.isOnGround());
     }
     
     private boolean canSeeBlock(MinecraftClient client, BlockPos target) {
-        // Check if there's line of sight to the block
-        Vec3d eyePos = client.player.getEyePos();
-        Vec3d targetCenter = Vec3d.ofCenter(target);
-        
-        // Simple distance check - more sophisticated raycast could be added
-        double dist = eyePos.distanceTo(targetCenter);
-        return dist <= reachDistance + 0.5;
+        // Ray-cast from the eyes to each exposed face of the block
+        ClientPlayerEntity player = client.player;
+        return visibility.resolve(client.world, client.world.getTime(),
+            player.getX(), player.getEyeY(), player.getZ(), target, reachDistance);
     }
     
     private void handleRotating(MinecraftClient client) {
         if (currentTarget == null || !targetLocked) {
-            state = State.IDLE;
+            machine.transition(State.IDLE);
             return;
         }
         
         // Check if target block is still valid (not already broken)
-        BlockState blockState = client.world.getBlockState(currentTarget);
+        BlockState blockState = blockAt(client, currentTarget);
         if (blockState.isAir()) {
             // Block was broken by something else, find next
             targetLocked = false;
@@ -984,86 +1660,34 @@ public class MiningController {
                 queueTarget = null;
             }
             currentTarget = null;
-            state = State.IDLE;
+            machine.transition(State.IDLE);
             return;
         }
         
-        ClientPlayerEntity player = client.player;
-        Vec3d playerEyes = player.getEyePos();
-        Vec3d targetCenter = Vec3d.ofCenter(currentTarget);
-        
-        double dx = targetCenter.x - playerEyes.x;
-        double dy = targetCenter.y - playerEyes.y;
-        double dz = targetCenter.z - playerEyes.z;
-        double horizontalDist = Math.sqrt(dx * dx + dz * dz);
-        
-        // Calculate required pitch
-        float requiredPitch;
-        if (horizontalDist < 0.5) {
-            // Block is almost directly above/below - use fixed pitch
-            requiredPitch = dy > 0 ? -85.0f : 85.0f;
-        } else {
-            requiredPitch = (float) (-Math.atan2(dy, horizontalDist) * 180.0 / Math.PI);
-            requiredPitch = Math.max(-85.0f, Math.min(85.0f, requiredPitch));
+        // Close off neighbouring fluid sources first
+        if (sealFluids(client, currentTarget)) {
+            rotationTicks = 0;
+            return;
         }
         
-        // Determine if this is a "steep" angle (looking mostly up or down)
-        boolean isSteepAngle = Math.abs(requiredPitch) > 45.0f;
-        
-        float currentYaw = player.getYaw();
-        float currentPitch = player.getPitch();
-        float newYaw = currentYaw;
-        float newPitch = currentPitch;
+        ClientPlayerEntity player = client.player;
         
-        if (isSteepAngle) {
-            // STEEP ANGLE: Don't touch yaw at all, only adjust pitch
-            // This completely prevents spinning when looking up/down
-            newYaw = currentYaw;  // Keep current yaw
-            
-            // Move pitch toward target
-            float pitchDiff = requiredPitch - currentPitch;
-            if (Math.abs(pitchDiff) > 1.0f) {
-                newPitch = currentPitch + Math.signum(pitchDiff) * Math.min(Math.abs(pitchDiff), ROTATION_SPEED);
-            } else {
-                newPitch = requiredPitch;
-            }
+        // Aim at the visible face rather than the (possibly hidden) centre
+        if (canSeeBlock(client, currentTarget)) {
+            rotation.aimAt(player, player.getX(), player.getEyeY(), player.getZ(),
+                visibility.getAimX(), visibility.getAimY(), visibility.getAimZ(), 0.3);
         } else {
-            // NORMAL ANGLE: Adjust both yaw and pitch
-            float requiredYaw = (float) (Math.atan2(-dx, dz) * 180.0 / Math.PI);
-            
-            float yawDiff = requiredYaw - currentYaw;
-            while (yawDiff > 180) yawDiff -= 360;
-            while (yawDiff < -180) yawDiff += 360;
-            
-            if (Math.abs(yawDiff) > 1.0f) {
-                newYaw = currentYaw + Math.signum(yawDiff) * Math.min(Math.abs(yawDiff), ROTATION_SPEED);
-            } else {
-                newYaw = requiredYaw;
-            }
-            
-            float pitchDiff = requiredPitch - currentPitch;
-            if (Math.abs(pitchDiff) > 1.0f) {
-                newPitch = currentPitch + Math.signum(pitchDiff) * Math.min(Math.abs(pitchDiff), ROTATION_SPEED);
-            } else {
-                newPitch = requiredPitch;
-            }
+            rotation.aimAt(player, player.getX(), player.getEyeY(), player.getZ(),
+                currentTarget.getX() + 0.5, currentTarget.getY() + 0.5, currentTarget.getZ() + 0.5, 0.5);
         }
         
-        player.setYaw(newYaw);
-        player.setPitch(newPitch);
-        
         // Check if rotation is complete
-        boolean pitchOk = Math.abs(requiredPitch - newPitch) <= 3.0f;
-        // For steep angles, yaw is always "ok" since we're not adjusting it
-        boolean yawOk = isSteepAngle || Math.abs(newYaw - player.getYaw()) <= 3.0f;
+        boolean onTarget = rotation.step(player);
 
-        if (pitchOk) {
+        if (onTarget) {
             rotationTicks++;
             if (rotationTicks >= ROTATION_SETTLE_TICKS) {
-                state = State.BREAKING;
-                breakingProgress = 0;
-                breakingBlock = currentTarget;
-                rotationTicks = 0;
+                machine.transition(State.BREAKING);
             }
         } else {
             rotationTicks = 0;
@@ -1072,15 +1696,17 @@ public class MiningController {
     
     private void handleBreaking(MinecraftClient client) {
         if (currentTarget == null || client.interactionManager == null || !targetLocked) {
-            state = State.IDLE;
+            machine.transition(State.IDLE);
             return;
         }
         
-        ClientWorld world = client.world;
-        BlockState blockState = world.getBlockState(currentTarget);
+        BlockState blockState = blockAt(client, currentTarget);
         
-        // Check if block is already broken
+        // Check if block is already broken (or predicted broken and awaiting confirmation)
         if (blockState.isAir()) {
+            // Opening a cell changes what is visible around it
+            visibility.invalidate();
+            
             // If this was the queue target, advance the index
             if (currentTarget.equals(queueTarget)) {
                 currentBlockIndex++;
@@ -1088,24 +1714,200 @@ public class MiningController {
             }
             currentTarget = null;
             targetLocked = false;
-            state = State.WAITING;
-            waitTicks = MIN_DELAY_TICKS + random.nextInt(MAX_DELAY_TICKS - MIN_DELAY_TICKS + 1);
+            machine.transition(State.WAITING);
+            // Only pause as long as the connection's jitter needs
+            int minDelay = config.getMinDelayTicks();
+            int maxDelay = Math.max(minDelay, Math.min(config.getMaxDelayTicks(), latency.getJitterTicks()));
+            waitTicks = minDelay + random.nextInt(maxDelay - minDelay + 1);
             return;
         }
         
         // DON'T adjust rotation during breaking - just maintain current view
         // This prevents spinning while mining
         
-        // Select best tool
-        selectBestTool(client, blockState);
+        if (!breakPipeline.isBreaking(currentTarget)) {
+            // Too many breaks still unconfirmed - wait for the server to catch up
+            if (!breakPipeline.hasCapacity()) {
+                return;
+            }
+            
+            // Select best tool - stop rather than break the last usable one
+            if (!selectBestTool(client, blockState)) {
+                showActionBarMessage(client, "§cTool almost broken - mining paused (repair or add a tool)");
+                recorder.mark(FlightRecorder.Event.TOOL_WORN);
+                stop();
+                return;
+            }
+            
+            // Find the best face to mine from
+            Direction face = getBlockFace(client, currentTarget);
+            
+            // Instant-break blocks are finished (and predicted air) right away
+            recorder.mark(FlightRecorder.Event.BREAK_STARTED);
+            if (breakPipeline.start(client, currentTarget, face) && breakPipeline.isInFlight(currentTarget)) {
+                onBlockBroken(client, currentTarget);
+            }
+            return;
+        }
         
-        // Find the best face to mine from
-        Direction face = getBlockFace(client, currentTarget);
+        // STOP is sent and the block predicted broken once progress completes
+        if (breakPipeline.continueBreaking(client)) {
+            onBlockBroken(client, currentTarget);
+        }
+    }
+    
+    private void onBlockBroken(MinecraftClient client, BlockPos pos) {
+        predicted.recordBreak(pos);
+        drops.recordBreak(pos);
+        
+        // Opened neighbours get cheaper (exposed, uncovered) - decrease-key them in place
+        long key = pos.asLong();
+        for (Direction dir : DIRECTIONS) {
+            long neighbour = BlockPos.offset(key, dir);
+            if (window.contains(neighbour)) {
+                window.update(neighbour, scoreTarget(client, neighbour));
+            }
+        }
+        if (stream != null) {
+            stream.onMined(client, pos);
+        }
+    }
+    
+    // Yaw pointing away from the next target (or just behind us without one)
+    private float awayFromWork(ClientPlayerEntity player) {
+        BlockPos next = queueTarget != null ? queueTarget
+            : currentBlockIndex < blocksToMine.size() ? blocksToMine.get(currentBlockIndex) : null;
+        if (next == null) {
+            return player.getYaw() + 180.0f;
+        }
+        return RotationController.yawTo(player.getX() - (next.getX() + 0.5), player.getZ() - (next.getZ() + 0.5));
+    }
+    
+    private void beginDeposit(MinecraftClient client) {
+        // Come back to exactly this point of the queue afterwards
+        resumeIndex = currentBlockIndex;
+        queueTarget = null;
+        currentTarget = null;
+        targetLocked = false;
+        machine.transition(State.DEPOSITING);
+        recorder.mark(FlightRecorder.Event.DEPOSIT);
+        showActionBarMessage(client, depositChest != null
+            ? "§eInventory full - depositing..."
+            : "§eInventory full - paused (empty it or mark a chest)");
+    }
+    
+    private void handleDepositing(MinecraftClient client) {
+        ClientPlayerEntity player = client.player;
+        
+        // No chest: wait for the player to make room
+        if (depositChest == null) {
+            if (!inventoryMonitor.isUnderPressure(player)) {
+                resumeAfterDeposit(client);
+            }
+            return;
+        }
+        
+        if (++depositTicks > MAX_DEPOSIT_TICKS) {
+            showActionBarMessage(client, "§cCouldn't deposit into the marked chest");
+            if (player.currentScreenHandler != player.playerScreenHandler) {
+                player.closeHandledScreen();
+            }
+            depositChest = null;
+            return;
+        }
+        
+        // Chest open: move items one stack per tick, then close and resume
+        if (player.currentScreenHandler != player.playerScreenHandler) {
+            if (!inventoryMonitor.depositNext(client)) {
+                resumeAfterDeposit(client);
+            }
+            return;
+        }
+        if (chestOpened) {
+            // Waiting for the server to open the screen
+            return;
+        }
+        
+        Vec3d chestCenter = Vec3d.ofCenter(depositChest);
+        if (player.getEyePos().distanceTo(chestCenter) <= CHEST_REACH) {
+            rotation.aimAt(player, player.getX(), player.getEyeY(), player.getZ(),
+                chestCenter.x, chestCenter.y, chestCenter.z, 0.5);
+            rotation.snap(player);
+            Direction side = Direction.getFacing(player.getEyePos().subtract(chestCenter));
+            BlockHitResult hit = new BlockHitResult(chestCenter, side, depositChest, false);
+            if (client.interactionManager.interactBlock(player, Hand.MAIN_HAND, hit).isAccepted()) {
+                player.swingHand(Hand.MAIN_HAND);
+                chestOpened = true;
+            }
+            return;
+        }
+        
+        movement.steer(client, player, chestCenter.x, chestCenter.z, CHEST_REACH - 1.0,
+            shouldJump(client, player, player.getYaw()), SetbackMonitor.Pattern.SIDE_TRIP);
+    }
+
+    // True once the queue has moved past the end of another slice
+    private boolean passedSliceEnd() {
+        boolean passed = false;
+        while (sliceCursor < sliceEnds.size() && currentBlockIndex >= sliceEnds.getInt(sliceCursor)) {
+            sliceCursor++;
+            passed = true;
+        }
+        return passed;
+    }
+    
+    private boolean beginCollecting(MinecraftClient client) {
+        if (drops.size() == 0 || inventoryMonitor.getFreeSlots(client.player) == 0) return false;
+        MinerEvents.PathPlanned planned = MinerEvents.beginPath();
+        IntArrayList route = drops.planRoute(client.world, client.player.getPos());
+        MinerEvents.end(planned, "pickup", route.size(), drops.getLastRouteLength());
+        if (route.isEmpty()) return false;
+        
+        pickupRoute = route;
+        queueTarget = null;
+        currentTarget = null;
+        targetLocked = false;
+        machine.transition(State.COLLECTING);
+        recorder.mark(FlightRecorder.Event.COLLECT);
+        showActionBarMessage(client, "§bCollecting " + route.size() + " drops...");
+        return true;
+    }
+    
+    private void handleCollecting(MinecraftClient client) {
+        ClientPlayerEntity player = client.player;
+        if (pickupRoute == null || pickupIndex >= pickupRoute.size() || inventoryMonitor.getFreeSlots(player) == 0) {
+            machine.transition(State.IDLE);
+            return;
+        }
+        
+        int id = pickupRoute.getInt(pickupIndex);
+        Entity item = client.world.getEntityById(id);
+        if (!(item instanceof ItemEntity) || item.isRemoved()) {
+            // Picked up (or merged/despawned) - next stop
+            pickupIndex++;
+            pickupTicks = 0;
+            return;
+        }
+        if (++pickupTicks > MAX_PICKUP_TICKS_PER_STOP) {
+            // Unreachable - don't plan it again
+            drops.forget(id);
+            pickupIndex++;
+            pickupTicks = 0;
+            return;
+        }
         
-        // Mine the target block directly (don't rely on crosshairTarget)
-        ClientPlayerInteractionManager im = client.interactionManager;
-        im.updateBlockBreakingProgress(currentTarget, face);
-        client.player.swingHand(Hand.MAIN_HAND);
+        // The predictor lets go early enough to coast onto the item rather than past it
+        movement.steer(client, player, item.getX(), item.getZ(), 0.0,
+            shouldJump(client, player, player.getYaw()), SetbackMonitor.Pattern.SIDE_TRIP);
+    }
+    
+    private void resumeAfterDeposit(MinecraftClient client) {
+        currentBlockIndex = Math.min(resumeIndex, blocksToMine.size());
+        promotedIndex = -1;
+        machine.transition(State.IDLE);
+        stuckTicks = 0;
+        hasLastPosition = false;
+        showActionBarMessage(client, "§aInventory emptied - resuming");
     }
     
     private void handleWaiting(MinecraftClient client) {
@@ -1114,9 +1916,10 @@ public class MiningController {
             // DON'T clean up scaffold immediately - keep it for subsequent blocks
             // Only clean up when mining is done or player moves far away
             if (shouldCleanupScaffold(client)) {
-                state = State.CLEANUP_SCAFFOLD;
+                cleanupEndsRun = false;
+                machine.transition(State.CLEANUP_SCAFFOLD);
             } else {
-                state = State.IDLE;
+                machine.transition(State.IDLE);
             }
         }
     }
@@ -1134,8 +1937,7 @@ public class MiningController {
         
         // Check if we're standing on a scaffold block or there's one nearby we can reach
         for (BlockPos placed : placedBlocks) {
-            double dist = player.getEyePos().distanceTo(Vec3d.ofCenter(placed));
-            if (dist <= reachDistance) {
+            if (eyeDistance(player, placed) <= reachDistance) {
                 return true;
             }
         }
@@ -1145,27 +1947,25 @@ public class MiningController {
     private void handleCleanupScaffold(MinecraftClient client) {
         ClientPlayerEntity player = client.player;
         if (player == null) {
-            state = State.IDLE;
+            machine.transition(State.IDLE);
             return;
         }
         
         // Find the closest scaffold block we can reach
         BlockPos closest = null;
         double closestDist = Double.MAX_VALUE;
-        Vec3d playerEyes = player.getEyePos();
-        
-        // Create a copy to iterate (avoid concurrent modification)
-        List<BlockPos> toCheck = new ArrayList<>(placedBlocks);
         
-        for (BlockPos placed : toCheck) {
+        for (Iterator<BlockPos> it = placedBlocks.iterator(); it.hasNext(); ) {
+            BlockPos placed = it.next();
             // Check if block still exists
-            BlockState blockState = client.world.getBlockState(placed);
+            BlockState blockState = blockAt(client, placed);
             if (blockState.isAir()) {
-                placedBlocks.remove(placed);
+                it.remove();
+                pillarBlocks.remove(placed);
                 continue;
             }
             
-            double dist = playerEyes.distanceTo(Vec3d.ofCenter(placed));
+            double dist = eyeDistance(player, placed);
             if (dist <= reachDistance && dist < closestDist) {
                 closest = placed;
                 closestDist = dist;
@@ -1175,11 +1975,15 @@ public class MiningController {
         if (closest == null) {
             // No reachable scaffold blocks - done cleaning or need to move
             if (placedBlocks.isEmpty()) {
-                stop();
-                showActionBarMessage(client, "§aMining complete!");
+                complete(client);
+            } else if (cleanupEndsRun) {
+                // Nothing left to mine: going back to IDLE would only send us here again
+                int left = placedBlocks.size();
+                complete(client);
+                showActionBarMessage(client, "§aMining complete! §e(" + left + " scaffold blocks out of reach, left in place)");
             } else {
                 // Can't reach remaining blocks, just continue mining
-                state = State.IDLE;
+                machine.transition(State.IDLE);
             }
             return;
         }
@@ -1188,12 +1992,17 @@ public class MiningController {
         currentTarget = closest;
         targetLocked = true;
 
-        selectBestTool(client, client.world.getBlockState(closest));
+        if (!selectBestTool(client, client.world.getBlockState(closest))) {
+            showActionBarMessage(client, "§cTool almost broken - mining paused (repair or add a tool)");
+            recorder.mark(FlightRecorder.Event.TOOL_WORN);
+            stop();
+            return;
+        }
         
         // Look at it
-        calculateTargetRotation(client);
-        player.setYaw(targetYaw);
-        player.setPitch(targetPitch);
+        rotation.aimAt(player, player.getX(), player.getEyeY(), player.getZ(),
+            closest.getX() + 0.5, closest.getY() + 0.5, closest.getZ() + 0.5, 0.5);
+        rotation.snap(player);
         
         // Break it
         Direction face = getBlockFace(client, closest);
@@ -1203,115 +2012,38 @@ public class MiningController {
         // Check if broken
         if (client.world.getBlockState(closest).isAir()) {
             placedBlocks.remove(closest);
+            pillarBlocks.remove(closest);
             currentTarget = null;
             targetLocked = false;
             showActionBarMessage(client, "§aScaffold cleaned: " + placedBlocks.size() + " remaining");
             if (placedBlocks.isEmpty()) {
-                stop();
-                showActionBarMessage(client, "§aMining complete!");
-            }
-        }
-    }
-    
-    private void calculateTargetRotation(MinecraftClient client) {
-        if (currentTarget == null || client.player == null) return;
-        
-        Vec3d playerEyes = client.player.getEyePos();
-        Vec3d targetCenter = Vec3d.ofCenter(currentTarget);
-        
-        double dx = targetCenter.x - playerEyes.x;
-        double dy = targetCenter.y - playerEyes.y;
-        double dz = targetCenter.z - playerEyes.z;
-        
-        double horizontalDist = Math.sqrt(dx * dx + dz * dz);
-        double totalDist = Math.sqrt(dx * dx + dy * dy + dz * dz);
-        
-        // Calculate pitch first
-        if (horizontalDist < 0.001) {
-            // Almost directly above or below - use a stable pitch
-            targetPitch = dy > 0 ? -89.0f : 89.0f;
-        } else {
-            targetPitch = (float) (-Math.atan2(dy, horizontalDist) * 180.0 / Math.PI);
-        }
-        
-        // Clamp pitch to valid range
-        targetPitch = Math.max(-89.0f, Math.min(89.0f, targetPitch));
-        
-        // Handle yaw - when looking steeply up/down, yaw becomes unstable
-        // Lock yaw when pitch is beyond ±60 degrees to prevent spinning
-        float pitchThresholdForYawLock = 60.0f;
-        
-        if (Math.abs(targetPitch) > pitchThresholdForYawLock) {
-            // Steep angle - lock yaw to prevent spinning
-            if (!yawLocked) {
-                // First time entering steep angle - lock current calculated yaw
-                if (horizontalDist > 0.1) {
-                    lockedYaw = (float) (Math.atan2(-dx, dz) * 180.0 / Math.PI);
-                } else {
-                    // Use player's current yaw if horizontal distance is too small
-                    lockedYaw = client.player.getYaw();
-                }
-                yawLocked = true;
+                complete(client);
             }
-            targetYaw = lockedYaw;
-        } else {
-            // Normal angle - calculate yaw normally
-            yawLocked = false;
-            targetYaw = (float) (Math.atan2(-dx, dz) * 180.0 / Math.PI);
         }
     }
     
-    private void maintainRotation(MinecraftClient client) {
-        if (currentTarget == null || client.player == null) return;
-        
-        ClientPlayerEntity player = client.player;
-        float currentYaw = player.getYaw();
-        float currentPitch = player.getPitch();
-        
-        // Recalculate target
-        calculateTargetRotation(client);
-        
-        // Calculate differences
-        float yawDiff = targetYaw - currentYaw;
-        float pitchDiff = targetPitch - currentPitch;
-        
-        // Normalize yaw
-        while (yawDiff > 180) yawDiff -= 360;
-        while (yawDiff < -180) yawDiff += 360;
-        
-        // Only adjust if significantly off (reduces jitter)
-        float pitchThreshold = 3.0f;
-        
-        // When looking steeply up/down, use much higher yaw threshold to prevent spinning
-        float yawThreshold = Math.abs(currentPitch) > 60.0f ? 15.0f : 3.0f;
-        
-        if (Math.abs(yawDiff) > yawThreshold) {
-            // Slower yaw adjustment when looking up/down
-            float yawSpeed = Math.abs(currentPitch) > 60.0f ? ROTATION_SPEED * 0.2f : ROTATION_SPEED * 0.5f;
-            float adjustment = Math.signum(yawDiff) * Math.min(Math.abs(yawDiff), yawSpeed);
-            player.setYaw(currentYaw + adjustment);
-        }
-        
-        if (Math.abs(pitchDiff) > pitchThreshold) {
-            float adjustment = Math.signum(pitchDiff) * Math.min(Math.abs(pitchDiff), ROTATION_SPEED * 0.5f);
-            player.setPitch(currentPitch + adjustment);
-        }
+    private static void selectSlot(PlayerInventory inventory, int slot, String reason) {
+        if (inventory.getSelectedSlot() == slot) return;
+        MinerEvents.inventorySwap(inventory.getSelectedSlot(), slot, reason);
+        inventory.setSelectedSlot(slot);
     }
     
     private Direction getBlockFace(MinecraftClient client, BlockPos target) {
-        // Calculate which face of the block is closest to the player
-        Vec3d playerPos = client.player.getEyePos();
-        Vec3d blockCenter = Vec3d.ofCenter(target);
+        // Prefer the closest face that is actually reachable and unobstructed
+        if (canSeeBlock(client, target)) {
+            return visibility.getFace();
+        }
         
-        double dx = playerPos.x - blockCenter.x;
-        double dy = playerPos.y - blockCenter.y;
-        double dz = playerPos.z - blockCenter.z;
+        // Fall back to the face that points most towards the player
+        ClientPlayerEntity player = client.player;
+        double dx = player.getX() - (target.getX() + 0.5);
+        double dy = player.getEyeY() - (target.getY() + 0.5);
+        double dz = player.getZ() - (target.getZ() + 0.5);
         
         double absX = Math.abs(dx);
         double absY = Math.abs(dy);
         double absZ = Math.abs(dz);
         
-        // Return the face that points most towards the player
         if (absY >= absX && absY >= absZ) {
             return dy > 0 ? Direction.UP : Direction.DOWN;
         } else if (absX >= absZ) {
@@ -1321,12 +2053,18 @@ public class MiningController {
         }
     }
     
-    private void selectBestTool(MinecraftClient client, BlockState blockState) {
-        if (client.player == null || client.interactionManager == null) return;
+    /**
+     * Selects the fastest tool that still has durability to spare. Returns false when
+     * the block needs a tool and the only suitable ones are worn down to the reserve,
+     * or when a worn tool is held and every hotbar slot holds something that wears out.
+     */
+    private boolean selectBestTool(MinecraftClient client, BlockState blockState) {
+        if (client.player == null || client.interactionManager == null) return true;
         
         var inventory = client.player.getInventory();
         int bestSlot = -1;
         float bestSpeed = 1.0f;
+        int wornSlot = -1;
         
         // Check ENTIRE inventory for best tool (hotbar 0-8, main inventory 9-35)
         for (int i = 0; i < 36; i++) {
@@ -1334,27 +2072,44 @@ public class MiningController {
             if (stack.isEmpty()) continue;
             
             float speed = stack.getMiningSpeedMultiplier(blockState);
+            if (speed <= 1.0f) continue;
+            
+            // Keep a reserve so tools are never used up completely
+            if (!maintenance.hasDurability(stack)) {
+                wornSlot = i;
+                continue;
+            }
             if (speed > bestSpeed) {
                 bestSpeed = speed;
                 bestSlot = i;
             }
         }
         
-        if (bestSlot == -1) return; // No tool found
+        if (wornSlot != -1) {
+            // Let XP from mining repair it from the off hand
+            maintenance.parkForMending(client, wornSlot);
+        }
+        
+        if (bestSlot == -1) {
+            // Mine by hand rather than wear a tool down to nothing...
+            if (!maintenance.hasDurability(client.player.getMainHandStack())) {
+                int spareSlot = findUndamageableHotbarSlot(inventory);
+                if (spareSlot == -1) return false;
+                selectSlot(inventory, spareSlot, "spare tool");
+            }
+            // ...unless the block needs a proper tool
+            return wornSlot == -1 || !blockState.isToolRequired();
+        }
         
         if (bestSlot < 9) {
             // Tool is in hotbar - just select it
-            if (bestSlot != inventory.getSelectedSlot()) {
-                inventory.setSelectedSlot(bestSlot);
-            }
-        } else {
-            // Tool is in main inventory - need to swap it to hotbar
+            selectSlot(inventory, bestSlot, "tool");
+        } else if (!maintenance.isSwapping()) {
+            // Tool is in main inventory - need to swap it to hotbar (not on top of a
+            // food or mending swap into the same slot; it's picked up next tick)
             int targetHotbarSlot = inventory.getSelectedSlot();
-            
-            // Convert inventory slot to screen handler slot index
-            // In player inventory screen: hotbar is 36-44, main inventory is 9-35
-            // But in the default screen handler, main inventory slots are offset
             int screenSlot = bestSlot; // For main inventory (9-35), the screen slot is the same
+            MinerEvents.inventorySwap(bestSlot, targetHotbarSlot, "tool");
             
             // Use SWAP action to swap the inventory slot with current hotbar slot
             client.interactionManager.clickSlot(
@@ -1365,6 +2120,15 @@ public class MiningController {
                 client.player
             );
         }
+        return true;
+    }
+    
+    // A hotbar slot whose item can't be worn out (empty, blocks, ...), or -1
+    private static int findUndamageableHotbarSlot(net.minecraft.entity.player.PlayerInventory inventory) {
+        for (int i = 0; i < 9; i++) {
+            if (!inventory.getStack(i).isDamageable()) return i;
+        }
+        return -1;
     }
     
     private void showActionBarMessage(MinecraftClient client, String message) {
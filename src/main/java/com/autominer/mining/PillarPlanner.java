@@ -0,0 +1,99 @@
+package com.autominer.mining;
+
+import com.autominer.movement.MovementPredictor;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.registry.tag.FluidTags;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+
+import java.util.function.Predicate;
+
+/**
+ * Geometry for getting up to a high target and back down. Going up, each jump places
+ * the block it took off from: the block fits under the feet from the tick the arc
+ * clears it ({@link MovementPredictor#ticksToRise}) until the landing, so a placement
+ * sent on the first of those ticks gives one block per jump cycle. A block beside the
+ * pillar (a wall) can be built against before the last pillar block is confirmed, and
+ * a step of natural terrain is climbed instead of built. Coming down, a drop is taken
+ * when it's short or lands in water; otherwise the pillar is mined from the top.
+ */
+public class PillarPlanner {
+
+    // Falls up to this many blocks cost no health
+    private static final int SAFE_DROP = 3;
+
+    // How far down a drop is followed before it's treated as bottomless
+    private static final int MAX_DROP_SCAN = 64;
+
+    private static final Direction[] HORIZONTAL = {Direction.NORTH, Direction.SOUTH, Direction.WEST, Direction.EAST};
+
+    // Ticks after a jump until the feet clear one block
+    public static final int TICKS_TO_CLEAR_BLOCK = MovementPredictor.ticksToRise(1.0);
+
+    private final BlockPos.Mutable cell = new BlockPos.Mutable();
+
+    /**
+     * Blocks to rise, from the current feet height, before the target block centre is
+     * within {@code reach} of the eyes; 0 if it already is.
+     */
+    public static int heightToReach(double eyeY, double horizontalDist, double targetY, double reach) {
+        if (horizontalDist >= reach) return Integer.MAX_VALUE;
+        double verticalReach = Math.sqrt(reach * reach - horizontalDist * horizontalDist);
+        double rise = targetY + 0.5 - verticalReach - eyeY;
+        return rise <= 0 ? 0 : (int) Math.ceil(rise);
+    }
+
+    /** The cell two above the feet is clear, so a jump gains a full block. */
+    public boolean hasHeadroom(ClientWorld world, PredictedWorld predicted, int x, int feetY, int z) {
+        return isOpen(world, predicted, x, feetY + 2, z);
+    }
+
+    /** Some side of the cell touches a block the server has confirmed, to build against. */
+    public boolean hasWallSupport(ClientWorld world, PredictedWorld predicted, int x, int y, int z) {
+        for (Direction dir : HORIZONTAL) {
+            cell.set(x + dir.getOffsetX(), y, z + dir.getOffsetZ());
+            if (predicted.isConfirmedSolid(world, cell)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * A neighbouring column to step up onto instead of placing a block: solid at feet
+     * height with room for the player above it. Cells matching {@code avoid} (the mining
+     * region) are never stood on. Returns the direction, or null.
+     */
+    public Direction findFoothold(ClientWorld world, PredictedWorld predicted, int x, int feetY, int z,
+                                  Predicate<BlockPos> avoid) {
+        if (!hasHeadroom(world, predicted, x, feetY, z)) return null;
+        for (Direction dir : HORIZONTAL) {
+            int nx = x + dir.getOffsetX();
+            int nz = z + dir.getOffsetZ();
+            cell.set(nx, feetY, nz);
+            if (avoid.test(cell) || !predicted.isConfirmedSolid(world, cell)) continue;
+            if (isOpen(world, predicted, nx, feetY + 1, nz) && isOpen(world, predicted, nx, feetY + 2, nz)) {
+                return dir;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether walking from feet height into column (x, z) is safe: it's blocked (no drop
+     * at all), or the fall is short or ends in water.
+     */
+    public boolean isSafeDrop(ClientWorld world, PredictedWorld predicted, int x, int feetY, int z) {
+        for (int depth = 0; depth <= MAX_DROP_SCAN; depth++) {
+            cell.set(x, feetY - depth, z);
+            BlockState state = predicted.getBlockState(world, cell);
+            if (state.getFluidState().isIn(FluidTags.WATER)) return true;
+            if (!state.isAir()) return depth - 1 <= SAFE_DROP;   // Lands on top of it
+        }
+        return false;
+    }
+
+    private boolean isOpen(ClientWorld world, PredictedWorld predicted, int x, int y, int z) {
+        cell.set(x, y, z);
+        return predicted.getBlockState(world, cell).getCollisionShape(world, cell).isEmpty();
+    }
+}
@@ -0,0 +1,152 @@
+package com.autominer.mining;
+
+import com.autominer.net.LatencyEstimator;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Overlay of block changes we have sent but the server has not confirmed yet.
+ * The planner reads through it so it never acts on a block that may still roll
+ * back, and never builds against a block the server may not have.
+ */
+public class PredictedWorld {
+
+    // Extra ticks on top of the confirmation estimate before a prediction expires
+    private static final int EXPIRY_SLACK_TICKS = 10;
+
+    private final LatencyEstimator latency;
+
+    // Predicted state and expiry tick per position
+    private final Long2ObjectOpenHashMap<BlockState> predicted = new Long2ObjectOpenHashMap<>();
+    private final Long2IntOpenHashMap expiresAt = new Long2IntOpenHashMap();
+    private int tickCount = 0;
+    private final BlockPos.Mutable scratch = new BlockPos.Mutable();
+
+    // Expiries in recording order, so tick() only looks at what is due instead of iterating
+    // the map. Entries that were confirmed or re-recorded meanwhile are skipped when popped.
+    private final LongArrayFIFOQueue expiryKeys = new LongArrayFIFOQueue();
+    private final IntArrayFIFOQueue expiryTicks = new IntArrayFIFOQueue();
+
+    // Predictions the server contradicted
+    private final LongArrayFIFOQueue rolledBackBreaks = new LongArrayFIFOQueue();
+    private final LongArrayFIFOQueue rolledBackPlacements = new LongArrayFIFOQueue();
+    private int ghostCount = 0;
+
+    public PredictedWorld(LatencyEstimator latency) {
+        this.latency = latency;
+    }
+
+    public void recordBreak(BlockPos pos) {
+        record(pos.asLong(), Blocks.AIR.getDefaultState());
+    }
+
+    public void recordPlace(BlockPos pos, BlockState state) {
+        record(pos.asLong(), state);
+    }
+
+    private void record(long key, BlockState state) {
+        int expiry = tickCount + latency.getConfirmTicks() * 2 + EXPIRY_SLACK_TICKS;
+        predicted.put(key, state);
+        expiresAt.put(key, expiry);
+        expiryKeys.enqueue(key);
+        expiryTicks.enqueue(expiry);
+    }
+
+    public boolean isPending(BlockPos pos) {
+        return predicted.containsKey(pos.asLong());
+    }
+
+    public int getPendingCount() {
+        return predicted.size();
+    }
+
+    public int getGhostCount() {
+        return ghostCount;
+    }
+
+    // World state with our unconfirmed changes applied on top
+    public BlockState getBlockState(ClientWorld world, BlockPos pos) {
+        BlockState state = predicted.get(pos.asLong());
+        return state != null ? state : world.getBlockState(pos);
+    }
+
+    // True only for solid blocks the server has confirmed - safe to build against
+    public boolean isConfirmedSolid(ClientWorld world, BlockPos pos) {
+        if (predicted.containsKey(pos.asLong())) return false;
+        BlockState state = world.getBlockState(pos);
+        return !state.isAir() && state.isSolidBlock(world, pos);
+    }
+
+    // Authoritative state from the server
+    public void onBlockUpdated(BlockPos pos, BlockState state) {
+        long key = pos.asLong();
+        BlockState expected = predicted.get(key);
+        if (expected == null) return;
+
+        predicted.remove(key);
+        expiresAt.remove(key);
+        if (!matches(expected, state)) {
+            rollBack(key, expected);
+        }
+    }
+
+    public void tick(ClientWorld world) {
+        tickCount++;
+
+        // No update arrived in time: trust whatever the world shows now
+        while (!expiryKeys.isEmpty() && expiryTicks.firstInt() <= tickCount) {
+            long key = expiryKeys.dequeueLong();
+            int expiry = expiryTicks.dequeueInt();
+            if (!expiresAt.containsKey(key) || expiresAt.get(key) != expiry) continue;
+
+            BlockState expected = predicted.remove(key);
+            expiresAt.remove(key);
+            scratch.set(key);
+            if (world != null && !matches(expected, world.getBlockState(scratch))) {
+                rollBack(key, expected);
+            }
+        }
+    }
+
+    public BlockPos pollRolledBackBreak() {
+        return rolledBackBreaks.isEmpty() ? null : BlockPos.fromLong(rolledBackBreaks.dequeueLong());
+    }
+
+    public BlockPos pollRolledBackPlacement() {
+        return rolledBackPlacements.isEmpty() ? null : BlockPos.fromLong(rolledBackPlacements.dequeueLong());
+    }
+
+    public void clear() {
+        predicted.clear();
+        expiresAt.clear();
+        expiryKeys.clear();
+        expiryTicks.clear();
+        rolledBackBreaks.clear();
+        rolledBackPlacements.clear();
+        ghostCount = 0;
+    }
+
+    // Broken blocks that came back are counted by the break pipeline as rejections
+    private void rollBack(long key, BlockState expected) {
+        if (expected.isAir()) {
+            rolledBackBreaks.enqueue(key);
+        } else {
+            ghostCount++;
+            rolledBackPlacements.enqueue(key);
+        }
+    }
+
+    private static boolean matches(BlockState expected, BlockState actual) {
+        if (expected.isAir()) {
+            // Fluids flowing into a mined cell still count as mined
+            return actual.isAir() || actual.isReplaceable();
+        }
+        return actual.getBlock() == expected.getBlock();
+    }
+}
@@ -0,0 +1,92 @@
+package com.autominer.mining;
+
+import com.autominer.selection.Shape;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
+
+/**
+ * Per-section verdicts for a region, computed once from the selection shape and the
+ * chunk section palettes so queue construction can step over whole sections without
+ * reading their cells.
+ */
+class SectionMask {
+
+    static final byte SKIP = 0;      // Nothing selectable in this section
+    static final byte SCAN = 1;      // Loaded and may contain selectable cells
+    static final byte UNKNOWN = 2;   // Chunk not loaded yet - keep every cell
+
+    private final int minSectionX, minSectionY, minSectionZ;
+    private final int sizeX, sizeY, sizeZ;
+    private final byte[] verdicts;
+    private final boolean[] partial;   // Section straddles the shape's boundary
+
+    private SectionMask(int minSectionX, int minSectionY, int minSectionZ, int sizeX, int sizeY, int sizeZ) {
+        this.minSectionX = minSectionX;
+        this.minSectionY = minSectionY;
+        this.minSectionZ = minSectionZ;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.verdicts = new byte[sizeX * sizeY * sizeZ];
+        this.partial = new boolean[sizeX * sizeY * sizeZ];
+    }
+
+    static SectionMask build(ClientWorld world, BlockFilter filter, Shape shape) {
+        BlockBox bounds = shape.getBounds();
+        int minX = bounds.getMinX(), minY = bounds.getMinY(), minZ = bounds.getMinZ();
+        int maxX = bounds.getMaxX(), maxY = bounds.getMaxY(), maxZ = bounds.getMaxZ();
+        int minSX = minX >> 4, minSY = minY >> 4, minSZ = minZ >> 4;
+        int maxSX = maxX >> 4, maxSY = maxY >> 4, maxSZ = maxZ >> 4;
+        SectionMask mask = new SectionMask(minSX, minSY, minSZ,
+            maxSX - minSX + 1, maxSY - minSY + 1, maxSZ - minSZ + 1);
+
+        for (int sx = minSX; sx <= maxSX; sx++) {
+            for (int sz = minSZ; sz <= maxSZ; sz++) {
+                boolean loaded = world.getChunkManager().isChunkLoaded(sx, sz);
+                WorldChunk chunk = loaded ? world.getChunk(sx, sz) : null;
+                ChunkSection[] sections = loaded ? chunk.getSectionArray() : null;
+
+                for (int sy = minSY; sy <= maxSY; sy++) {
+                    int index = mask.index(sx, sy, sz);
+                    Shape.Coverage coverage = shape.classify(sx << 4, sy << 4, sz << 4,
+                        (sx << 4) + 15, (sy << 4) + 15, (sz << 4) + 15);
+                    if (coverage == Shape.Coverage.OUTSIDE) {
+                        mask.verdicts[index] = SKIP;
+                        continue;
+                    }
+                    mask.partial[index] = coverage == Shape.Coverage.PARTIAL;
+                    
+                    byte verdict;
+                    if (!loaded) {
+                        verdict = UNKNOWN;
+                    } else {
+                        int sectionIndex = chunk.getSectionIndex(sy << 4);
+                        if (sectionIndex < 0 || sectionIndex >= sections.length) {
+                            verdict = SKIP;  // Outside the world's height
+                        } else {
+                            verdict = filter.mayContainSelectable(sections[sectionIndex]) ? SCAN : SKIP;
+                        }
+                    }
+                    mask.verdicts[index] = verdict;
+                }
+            }
+        }
+        return mask;
+    }
+
+    // Verdict for the section containing a block
+    byte get(int x, int y, int z) {
+        return verdicts[index(x >> 4, y >> 4, z >> 4)];
+    }
+
+    // Whether cells in this section need a per-cell shape test
+    boolean isPartial(int x, int y, int z) {
+        return partial[index(x >> 4, y >> 4, z >> 4)];
+    }
+
+    private int index(int sx, int sy, int sz) {
+        return ((sx - minSectionX) * sizeZ + (sz - minSectionZ)) * sizeY + (sy - minSectionY);
+    }
+}
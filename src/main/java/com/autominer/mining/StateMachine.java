@@ -0,0 +1,161 @@
+package com.autominer.mining;
+
+import net.minecraft.client.MinecraftClient;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Small table-driven state machine. Each state has a tick handler, optional entry and
+ * exit hooks, and the set of states it may move to. Per-state state (counters, targets)
+ * is cleared in exit hooks rather than by hand at every transition site, and time spent
+ * in each state is measured as a side effect of dispatching.
+ *
+ * <p>A transition missing from the table is still taken - a run should never stall on
+ * a bookkeeping mistake - but it is counted and reported to the illegal-transition
+ * listener so it shows up in diagnostics.
+ */
+public class StateMachine<S extends Enum<S>> {
+
+    private final Class<S> type;
+    private final EnumMap<S, Consumer<MinecraftClient>> handlers;
+    private final EnumMap<S, Runnable> entryHooks;
+    private final EnumMap<S, Runnable> exitHooks;
+    private final EnumMap<S, EnumSet<S>> transitions;
+
+    // Per-state timing, indexed by ordinal
+    private final long[] nanos;
+    private final long[] ticks;
+    private final int[] entries;
+
+    private S current;
+    private int illegalTransitions = 0;
+    private BiConsumer<S, S> illegalListener = (from, to) -> { };
+
+    public StateMachine(Class<S> type, S initial) {
+        this.type = type;
+        this.handlers = new EnumMap<>(type);
+        this.entryHooks = new EnumMap<>(type);
+        this.exitHooks = new EnumMap<>(type);
+        this.transitions = new EnumMap<>(type);
+        int count = type.getEnumConstants().length;
+        this.nanos = new long[count];
+        this.ticks = new long[count];
+        this.entries = new int[count];
+        this.current = initial;
+    }
+
+    public StateMachine<S> on(S state, Consumer<MinecraftClient> handler) {
+        handlers.put(state, handler);
+        return this;
+    }
+
+    public StateMachine<S> onEnter(S state, Runnable hook) {
+        entryHooks.put(state, hook);
+        return this;
+    }
+
+    public StateMachine<S> onExit(S state, Runnable hook) {
+        exitHooks.put(state, hook);
+        return this;
+    }
+
+    @SafeVarargs
+    public final StateMachine<S> allow(S from, S... to) {
+        EnumSet<S> allowed = transitions.computeIfAbsent(from, s -> EnumSet.noneOf(type));
+        for (S target : to) {
+            allowed.add(target);
+        }
+        return this;
+    }
+
+    // Every state may move to this one (e.g. an idle/abort state)
+    public StateMachine<S> allowFromAny(S to) {
+        for (S from : type.getEnumConstants()) {
+            allow(from, to);
+        }
+        return this;
+    }
+
+    public StateMachine<S> onIllegalTransition(BiConsumer<S, S> listener) {
+        this.illegalListener = listener;
+        return this;
+    }
+
+    public S getState() {
+        return current;
+    }
+
+    public boolean is(S state) {
+        return current == state;
+    }
+
+    /**
+     * Moves to {@code to}, running the current state's exit hook and the new state's
+     * entry hook. Staying in the same state runs neither.
+     */
+    public void transition(S to) {
+        if (to == current) return;
+        EnumSet<S> allowed = transitions.get(current);
+        if (allowed == null || !allowed.contains(to)) {
+            illegalTransitions++;
+            illegalListener.accept(current, to);
+        }
+
+        Runnable exit = exitHooks.get(current);
+        if (exit != null) exit.run();
+        current = to;
+        entries[to.ordinal()]++;
+        Runnable enter = entryHooks.get(to);
+        if (enter != null) enter.run();
+    }
+
+    // Dispatches one tick to the current state's handler; the time is charged to that state
+    public void tick(MinecraftClient client) {
+        S state = current;
+        Consumer<MinecraftClient> handler = handlers.get(state);
+        if (handler == null) return;
+        long start = System.nanoTime();
+        handler.accept(client);
+        nanos[state.ordinal()] += System.nanoTime() - start;
+        ticks[state.ordinal()]++;
+    }
+
+    public long getNanosIn(S state) {
+        return nanos[state.ordinal()];
+    }
+
+    public long getTicksIn(S state) {
+        return ticks[state.ordinal()];
+    }
+
+    public int getEntries(S state) {
+        return entries[state.ordinal()];
+    }
+
+    public int getIllegalTransitions() {
+        return illegalTransitions;
+    }
+
+    public void resetTimings() {
+        Arrays.fill(nanos, 0);
+        Arrays.fill(ticks, 0);
+        Arrays.fill(entries, 0);
+        illegalTransitions = 0;
+    }
+
+    // One line per visited state: ticks, entries and average time per tick
+    public String formatTimings() {
+        StringBuilder out = new StringBuilder();
+        for (S state : type.getEnumConstants()) {
+            int i = state.ordinal();
+            if (ticks[i] == 0) continue;
+            out.append(String.format("%s: %d ticks, %d entries, %.3f ms/tick%n",
+                state.name(), ticks[i], entries[i], nanos[i] / 1e6 / ticks[i]));
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,16 @@
+package com.autominer.mining;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.client.network.ClientPlayerEntity;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Scores a candidate target; the controller mines the cheapest one in its lookahead
+ * window next. Only called for blocks that are actually wanted.
+ */
+@FunctionalInterface
+public interface TargetCost {
+
+    double score(ClientPlayerEntity player, ClientWorld world, HazardMap hazards, BlockPos pos, BlockState state);
+}
@@ -0,0 +1,146 @@
+package com.autominer.mining;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+
+import java.util.Arrays;
+import java.util.function.LongToDoubleFunction;
+
+/**
+ * Indexed binary min-heap of packed block positions keyed by cost. The position
+ * index makes update (decrease- or increase-key), remove and contains O(log n) / O(1)
+ * without boxing.
+ */
+public class TargetQueue {
+
+    private long[] keys = new long[32];
+    private double[] costs = new double[32];
+    private int size = 0;
+    private final Long2IntOpenHashMap slots = new Long2IntOpenHashMap();
+
+    public TargetQueue() {
+        slots.defaultReturnValue(-1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(long key) {
+        return slots.containsKey(key);
+    }
+
+    // Insert, or move an existing entry to its new cost
+    public void update(long key, double cost) {
+        int slot = slots.get(key);
+        if (slot < 0) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                costs = Arrays.copyOf(costs, size * 2);
+            }
+            keys[size] = key;
+            costs[size] = cost;
+            slots.put(key, size);
+            siftUp(size++);
+            return;
+        }
+
+        double old = costs[slot];
+        costs[slot] = cost;
+        if (cost < old) {
+            siftUp(slot);
+        } else if (cost > old) {
+            siftDown(slot);
+        }
+    }
+
+    public long peek() {
+        return keys[0];
+    }
+
+    public double peekCost() {
+        return costs[0];
+    }
+
+    // Removes and returns the cheapest key; the queue must not be empty
+    public long poll() {
+        long top = keys[0];
+        removeAt(0);
+        return top;
+    }
+
+    public boolean remove(long key) {
+        int slot = slots.get(key);
+        if (slot < 0) return false;
+        removeAt(slot);
+        return true;
+    }
+
+    // Recompute every cost at once (e.g. after the player moved) and re-heapify in O(n)
+    public void rescore(LongToDoubleFunction cost) {
+        for (int i = 0; i < size; i++) {
+            costs[i] = cost.applyAsDouble(keys[i]);
+        }
+        for (int i = (size >>> 1) - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    public void clear() {
+        size = 0;
+        slots.clear();
+    }
+
+    private void removeAt(int slot) {
+        slots.remove(keys[slot]);
+        int last = --size;
+        if (slot == last) return;
+
+        keys[slot] = keys[last];
+        costs[slot] = costs[last];
+        slots.put(keys[slot], slot);
+        siftDown(slot);
+        siftUp(slot);
+    }
+
+    private void siftUp(int slot) {
+        long key = keys[slot];
+        double cost = costs[slot];
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (costs[parent] <= cost) break;
+            move(parent, slot);
+            slot = parent;
+        }
+        place(key, cost, slot);
+    }
+
+    private void siftDown(int slot) {
+        long key = keys[slot];
+        double cost = costs[slot];
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            if (child + 1 < size && costs[child + 1] < costs[child]) child++;
+            if (cost <= costs[child]) break;
+            move(child, slot);
+            slot = child;
+        }
+        place(key, cost, slot);
+    }
+
+    private void move(int from, int to) {
+        keys[to] = keys[from];
+        costs[to] = costs[from];
+        slots.put(keys[to], to);
+    }
+
+    private void place(long key, double cost, int slot) {
+        keys[slot] = key;
+        costs[slot] = cost;
+        slots.put(key, slot);
+    }
+}
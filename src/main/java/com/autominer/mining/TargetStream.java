@@ -0,0 +1,40 @@
+package com.autominer.mining;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.block.FluidBlock;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.List;
+
+/**
+ * A source of mining targets produced incrementally while the run progresses,
+ * instead of a region materialized up front.
+ */
+public interface TargetStream {
+
+    // Append the next batch of targets (may append nothing while waiting on the world)
+    void fill(MinecraftClient client, List<BlockPos> out);
+
+    // True once the stream will never produce another target
+    boolean isExhausted();
+
+    // Whether a block in this state is still worth mining when its turn comes
+    default boolean accepts(BlockState state) {
+        return !state.isAir() && !(state.getBlock() instanceof FluidBlock);
+    }
+
+    // Whether a blocking block at this position may be cleared on the way
+    default boolean contains(BlockPos pos) {
+        return false;
+    }
+
+    // Message to show when the stream ends, or null for the default
+    default String getEndMessage() {
+        return null;
+    }
+
+    // Called once a target has been broken (predicted)
+    default void onMined(MinecraftClient client, BlockPos pos) {
+    }
+}
@@ -0,0 +1,236 @@
+package com.autominer.mining;
+
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.FallingBlock;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.registry.tag.FluidTags;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+
+import java.util.List;
+
+/**
+ * Branch/strip-mining tunnel emitted one segment at a time. Only counters and a
+ * small re-check queue are kept, so a tunnel can run indefinitely. Lava stops the
+ * tunnel (or ends a branch); water and loose blocks around a batch are left to the
+ * controller's per-batch {@link HazardMap}, which seals and waits like a region run.
+ */
+public class TunnelGenerator implements TargetStream {
+
+    // Segments (one cross-section each) emitted per fill
+    private static final int SEGMENTS_PER_FILL = 2;
+
+    // How long to keep watching a cell that may be refilled by falling blocks
+    private static final int REFILL_WATCH_FILLS = 40;
+
+    private final BlockPos origin;
+    private final Direction forward;
+    private final Direction right;
+    private final int width;
+    private final int height;
+    private final int branchSpacing;   // 0 = no branches
+    private final int branchLength;
+    private final int maxLength;       // 0 = unlimited
+
+    // Progress
+    private int segment = 0;           // Last emitted main segment
+    private int branchSide = 0;        // 0 none, -1 left, 1 right
+    private int branchStep = 0;        // Last emitted step of the current branch
+    private boolean stopped = false;
+    private String endMessage = null;
+
+    // Cells under a falling-block column that may need mining again
+    private final LongArrayFIFOQueue refill = new LongArrayFIFOQueue();
+    private final LongArrayFIFOQueue refillAge = new LongArrayFIFOQueue();
+
+    private final BlockPos.Mutable scratch = new BlockPos.Mutable();
+
+    public TunnelGenerator(BlockPos origin, Direction forward, int width, int height,
+                           int branchSpacing, int branchLength, int maxLength) {
+        this.origin = origin.toImmutable();
+        this.forward = forward;
+        this.right = forward.rotateYClockwise();
+        this.width = Math.max(1, width);
+        this.height = Math.max(1, height);
+        this.branchSpacing = Math.max(0, branchSpacing);
+        this.branchLength = Math.max(1, branchLength);
+        this.maxLength = Math.max(0, maxLength);
+    }
+
+    public int getLength() {
+        return segment;
+    }
+
+    @Override
+    public String getEndMessage() {
+        return endMessage;
+    }
+
+    @Override
+    public void fill(MinecraftClient client, List<BlockPos> out) {
+        ClientWorld world = client.world;
+        if (world == null) return;
+
+        emitRefills(world, out);
+
+        for (int i = 0; i < SEGMENTS_PER_FILL && !stopped; i++) {
+            if (branchSide != 0) {
+                advanceBranch(world, out);
+            } else {
+                advanceMain(world, out);
+            }
+        }
+    }
+
+    @Override
+    public boolean isExhausted() {
+        return stopped && refill.isEmpty();
+    }
+
+    @Override
+    public boolean contains(BlockPos pos) {
+        int dx = pos.getX() - origin.getX();
+        int dz = pos.getZ() - origin.getZ();
+        int dy = pos.getY() - origin.getY();
+        if (dy < 0 || dy >= height) return false;
+
+        int along = dx * forward.getOffsetX() + dz * forward.getOffsetZ();
+        int side = dx * right.getOffsetX() + dz * right.getOffsetZ();
+        if (along < 1 || along > segment) return false;
+
+        // Main tunnel cross-section
+        if (side >= minSide() && side <= maxSide()) return true;
+
+        // Branch cross-section
+        if (branchSpacing > 0 && along % branchSpacing == 0) {
+            return side >= minSide() - branchLength && side <= maxSide() + branchLength;
+        }
+        return false;
+    }
+
+    @Override
+    public void onMined(MinecraftClient client, BlockPos pos) {
+        // Something loose above the opening will drop into the tunnel
+        scratch.set(pos.getX(), pos.getY() + 1, pos.getZ());
+        if (client.world.getBlockState(scratch).getBlock() instanceof FallingBlock) {
+            refill.enqueue(pos.asLong());
+            refillAge.enqueue(0);
+        }
+    }
+
+    private void advanceMain(ClientWorld world, List<BlockPos> out) {
+        if (maxLength > 0 && segment >= maxLength) {
+            stop("§aTunnel complete: " + segment + " blocks");
+            return;
+        }
+
+        int next = segment + 1;
+        int baseX = origin.getX() + forward.getOffsetX() * next;
+        int baseZ = origin.getZ() + forward.getOffsetZ() * next;
+
+        if (hasLavaAround(world, baseX, baseZ, minSide(), maxSide(), right, forward)) {
+            stop("§cLava ahead - tunnel stopped at " + segment + " blocks");
+            return;
+        }
+
+        emitCrossSection(out, baseX, baseZ, minSide(), maxSide(), right);
+        segment = next;
+
+        if (branchSpacing > 0 && segment % branchSpacing == 0) {
+            branchSide = -1;
+            branchStep = 0;
+        }
+    }
+
+    private void advanceBranch(ClientWorld world, List<BlockPos> out) {
+        int step = branchStep + 1;
+        int sideOffset = branchSide < 0 ? minSide() - step : maxSide() + step;
+        Direction ahead = branchSide < 0 ? right.getOpposite() : right;
+
+        int x = origin.getX() + forward.getOffsetX() * segment + right.getOffsetX() * sideOffset;
+        int z = origin.getZ() + forward.getOffsetZ() * segment + right.getOffsetZ() * sideOffset;
+
+        // Branches are one block wide and run along the side axis
+        if (step > branchLength || hasLavaAround(world, x, z, 0, 0, forward, ahead)) {
+            nextBranch();
+            return;
+        }
+
+        emitCrossSection(out, x, z, 0, 0, forward);
+        branchStep = step;
+    }
+
+    private void nextBranch() {
+        branchStep = 0;
+        branchSide = branchSide < 0 ? 1 : 0;
+    }
+
+    // Top to bottom so loose blocks above are taken first
+    private void emitCrossSection(List<BlockPos> out, int baseX, int baseZ, int fromSide, int toSide, Direction across) {
+        for (int side = fromSide; side <= toSide; side++) {
+            int x = baseX + across.getOffsetX() * side;
+            int z = baseZ + across.getOffsetZ() * side;
+            for (int h = height - 1; h >= 0; h--) {
+                out.add(new BlockPos(x, origin.getY() + h, z));
+            }
+        }
+    }
+
+    // Lava in or directly around the cells we are about to open
+    private boolean hasLavaAround(ClientWorld world, int baseX, int baseZ, int fromSide, int toSide,
+                                  Direction across, Direction ahead) {
+        for (int side = fromSide - 1; side <= toSide + 1; side++) {
+            int x = baseX + across.getOffsetX() * side;
+            int z = baseZ + across.getOffsetZ() * side;
+            for (int h = -1; h <= height; h++) {
+                scratch.set(x, origin.getY() + h, z);
+                if (world.getFluidState(scratch).isIn(FluidTags.LAVA)) return true;
+            }
+        }
+        // One further ahead, so we don't open straight into a pool
+        for (int side = fromSide; side <= toSide; side++) {
+            int x = baseX + across.getOffsetX() * side + ahead.getOffsetX();
+            int z = baseZ + across.getOffsetZ() * side + ahead.getOffsetZ();
+            for (int h = 0; h < height; h++) {
+                scratch.set(x, origin.getY() + h, z);
+                if (world.getFluidState(scratch).isIn(FluidTags.LAVA)) return true;
+            }
+        }
+        return false;
+    }
+
+    private void emitRefills(ClientWorld world, List<BlockPos> out) {
+        int count = refill.size();
+        for (int i = 0; i < count; i++) {
+            long key = refill.dequeueLong();
+            long age = refillAge.dequeueLong();
+            scratch.set(key);
+
+            BlockState state = world.getBlockState(scratch);
+            if (!state.isAir() && state.getFluidState().isEmpty()) {
+                // Landed - mine it again, and keep watching the column above it
+                out.add(scratch.toImmutable());
+                continue;
+            }
+            if (age < REFILL_WATCH_FILLS) {
+                refill.enqueue(key);
+                refillAge.enqueue(age + 1);
+            }
+        }
+    }
+
+    private int minSide() {
+        return -((width - 1) / 2);
+    }
+
+    private int maxSide() {
+        return width / 2;
+    }
+
+    private void stop(String message) {
+        stopped = true;
+        endMessage = message;
+    }
+}
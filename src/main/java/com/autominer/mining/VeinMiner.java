@@ -0,0 +1,164 @@
+package com.autominer.mining;
+
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.registry.tag.BlockTags;
+import net.minecraft.registry.tag.TagKey;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.List;
+
+/**
+ * Bounded flood fill over connected ore blocks, starting from one ore.
+ * Cells are keyed by {@link BlockPos#asLong()}; the frontier is a ring buffer.
+ */
+public class VeinMiner implements TargetStream {
+
+    private static final int DEFAULT_MAX_BLOCKS = 256;
+    private static final int MAX_RADIUS = 24;
+
+    // Cells examined per fill() call, keeps a single tick cheap
+    private static final int CELLS_PER_FILL = 128;
+
+    // Give up on unloaded cells after this many fills without progress
+    private static final int MAX_IDLE_FILLS = 200;
+
+    // Ore families: deepslate and stone variants count as one vein
+    private static final List<TagKey<Block>> ORE_TAGS = List.of(
+        BlockTags.COAL_ORES, BlockTags.IRON_ORES, BlockTags.COPPER_ORES, BlockTags.GOLD_ORES,
+        BlockTags.REDSTONE_ORES, BlockTags.LAPIS_ORES, BlockTags.DIAMOND_ORES, BlockTags.EMERALD_ORES
+    );
+
+    private final BlockPos origin;
+    private final Block originBlock;
+    private final TagKey<Block> originTag;
+    private final boolean diagonal;
+    private final int maxBlocks;
+
+    private final LongOpenHashSet visited = new LongOpenHashSet();
+    private final LongOpenHashSet emitted = new LongOpenHashSet();
+    private final LongArrayFIFOQueue frontier = new LongArrayFIFOQueue();
+    private final LongArrayFIFOQueue unloaded = new LongArrayFIFOQueue();
+    private int idleFills = 0;
+
+    private final BlockPos.Mutable scratch = new BlockPos.Mutable();
+
+    public VeinMiner(BlockPos origin, BlockState originState, boolean diagonal) {
+        this(origin, originState, diagonal, DEFAULT_MAX_BLOCKS);
+    }
+
+    public VeinMiner(BlockPos origin, BlockState originState, boolean diagonal, int maxBlocks) {
+        this.origin = origin.toImmutable();
+        this.originBlock = originState.getBlock();
+        this.originTag = findOreTag(originState);
+        this.diagonal = diagonal;
+        this.maxBlocks = maxBlocks;
+
+        long key = origin.asLong();
+        visited.add(key);
+        frontier.enqueue(key);
+    }
+
+    public int getEmittedCount() {
+        return emitted.size();
+    }
+
+    @Override
+    public boolean accepts(BlockState state) {
+        if (state.getBlock() == originBlock) return true;
+        return originTag != null && state.isIn(originTag);
+    }
+
+    @Override
+    public void fill(MinecraftClient client, List<BlockPos> out) {
+        ClientWorld world = client.world;
+        if (world == null) return;
+
+        // Retry cells whose chunks were not loaded last time
+        int waiting = unloaded.size();
+        for (int i = 0; i < waiting; i++) {
+            frontier.enqueue(unloaded.dequeueLong());
+        }
+
+        int examined = 0;
+        int before = out.size();
+        while (!frontier.isEmpty() && examined < CELLS_PER_FILL && emitted.size() < maxBlocks) {
+            long key = frontier.dequeueLong();
+            examined++;
+            scratch.set(key);
+
+            if (!world.isChunkLoaded(scratch.getX() >> 4, scratch.getZ() >> 4)) {
+                unloaded.enqueue(key);
+                continue;
+            }
+
+            if (emitted.contains(key) || !accepts(world.getBlockState(scratch))) continue;
+
+            emitted.add(key);
+            out.add(scratch.toImmutable());
+            expand(scratch.getX(), scratch.getY(), scratch.getZ());
+        }
+
+        idleFills = out.size() > before ? 0 : idleFills + 1;
+    }
+
+    @Override
+    public boolean isExhausted() {
+        if (emitted.size() >= maxBlocks) return true;
+        if (!frontier.isEmpty()) return false;
+        return unloaded.isEmpty() || idleFills > MAX_IDLE_FILLS;
+    }
+
+    @Override
+    public void onMined(MinecraftClient client, BlockPos pos) {
+        // Opening a cell can reveal ore that was hidden before (anti-xray), so look again
+        int x = pos.getX(), y = pos.getY(), z = pos.getZ();
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    if (!isNeighbour(dx, dy, dz)) continue;
+                    long key = BlockPos.asLong(x + dx, y + dy, z + dz);
+                    if (visited.contains(key) && !emitted.contains(key)) {
+                        frontier.enqueue(key);
+                    }
+                }
+            }
+        }
+    }
+
+    private void expand(int x, int y, int z) {
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    if (!isNeighbour(dx, dy, dz)) continue;
+                    int nx = x + dx, ny = y + dy, nz = z + dz;
+                    if (Math.abs(nx - origin.getX()) > MAX_RADIUS
+                        || Math.abs(ny - origin.getY()) > MAX_RADIUS
+                        || Math.abs(nz - origin.getZ()) > MAX_RADIUS) continue;
+
+                    long key = BlockPos.asLong(nx, ny, nz);
+                    if (visited.add(key)) {
+                        frontier.enqueue(key);
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean isNeighbour(int dx, int dy, int dz) {
+        int manhattan = Math.abs(dx) + Math.abs(dy) + Math.abs(dz);
+        if (manhattan == 0) return false;
+        return diagonal || manhattan == 1;
+    }
+
+    private static TagKey<Block> findOreTag(BlockState state) {
+        for (TagKey<Block> tag : ORE_TAGS) {
+            if (state.isIn(tag)) return tag;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,78 @@
+package com.autominer.mining;
+
+import com.autominer.rotation.RotationController;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.network.ClientPlayerEntity;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
+
+/**
+ * Default target cost: a weighted sum of eye distance, how far the view has to turn,
+ * expected break time and hazards, minus a bonus for valuable blocks. Roughly in
+ * "ticks of work" so the weights stay comparable.
+ */
+public class WeightedTargetCost implements TargetCost {
+
+    private static final BlockFilter VALUABLE = BlockFilter.ores();
+
+    private double distanceWeight = 2.0;    // Per block from the eyes
+    private double rotationWeight = 0.1;    // Per degree of turn
+    private double breakTimeWeight = 1.0;   // Per tick of breaking
+    private double hazardWeight = 8.0;      // Per hazard (loose column, fluid to seal)
+    private double valueBonus = 6.0;        // Subtracted for ores
+
+    public WeightedTargetCost distance(double weight) {
+        this.distanceWeight = weight;
+        return this;
+    }
+
+    public WeightedTargetCost rotation(double weight) {
+        this.rotationWeight = weight;
+        return this;
+    }
+
+    public WeightedTargetCost breakTime(double weight) {
+        this.breakTimeWeight = weight;
+        return this;
+    }
+
+    public WeightedTargetCost hazard(double weight) {
+        this.hazardWeight = weight;
+        return this;
+    }
+
+    public WeightedTargetCost value(double bonus) {
+        this.valueBonus = bonus;
+        return this;
+    }
+
+    @Override
+    public double score(ClientPlayerEntity player, ClientWorld world, HazardMap hazards, BlockPos pos, BlockState state) {
+        double dx = pos.getX() + 0.5 - player.getX();
+        double dy = pos.getY() + 0.5 - player.getEyeY();
+        double dz = pos.getZ() + 0.5 - player.getZ();
+        double horizontal = Math.sqrt(dx * dx + dz * dz);
+        double distance = Math.sqrt(horizontal * horizontal + dy * dy);
+
+        float yawDelta = Math.abs(MathHelper.wrapDegrees(RotationController.yawTo(dx, dz) - player.getYaw()));
+        float pitchDelta = Math.abs(RotationController.pitchTo(dy, horizontal) - player.getPitch());
+
+        // Progress per tick with the current tool; 0 means it can't be broken by hand at all
+        float delta = state.calcBlockBreakingDelta(player, world, pos);
+        double breakTicks = delta > 0 ? Math.min(200.0, 1.0 / delta) : 200.0;
+
+        int hazardCount = 0;
+        if (hazards.isGravityCell(pos)) hazardCount++;
+        if (hazards.getSeals(pos) != null) hazardCount++;
+
+        double cost = distance * distanceWeight
+            + (yawDelta + pitchDelta) * rotationWeight
+            + breakTicks * breakTimeWeight
+            + hazardCount * hazardWeight;
+        if (VALUABLE.isSelectable(state)) {
+            cost -= valueBonus;
+        }
+        return cost;
+    }
+}
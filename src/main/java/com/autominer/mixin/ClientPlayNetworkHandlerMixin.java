@@ -0,0 +1,37 @@
+package com.autominer.mixin;
+
+import com.autominer.net.ServerFeedbackEvents;
+import net.minecraft.client.network.ClientPlayNetworkHandler;
+import net.minecraft.network.packet.s2c.play.BlockUpdateS2CPacket;
+import net.minecraft.network.packet.s2c.play.ChunkDeltaUpdateS2CPacket;
+import net.minecraft.network.packet.s2c.play.PlayerActionResponseS2CPacket;
+import net.minecraft.network.packet.s2c.play.PlayerPositionLookS2CPacket;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+// Handlers re-schedule themselves onto the client thread before running, so TAIL only fires there
+@Mixin(ClientPlayNetworkHandler.class)
+public abstract class ClientPlayNetworkHandlerMixin {
+
+    @Inject(method = "onPlayerActionResponse", at = @At("TAIL"))
+    private void autominer$onPlayerActionResponse(PlayerActionResponseS2CPacket packet, CallbackInfo ci) {
+        ServerFeedbackEvents.ACTION_ACKNOWLEDGED.invoker().onActionAcknowledged(packet.sequence());
+    }
+
+    @Inject(method = "onBlockUpdate", at = @At("TAIL"))
+    private void autominer$onBlockUpdate(BlockUpdateS2CPacket packet, CallbackInfo ci) {
+        ServerFeedbackEvents.BLOCK_UPDATED.invoker().onBlockUpdated(packet.getPos(), packet.getState());
+    }
+
+    @Inject(method = "onChunkDeltaUpdate", at = @At("TAIL"))
+    private void autominer$onChunkDeltaUpdate(ChunkDeltaUpdateS2CPacket packet, CallbackInfo ci) {
+        packet.visitUpdates(ServerFeedbackEvents.BLOCK_UPDATED.invoker()::onBlockUpdated);
+    }
+
+    @Inject(method = "onPlayerPositionLook", at = @At("TAIL"))
+    private void autominer$onPlayerPositionLook(PlayerPositionLookS2CPacket packet, CallbackInfo ci) {
+        ServerFeedbackEvents.POSITION_CORRECTED.invoker().onPositionCorrected();
+    }
+}
@@ -0,0 +1,14 @@
+package com.autominer.mixin;
+
+import net.minecraft.client.network.ClientPlayerInteractionManager;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Invoker;
+
+// Vanilla's slot sync, for actions the mod sends itself instead of through the manager
+@Mixin(ClientPlayerInteractionManager.class)
+public interface ClientPlayerInteractionManagerAccessor {
+
+    // Sends the selected hotbar slot if it changed since the last sync
+    @Invoker("syncSelectedSlot")
+    void autominer$syncSelectedSlot();
+}
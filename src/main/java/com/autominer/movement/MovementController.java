@@ -0,0 +1,145 @@
+package com.autominer.movement;
+
+import com.autominer.rotation.RotationController;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayerEntity;
+import net.minecraft.client.option.GameOptions;
+import net.minecraft.client.option.KeyBinding;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Moves the player by holding movement keys, the way a player would, instead of
+ * overwriting velocity. Vanilla physics does the rest, so speeds are exactly what the
+ * server expects and arrival is predictable: {@link MovementPredictor} picks the gait
+ * that reaches the next stop in the fewest ticks within the {@link SetbackMonitor}
+ * budget, and forward is let go once the remaining distance can be coasted.
+ *
+ * <p>Keys take effect on the player's next tick. Only keys this controller pressed
+ * are released, and every state that steers must call {@link #release()} on the way
+ * out so nothing stays held.
+ */
+public class MovementController {
+
+    private static final int FORWARD = 1;
+    private static final int JUMP = 2;
+    private static final int SPRINT = 4;
+    private static final int SNEAK = 8;
+
+    // Don't start a sprint jump for less than this; the landing would overshoot
+    private static final double MIN_JUMP_DISTANCE = 3.0;
+
+    private final SetbackMonitor setbacks;
+    private final BlockPos.Mutable scratch = new BlockPos.Mutable();
+    private int held = 0;
+
+    // Last decision, for diagnostics
+    private MovementPredictor.Gait gait = null;
+    private int predictedTicks = 0;
+
+    public MovementController(SetbackMonitor setbacks) {
+        this.setbacks = setbacks;
+    }
+
+    /**
+     * One tick of walking toward (x, z), stopping {@code stopShort} blocks before it.
+     * Faces the point, then holds the keys for the best gait; {@code obstacle} asks for
+     * a jump (a step up ahead). Speed budgets are per {@code pattern}.
+     */
+    public void steer(MinecraftClient client, ClientPlayerEntity player, double x, double z, double stopShort,
+                      boolean obstacle, SetbackMonitor.Pattern pattern) {
+        player.setYaw(RotationController.yawTo(x - player.getX(), z - player.getZ()));
+        follow(client, player, x, z, stopShort, obstacle, pattern);
+    }
+
+    /**
+     * Like {@link #steer}, but keeps the current yaw, for callers that turn the player
+     * themselves (combat aims with its own smoothed rotation). Forward is along the yaw.
+     */
+    public void follow(MinecraftClient client, ClientPlayerEntity player, double x, double z, double stopShort,
+                       boolean obstacle, SetbackMonitor.Pattern pattern) {
+        drive(client, player, x, z, stopShort, obstacle, pattern, MovementPredictor.Gait.SPRINT_JUMP);
+    }
+
+    /**
+     * Bridging: walks toward (x, z) over the deck, sneaking while {@code guard} is set so
+     * vanilla edge clipping holds the player on the last confirmed block. Never sprints
+     * or jumps; placements ahead couldn't keep up.
+     */
+    public void bridge(MinecraftClient client, ClientPlayerEntity player, double x, double z, boolean guard) {
+        player.setYaw(RotationController.yawTo(x - player.getX(), z - player.getZ()));
+        drive(client, player, x, z, 0.0, false, SetbackMonitor.Pattern.BRIDGE,
+            guard ? MovementPredictor.Gait.SNEAK : MovementPredictor.Gait.WALK);
+    }
+
+    // Holds the keys for the fastest gait up to {@code cap} that the pattern's budget allows
+    private void drive(MinecraftClient client, ClientPlayerEntity player, double x, double z, double stopShort,
+                       boolean obstacle, SetbackMonitor.Pattern pattern, MovementPredictor.Gait cap) {
+        double dx = x - player.getX();
+        double dz = z - player.getZ();
+        double remaining = Math.sqrt(dx * dx + dz * dz) - stopShort;
+
+        double vx = player.getVelocity().x;
+        double vz = player.getVelocity().z;
+        double speed = Math.sqrt(vx * vx + vz * vz);
+        boolean onGround = player.isOnGround();
+        double slipperiness = slipperiness(client, player);
+
+        double budget = setbacks.speed(pattern, player, MovementPredictor.steadySpeed(cap, slipperiness));
+        boolean canJump = cap.jump && remaining > MIN_JUMP_DISTANCE && hasHeadroom(client, player)
+            && player.getHungerManager().getFoodLevel() > 6;
+        MovementPredictor.Gait chosen = MovementPredictor.fastest(Math.max(0, remaining), speed, budget, canJump, slipperiness);
+        gait = chosen;
+        predictedTicks = MovementPredictor.ticksToCover(remaining, chosen, speed, slipperiness);
+
+        // Let go once friction alone gets us there
+        boolean coast = remaining <= MovementPredictor.coastDistance(speed, onGround, slipperiness);
+        set(client.options.forwardKey, FORWARD, !coast && remaining > 0);
+        set(client.options.sprintKey, SPRINT, !coast && chosen.sprint);
+        set(client.options.sneakKey, SNEAK, chosen.sneak);
+        set(client.options.jumpKey, JUMP, onGround && (obstacle || (!coast && chosen.jump)));
+    }
+
+    /** Lets go of everything this controller is holding. */
+    public void release() {
+        if (held == 0) return;
+        GameOptions options = MinecraftClient.getInstance().options;
+        set(options.forwardKey, FORWARD, false);
+        set(options.jumpKey, JUMP, false);
+        set(options.sprintKey, SPRINT, false);
+        set(options.sneakKey, SNEAK, false);
+    }
+
+    public boolean isSteering() {
+        return held != 0;
+    }
+
+    public MovementPredictor.Gait getGait() {
+        return gait;
+    }
+
+    // Ticks the last steer() expected to need for the rest of the way
+    public int getPredictedTicks() {
+        return predictedTicks;
+    }
+
+    private void set(KeyBinding key, int bit, boolean down) {
+        if (down) {
+            key.setPressed(true);
+            held |= bit;
+        } else if ((held & bit) != 0) {
+            key.setPressed(false);
+            held &= ~bit;
+        }
+    }
+
+    // A jump needs two clear cells above the head or it just bonks
+    private boolean hasHeadroom(MinecraftClient client, ClientPlayerEntity player) {
+        scratch.set(player.getBlockX(), player.getBlockY() + 2, player.getBlockZ());
+        return client.world.getBlockState(scratch).getCollisionShape(client.world, scratch).isEmpty();
+    }
+
+    private double slipperiness(MinecraftClient client, ClientPlayerEntity player) {
+        scratch.set(player.getBlockX(), (int) Math.floor(player.getY() - 0.5), player.getBlockZ());
+        return client.world.getBlockState(scratch).getBlock().getSlipperiness();
+    }
+}
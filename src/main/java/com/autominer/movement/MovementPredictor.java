@@ -0,0 +1,173 @@
+package com.autominer.movement;
+
+/**
+ * Local model of vanilla horizontal player movement, for choosing inputs and
+ * predicting travel times. Mirrors {@code LivingEntity.travel}: each tick the input
+ * adds an acceleration that depends on the ground's slipperiness, the player moves by
+ * the resulting velocity, then friction is applied. Jumps follow vanilla gravity and
+ * drag, and a sprint jump adds its 0.2 boost. Collisions are not modelled - the
+ * predictor assumes a flat, clear run, which is what the planner asks about.
+ *
+ * <p>Everything works on primitives, so asking every tick is free.
+ */
+public final class MovementPredictor {
+
+    // Vanilla constants
+    public static final double DEFAULT_SLIPPERINESS = 0.6;
+    private static final double WALK_SPEED = 0.1;              // movement_speed attribute
+    private static final double SPRINT_MULTIPLIER = 1.3;
+    private static final double SNEAK_MULTIPLIER = 0.3;
+    private static final double INPUT_SCALE = 0.98;            // Input impulse damping
+    private static final double AIR_ACCEL = 0.02;
+    private static final double AIR_ACCEL_SPRINTING = 0.026;
+    private static final double AIR_FRICTION = 0.91;
+    private static final double JUMP_VELOCITY = 0.42;
+    private static final double SPRINT_JUMP_BOOST = 0.2;
+    private static final double GRAVITY = 0.08;
+    private static final double VERTICAL_DRAG = 0.98;
+
+    private static final int MAX_TICKS = 20 * 30;
+
+    // Planner travel times from rest, per half block (sprinting, no jumps)
+    private static final double TABLE_STEP = 0.5;
+    private static final int[] TRAVEL_TABLE = buildTravelTable(128);
+
+    /** Input combinations the controller chooses between, fastest last. */
+    public enum Gait {
+        SNEAK(false, false, true),
+        WALK(false, false, false),
+        SPRINT(true, false, false),
+        SPRINT_JUMP(true, true, false);
+
+        public final boolean sprint;
+        public final boolean jump;
+        public final boolean sneak;
+
+        Gait(boolean sprint, boolean jump, boolean sneak) {
+            this.sprint = sprint;
+            this.jump = jump;
+            this.sneak = sneak;
+        }
+    }
+
+    private static final Gait[] GAITS = Gait.values();
+
+    private MovementPredictor() {
+    }
+
+    /**
+     * Ticks to cover {@code distance} blocks holding {@code gait}, starting at
+     * {@code speed} blocks/tick along the direction of travel, on the ground.
+     */
+    public static int ticksToCover(double distance, Gait gait, double speed, double slipperiness) {
+        if (distance <= 0) return 0;
+        double covered = 0;
+        double v = speed;
+        double height = 0;
+        double vy = 0;
+        boolean onGround = true;
+        for (int tick = 1; tick <= MAX_TICKS; tick++) {
+            if (gait.jump && onGround) {
+                vy = JUMP_VELOCITY;
+                v += SPRINT_JUMP_BOOST;
+                onGround = false;
+            }
+            v += acceleration(gait, onGround, slipperiness);
+            covered += v;
+            if (covered >= distance) return tick;
+
+            v *= onGround ? slipperiness * AIR_FRICTION : AIR_FRICTION;
+            if (!onGround) {
+                height += vy;
+                vy = (vy - GRAVITY) * VERTICAL_DRAG;
+                if (height <= 0) {
+                    height = 0;
+                    vy = 0;
+                    onGround = true;
+                }
+            }
+        }
+        return MAX_TICKS;
+    }
+
+    /** Distance still travelled after releasing all input at {@code speed}, on the ground. */
+    public static double coastDistance(double speed, boolean onGround, double slipperiness) {
+        double friction = onGround ? slipperiness * AIR_FRICTION : AIR_FRICTION;
+        // Each tick moves by the current speed, then friction scales it: a geometric series
+        return speed / (1.0 - friction);
+    }
+
+    /** Blocks/tick reached after holding {@code gait} for a long time on flat ground. */
+    public static double steadySpeed(Gait gait, double slipperiness) {
+        if (gait.jump) {
+            // Average over a jump cycle
+            int ticks = ticksToCover(64.0, gait, steadySpeed(Gait.SPRINT, slipperiness), slipperiness);
+            return 64.0 / ticks;
+        }
+        double friction = slipperiness * AIR_FRICTION;
+        return acceleration(gait, true, slipperiness) / (1.0 - friction);
+    }
+
+    /**
+     * Fastest gait for {@code distance} blocks that stays within {@code maxSpeed}
+     * (the setback budget), from the current speed. Falls back to sneaking.
+     */
+    public static Gait fastest(double distance, double speed, double maxSpeed, boolean canJump, double slipperiness) {
+        Gait best = Gait.SNEAK;
+        int bestTicks = Integer.MAX_VALUE;
+        for (Gait gait : GAITS) {
+            if (gait.jump && !canJump) continue;
+            if (gait != Gait.SNEAK && steadySpeed(gait, slipperiness) > maxSpeed + 1e-9) continue;
+            int ticks = ticksToCover(distance, gait, speed, slipperiness);
+            if (ticks < bestTicks || (ticks == bestTicks && gait.ordinal() < best.ordinal())) {
+                best = gait;
+                bestTicks = ticks;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Ticks after a jump until the feet are {@code height} blocks above the take-off,
+     * or -1 if the arc never gets that high.
+     */
+    public static int ticksToRise(double height) {
+        double y = 0;
+        double vy = JUMP_VELOCITY;
+        for (int tick = 1; vy > 0; tick++) {
+            y += vy;
+            if (y >= height) return tick;
+            vy = (vy - GRAVITY) * VERTICAL_DRAG;
+        }
+        return -1;
+    }
+
+    /** Planner estimate: ticks to sprint {@code distance} blocks from rest on normal ground. */
+    public static int travelTicks(double distance) {
+        if (distance <= 0) return 0;
+        int index = (int) Math.ceil(distance / TABLE_STEP);
+        if (index < TRAVEL_TABLE.length) return TRAVEL_TABLE[index];
+        double steady = steadySpeed(Gait.SPRINT, DEFAULT_SLIPPERINESS);
+        int last = TRAVEL_TABLE.length - 1;
+        return TRAVEL_TABLE[last] + (int) Math.ceil((distance - last * TABLE_STEP) / steady);
+    }
+
+    private static double acceleration(Gait gait, boolean onGround, double slipperiness) {
+        double accel;
+        if (onGround) {
+            double movementSpeed = WALK_SPEED * (gait.sprint ? SPRINT_MULTIPLIER : 1.0);
+            accel = movementSpeed * (0.21600002 / (slipperiness * slipperiness * slipperiness));
+        } else {
+            accel = gait.sprint ? AIR_ACCEL_SPRINTING : AIR_ACCEL;
+        }
+        return accel * INPUT_SCALE * (gait.sneak ? SNEAK_MULTIPLIER : 1.0);
+    }
+
+    private static int[] buildTravelTable(int maxBlocks) {
+        int[] table = new int[(int) (maxBlocks / TABLE_STEP) + 1];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = ticksToCover(i * TABLE_STEP, Gait.SPRINT, 0.0, DEFAULT_SLIPPERINESS);
+        }
+        return table;
+    }
+}
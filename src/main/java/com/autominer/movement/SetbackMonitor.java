@@ -0,0 +1,146 @@
+package com.autominer.movement;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayerEntity;
+
+/**
+ * Watches for the server correcting our position (rubber-banding) and keeps a speed
+ * budget per movement pattern. Every place that drives the player asks
+ * {@link #speed(Pattern, ClientPlayerEntity, double)} for its speed; a setback shortly
+ * after a pattern was used is blamed on that pattern and cuts its speed
+ * multiplicatively, while clean movement wins it back a little at a time (AIMD, as in
+ * TCP congestion control). The speed converges just under whatever the server's
+ * movement checks tolerate, instead of losing ticks to repeated setbacks.
+ *
+ * <p>Corrections are reported the moment the packet is handled, so the controllers
+ * can reset their stuck detection right away instead of noticing many ticks later.
+ */
+public class SetbackMonitor {
+
+    /** Ways the controllers move the player; each has its own budget. */
+    public enum Pattern {
+        WALK,
+        SPRINT,
+        BRIDGE,
+        CHASE,
+        SIDE_TRIP
+    }
+
+    // AIMD: cut by 30% per setback, win back 2% per clean second
+    private static final double DECREASE = 0.7;
+    private static final double INCREASE = 0.02;
+    private static final int CLEAN_TICKS_PER_INCREASE = 20;
+    private static final double MIN_SCALE = 0.4;
+
+    // A correction is blamed on the pattern used this recently
+    private static final int ATTRIBUTION_TICKS = 5;
+
+    // One setback often arrives as a burst of packets; count it once for the budget
+    private static final int DECREASE_HOLDOFF_TICKS = 10;
+
+    // Moved farther than this: a teleport (command, portal, respawn), not a setback
+    private static final double MAX_SETBACK_DISTANCE = 8.0;
+
+    private static final Pattern[] PATTERNS = Pattern.values();
+
+    private final double[] scale = new double[PATTERNS.length];
+    private final int[] cleanTicks = new int[PATTERNS.length];
+    private final long[] lastDecreaseTick = new long[PATTERNS.length];
+
+    // Statistics
+    private final long[] ticksUsed = new long[PATTERNS.length];
+    private final int[] setbacks = new int[PATTERNS.length];
+    private final double[] setbackDistance = new double[PATTERNS.length];
+
+    private long tickCount = 0;
+    private Pattern lastPattern = null;
+    private long lastPatternTick = 0;
+    private double lastX, lastY, lastZ;
+
+    public SetbackMonitor() {
+        reset();
+    }
+
+    public void tick() {
+        tickCount++;
+    }
+
+    /**
+     * Speed to use for {@code pattern} this tick: {@code base} scaled by the pattern's
+     * budget. Also records that the pattern is in use, for blaming setbacks.
+     */
+    public double speed(Pattern pattern, ClientPlayerEntity player, double base) {
+        int i = pattern.ordinal();
+        ticksUsed[i]++;
+        if (++cleanTicks[i] >= CLEAN_TICKS_PER_INCREASE) {
+            cleanTicks[i] = 0;
+            scale[i] = Math.min(1.0, scale[i] + INCREASE);
+        }
+        lastPattern = pattern;
+        lastPatternTick = tickCount;
+        lastX = player.getX();
+        lastY = player.getY();
+        lastZ = player.getZ();
+        return base * scale[i];
+    }
+
+    /**
+     * Position correction packet handler. Returns the pattern blamed for the setback,
+     * or null when it wasn't ours (no recent movement, or a teleport).
+     */
+    public Pattern onPositionCorrected() {
+        ClientPlayerEntity player = MinecraftClient.getInstance().player;
+        if (player == null || lastPattern == null || tickCount - lastPatternTick > ATTRIBUTION_TICKS) {
+            return null;
+        }
+        double dx = player.getX() - lastX;
+        double dy = player.getY() - lastY;
+        double dz = player.getZ() - lastZ;
+        double distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        if (distance > MAX_SETBACK_DISTANCE) return null;
+
+        int i = lastPattern.ordinal();
+        setbacks[i]++;
+        setbackDistance[i] += distance;
+        cleanTicks[i] = 0;
+        if (tickCount - lastDecreaseTick[i] >= DECREASE_HOLDOFF_TICKS) {
+            lastDecreaseTick[i] = tickCount;
+            scale[i] = Math.max(MIN_SCALE, scale[i] * DECREASE);
+        }
+        return lastPattern;
+    }
+
+    public double getScale(Pattern pattern) {
+        return scale[pattern.ordinal()];
+    }
+
+    public int getSetbacks(Pattern pattern) {
+        return setbacks[pattern.ordinal()];
+    }
+
+    // Back to full speed everywhere (e.g. on joining another server)
+    public void reset() {
+        for (int i = 0; i < PATTERNS.length; i++) {
+            scale[i] = 1.0;
+            cleanTicks[i] = 0;
+            lastDecreaseTick[i] = -DECREASE_HOLDOFF_TICKS;
+            ticksUsed[i] = 0;
+            setbacks[i] = 0;
+            setbackDistance[i] = 0;
+        }
+        lastPattern = null;
+    }
+
+    // One line per pattern used: ticks, setbacks (rate and average distance), current budget
+    public String formatStats() {
+        StringBuilder out = new StringBuilder();
+        for (Pattern pattern : PATTERNS) {
+            int i = pattern.ordinal();
+            if (ticksUsed[i] == 0) continue;
+            out.append(String.format("%s: %d ticks, %d setbacks (%.1f/min, avg %.2f blocks), speed x%.2f%n",
+                pattern.name(), ticksUsed[i], setbacks[i], setbacks[i] * 1200.0 / ticksUsed[i],
+                setbacks[i] > 0 ? setbackDistance[i] / setbacks[i] : 0.0, scale[i]));
+        }
+        return out.toString();
+    }
+}
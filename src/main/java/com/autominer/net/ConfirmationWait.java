@@ -0,0 +1,74 @@
+package com.autominer.net;
+
+import net.minecraft.util.Util;
+
+/**
+ * A wait that ends when the server confirms the action it guards, or when the
+ * latency estimate says the confirmation is overdue.
+ */
+public class ConfirmationWait {
+
+    // Matches any confirmation of the right kind
+    public static final long ANY = Long.MIN_VALUE;
+
+    private static final int NO_SEQUENCE = Integer.MIN_VALUE;
+
+    private final LatencyEstimator latency;
+
+    private boolean waiting = false;
+    private long key = ANY;
+    private int sequence = NO_SEQUENCE;
+    private long armedAtMs = 0;
+    private int ticksLeft = 0;
+    private int minTicks = 0;
+
+    public ConfirmationWait(LatencyEstimator latency) {
+        this.latency = latency;
+    }
+
+    public void arm(long key) {
+        arm(key, NO_SEQUENCE);
+    }
+
+    // Also ends on the server acknowledging the action's sequence number
+    public void arm(long key, int sequence) {
+        this.waiting = true;
+        this.key = key;
+        this.sequence = sequence;
+        this.armedAtMs = Util.getMeasuringTimeMs();
+        this.ticksLeft = Math.max(minTicks, latency.getConfirmTicks());
+    }
+
+    // Never give up on a confirmation sooner than this, however low the latency estimate
+    public void setMinTicks(int minTicks) {
+        this.minTicks = Math.max(0, minTicks);
+    }
+
+    public boolean isWaiting() {
+        return waiting;
+    }
+
+    public void tick() {
+        if (waiting && --ticksLeft <= 0) {
+            waiting = false;
+        }
+    }
+
+    public void confirm(long confirmedKey) {
+        if (!waiting) return;
+        if (key != ANY && confirmedKey != key) return;
+        latency.sampleSince(armedAtMs);
+        waiting = false;
+    }
+
+    // Server processed every action up to and including this sequence number
+    public void confirmSequence(int acknowledged) {
+        if (!waiting || sequence == NO_SEQUENCE || acknowledged < sequence) return;
+        latency.sampleSince(armedAtMs);
+        waiting = false;
+    }
+
+    public void clear() {
+        waiting = false;
+    }
+}
@@ -0,0 +1,79 @@
+package com.autominer.net;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayNetworkHandler;
+import net.minecraft.client.network.PlayerListEntry;
+import net.minecraft.util.Util;
+
+/**
+ * Smoothed round-trip estimate built from the server-reported ping and from
+ * confirmations we observe ourselves (block acknowledgements, slot updates).
+ * Uses the usual SRTT/RTTVAR filter so waits follow both latency and jitter.
+ */
+public class LatencyEstimator {
+
+    private static final double MS_PER_TICK = 50.0;
+    private static final int PING_POLL_TICKS = 40;
+
+    // Bounds for any derived wait
+    private static final int MIN_WAIT_TICKS = 1;
+    private static final int MAX_WAIT_TICKS = 20;
+
+    // Start pessimistic until we have real samples
+    private double smoothedRtt = 150.0;
+    private double rttVariance = 50.0;
+    private boolean hasSample = false;
+    private int pingPollTicks = 0;
+
+    public void tick(MinecraftClient client) {
+        if (++pingPollTicks < PING_POLL_TICKS) return;
+        pingPollTicks = 0;
+
+        ClientPlayNetworkHandler handler = client.getNetworkHandler();
+        if (handler == null || client.player == null) return;
+        PlayerListEntry entry = handler.getPlayerListEntry(client.player.getUuid());
+        if (entry != null && entry.getLatency() > 0) {
+            sample(entry.getLatency());
+        }
+    }
+
+    public void sample(double rttMs) {
+        if (rttMs < 0) return;
+        if (!hasSample) {
+            smoothedRtt = rttMs;
+            rttVariance = rttMs / 2.0;
+            hasSample = true;
+            return;
+        }
+        rttVariance = 0.75 * rttVariance + 0.25 * Math.abs(smoothedRtt - rttMs);
+        smoothedRtt = 0.875 * smoothedRtt + 0.125 * rttMs;
+    }
+
+    // Record a confirmation for an action sent at {@code sentAtMs}
+    public void sampleSince(long sentAtMs) {
+        sample(Util.getMeasuringTimeMs() - sentAtMs);
+    }
+
+    public double getSmoothedRtt() {
+        return smoothedRtt;
+    }
+
+    public double getRttVariance() {
+        return rttVariance;
+    }
+
+    // Ticks after which an unconfirmed action can be assumed processed (or lost)
+    public int getConfirmTicks() {
+        return toTicks(smoothedRtt + 4.0 * rttVariance);
+    }
+
+    // Extra ticks to absorb jitter between back-to-back actions
+    public int getJitterTicks() {
+        return Math.min(MAX_WAIT_TICKS, (int) Math.round(rttVariance / MS_PER_TICK));
+    }
+
+    private static int toTicks(double ms) {
+        int ticks = (int) Math.ceil(ms / MS_PER_TICK);
+        return Math.max(MIN_WAIT_TICKS, Math.min(MAX_WAIT_TICKS, ticks));
+    }
+}
@@ -0,0 +1,61 @@
+package com.autominer.net;
+
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.EventFactory;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Server responses the controllers react to. Fired on the client thread after
+ * vanilla has applied the packet, so the world already reflects the server's view.
+ */
+public final class ServerFeedbackEvents {
+
+    // Server acknowledged all block actions up to and including this sequence number
+    public static final Event<ActionAcknowledged> ACTION_ACKNOWLEDGED = EventFactory.createArrayBacked(
+        ActionAcknowledged.class,
+        listeners -> sequence -> {
+            for (ActionAcknowledged listener : listeners) {
+                listener.onActionAcknowledged(sequence);
+            }
+        }
+    );
+
+    // Server sent an authoritative block state (single or section delta update)
+    public static final Event<BlockUpdated> BLOCK_UPDATED = EventFactory.createArrayBacked(
+        BlockUpdated.class,
+        listeners -> (pos, state) -> {
+            for (BlockUpdated listener : listeners) {
+                listener.onBlockUpdated(pos, state);
+            }
+        }
+    );
+
+    // Server moved us (a setback/rubber-band, or a teleport)
+    public static final Event<PositionCorrected> POSITION_CORRECTED = EventFactory.createArrayBacked(
+        PositionCorrected.class,
+        listeners -> () -> {
+            for (PositionCorrected listener : listeners) {
+                listener.onPositionCorrected();
+            }
+        }
+    );
+
+    private ServerFeedbackEvents() {
+    }
+
+    @FunctionalInterface
+    public interface ActionAcknowledged {
+        void onActionAcknowledged(int sequence);
+    }
+
+    @FunctionalInterface
+    public interface BlockUpdated {
+        void onBlockUpdated(BlockPos pos, BlockState state);
+    }
+
+    @FunctionalInterface
+    public interface PositionCorrected {
+        void onPositionCorrected();
+    }
+}
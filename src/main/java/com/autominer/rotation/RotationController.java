@@ -0,0 +1,192 @@
+package com.autominer.rotation;
+
+import net.minecraft.client.network.ClientPlayerEntity;
+import net.minecraft.util.math.MathHelper;
+
+/**
+ * Shared yaw/pitch controller for the mining and combat controllers.
+ * Works on primitive doubles only, so aiming never allocates.
+ */
+public class RotationController {
+
+    // Pitch beyond which yaw becomes unstable and is frozen
+    private static final float STEEP_PITCH = 60.0f;
+    private static final float MAX_PITCH = 89.0f;
+
+    // Fraction of the remaining angle covered per tick (ease-out)
+    private static final float EASE_GAIN = 0.7f;
+    private static final float MIN_STEP = 4.0f;
+
+    // Never accept an aim looser than this, even for very close targets
+    private static final float MAX_TOLERANCE = 8.0f;
+    private static final float MIN_TOLERANCE = 1.0f;
+
+    private float maxStep;
+
+    // Current goal
+    private float targetYaw = 0;
+    private float targetPitch = 0;
+    private float tolerance = MIN_TOLERANCE;
+    private boolean steep = false;
+
+    // Yaw used while looking steeply up/down
+    private float lockedYaw = 0;
+    private boolean yawLocked = false;
+
+    // View after the last step
+    private float stepYaw = 0;
+    private float stepPitch = 0;
+
+    public RotationController(float maxStep) {
+        this.maxStep = maxStep;
+    }
+
+    public void setMaxStep(float maxStep) {
+        this.maxStep = Math.max(MIN_STEP, maxStep);
+    }
+
+    public float getMaxStep() {
+        return maxStep;
+    }
+
+    public float getTargetYaw() {
+        return targetYaw;
+    }
+
+    public float getTargetPitch() {
+        return targetPitch;
+    }
+
+    public float getStepYaw() {
+        return stepYaw;
+    }
+
+    public float getStepPitch() {
+        return stepPitch;
+    }
+
+    public void reset() {
+        yawLocked = false;
+        steep = false;
+    }
+
+    /**
+     * Aim at a point from the given eye position. {@code radius} is the half-size of the
+     * thing being aimed at (0.5 for a block), and widens the accepted tolerance with distance.
+     */
+    public void aimAt(ClientPlayerEntity player, double eyeX, double eyeY, double eyeZ,
+                      double x, double y, double z, double radius) {
+        aimAt(player.getYaw(), eyeX, eyeY, eyeZ, x, y, z, radius);
+    }
+
+    // Same, from a bare view yaw (kept when aiming straight up or down)
+    public void aimAt(float currentYaw, double eyeX, double eyeY, double eyeZ,
+                      double x, double y, double z, double radius) {
+        double dx = x - eyeX;
+        double dy = y - eyeY;
+        double dz = z - eyeZ;
+        double horizontalSq = dx * dx + dz * dz;
+        double horizontal = Math.sqrt(horizontalSq);
+
+        if (horizontal < 0.001) {
+            targetPitch = dy > 0 ? -MAX_PITCH : MAX_PITCH;
+        } else {
+            targetPitch = clampPitch(pitchTo(dy, horizontal));
+        }
+
+        steep = Math.abs(targetPitch) > STEEP_PITCH;
+        if (steep) {
+            // Lock the yaw once on entering a steep angle to prevent spinning
+            if (!yawLocked) {
+                lockedYaw = horizontal > 0.1 ? yawTo(dx, dz) : currentYaw;
+                yawLocked = true;
+            }
+            targetYaw = lockedYaw;
+        } else {
+            yawLocked = false;
+            targetYaw = yawTo(dx, dz);
+        }
+
+        // Angular radius of the target: anywhere on it counts as "on target"
+        double distance = Math.sqrt(horizontalSq + dy * dy);
+        float angular = distance > radius
+            ? (float) (MathHelper.atan2(radius, distance) * MathHelper.DEGREES_PER_RADIAN) * 0.8f
+            : MAX_TOLERANCE;
+        tolerance = MathHelper.clamp(angular, MIN_TOLERANCE, MAX_TOLERANCE);
+    }
+
+    /**
+     * Move the player's view one tick towards the current goal.
+     * Returns true once the view is within tolerance of the goal.
+     */
+    public boolean step(ClientPlayerEntity player) {
+        boolean onTarget = step(player.getYaw(), player.getPitch());
+        player.setYaw(stepYaw);
+        player.setPitch(stepPitch);
+        return onTarget;
+    }
+
+    // Same, from a bare view; the new view is read back with getStepYaw/getStepPitch
+    public boolean step(float currentYaw, float currentPitch) {
+        stepYaw = currentYaw;
+        stepPitch = currentPitch;
+        float pitchDiff = targetPitch - currentPitch;
+        float yawDiff = steep ? 0.0f : MathHelper.wrapDegrees(targetYaw - currentYaw);
+
+        float absYaw = Math.abs(yawDiff);
+        float absPitch = Math.abs(pitchDiff);
+        float largest = Math.max(absYaw, absPitch);
+
+        if (largest <= tolerance) {
+            return true;
+        }
+
+        // Move both axes proportionally so they arrive on the same tick
+        float stepSize = easedStep(largest);
+        float scale = stepSize / largest;
+
+        stepYaw = currentYaw + yawDiff * scale;
+        stepPitch = currentPitch + pitchDiff * scale;
+
+        return largest - stepSize <= tolerance;
+    }
+
+    // Set the view to the goal immediately
+    public void snap(ClientPlayerEntity player) {
+        player.setYaw(targetYaw);
+        player.setPitch(targetPitch);
+    }
+
+    private float easedStep(float remaining) {
+        if (remaining <= maxStep * 0.5f) {
+            // Close enough to finish this tick
+            return remaining;
+        }
+        float step = Math.max(MIN_STEP, remaining * EASE_GAIN);
+        return Math.min(step, Math.min(maxStep, remaining));
+    }
+
+    // ---- Primitive helpers shared by the controllers ----
+
+    public static float yawTo(double dx, double dz) {
+        return (float) (MathHelper.atan2(-dx, dz) * MathHelper.DEGREES_PER_RADIAN);
+    }
+
+    public static float pitchTo(double dy, double horizontal) {
+        return (float) (-MathHelper.atan2(dy, horizontal) * MathHelper.DEGREES_PER_RADIAN);
+    }
+
+    public static float clampPitch(float pitch) {
+        return MathHelper.clamp(pitch, -MAX_PITCH, MAX_PITCH);
+    }
+
+    // Unit X component of the horizontal look vector (table-driven sin)
+    public static double forwardX(float yaw) {
+        return -MathHelper.sin(yaw * MathHelper.RADIANS_PER_DEGREE);
+    }
+
+    // Unit Z component of the horizontal look vector (table-driven cos)
+    public static double forwardZ(float yaw) {
+        return MathHelper.cos(yaw * MathHelper.RADIANS_PER_DEGREE);
+    }
+}
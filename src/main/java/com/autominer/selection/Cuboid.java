@@ -0,0 +1,48 @@
+package com.autominer.selection;
+
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * The classic two-corner box selection.
+ */
+public class Cuboid implements Shape {
+
+    private final BlockBox box;
+
+    public Cuboid(BlockPos pos1, BlockPos pos2) {
+        this.box = BlockBox.create(pos1, pos2);
+    }
+
+    @Override
+    public boolean contains(int x, int y, int z) {
+        return x >= box.getMinX() && x <= box.getMaxX()
+            && y >= box.getMinY() && y <= box.getMaxY()
+            && z >= box.getMinZ() && z <= box.getMaxZ();
+    }
+
+    @Override
+    public BlockBox getBounds() {
+        return box;
+    }
+
+    @Override
+    public Coverage classify(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        if (maxX < box.getMinX() || minX > box.getMaxX()
+            || maxY < box.getMinY() || minY > box.getMaxY()
+            || maxZ < box.getMinZ() || minZ > box.getMaxZ()) {
+            return Coverage.OUTSIDE;
+        }
+        if (minX >= box.getMinX() && maxX <= box.getMaxX()
+            && minY >= box.getMinY() && maxY <= box.getMaxY()
+            && minZ >= box.getMinZ() && maxZ <= box.getMaxZ()) {
+            return Coverage.INSIDE;
+        }
+        return Coverage.PARTIAL;
+    }
+
+    @Override
+    public String getName() {
+        return "Cuboid";
+    }
+}
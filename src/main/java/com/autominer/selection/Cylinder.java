@@ -0,0 +1,64 @@
+package com.autominer.selection;
+
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
+
+/**
+ * Vertical cylinder: a disc around a centre column, extruded over a y range.
+ */
+public class Cylinder implements Shape {
+
+    private final int centerX, centerZ;
+    private final double radius;
+    private final int minY, maxY;
+    private final BlockBox bounds;
+
+    public Cylinder(int centerX, int centerZ, double radius, int minY, int maxY) {
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+        this.radius = Math.max(0.5, radius);
+        this.minY = Math.min(minY, maxY);
+        this.maxY = Math.max(minY, maxY);
+        int r = MathHelper.floor(this.radius);
+        this.bounds = new BlockBox(centerX - r, this.minY, centerZ - r, centerX + r, this.maxY, centerZ + r);
+    }
+
+    // Axis through the first corner, radius and height reaching the second
+    public static Cylinder through(BlockPos center, BlockPos edge) {
+        double dx = edge.getX() - center.getX();
+        double dz = edge.getZ() - center.getZ();
+        return new Cylinder(center.getX(), center.getZ(), Math.sqrt(dx * dx + dz * dz), center.getY(), edge.getY());
+    }
+
+    @Override
+    public boolean contains(int x, int y, int z) {
+        if (y < minY || y > maxY) return false;
+        int dx = x - centerX;
+        int dz = z - centerZ;
+        return dx * dx + dz * dz <= radius * radius;
+    }
+
+    @Override
+    public BlockBox getBounds() {
+        return bounds;
+    }
+
+    @Override
+    public Coverage classify(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        if (maxY < this.minY || minY > this.maxY) return Coverage.OUTSIDE;
+
+        double r2 = radius * radius;
+        double near = Ellipsoid.sq(Ellipsoid.nearest(centerX, minX, maxX)) + Ellipsoid.sq(Ellipsoid.nearest(centerZ, minZ, maxZ));
+        if (near > r2) return Coverage.OUTSIDE;
+
+        boolean withinY = minY >= this.minY && maxY <= this.maxY;
+        double far = Ellipsoid.sq(Ellipsoid.farthest(centerX, minX, maxX)) + Ellipsoid.sq(Ellipsoid.farthest(centerZ, minZ, maxZ));
+        return withinY && far <= r2 ? Coverage.INSIDE : Coverage.PARTIAL;
+    }
+
+    @Override
+    public String getName() {
+        return "Cylinder";
+    }
+}
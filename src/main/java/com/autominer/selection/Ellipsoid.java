@@ -0,0 +1,88 @@
+package com.autominer.selection;
+
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
+
+/**
+ * Axis-aligned ellipsoid over cell coordinates. A cell is selected when its
+ * normalized distance from the centre is at most 1.
+ */
+public class Ellipsoid implements Shape {
+
+    private final double centerX, centerY, centerZ;
+    private final double radiusX, radiusY, radiusZ;
+    private final BlockBox bounds;
+
+    public Ellipsoid(double centerX, double centerY, double centerZ, double radiusX, double radiusY, double radiusZ) {
+        this.centerX = centerX;
+        this.centerY = centerY;
+        this.centerZ = centerZ;
+        this.radiusX = Math.max(0.5, radiusX);
+        this.radiusY = Math.max(0.5, radiusY);
+        this.radiusZ = Math.max(0.5, radiusZ);
+        this.bounds = new BlockBox(
+            MathHelper.ceil(centerX - this.radiusX), MathHelper.ceil(centerY - this.radiusY), MathHelper.ceil(centerZ - this.radiusZ),
+            MathHelper.floor(centerX + this.radiusX), MathHelper.floor(centerY + this.radiusY), MathHelper.floor(centerZ + this.radiusZ)
+        );
+    }
+
+    // Largest ellipsoid that fits the box between two corners
+    public static Ellipsoid inscribed(BlockPos pos1, BlockPos pos2) {
+        BlockBox box = BlockBox.create(pos1, pos2);
+        return new Ellipsoid(
+            (box.getMinX() + box.getMaxX()) / 2.0,
+            (box.getMinY() + box.getMaxY()) / 2.0,
+            (box.getMinZ() + box.getMaxZ()) / 2.0,
+            box.getBlockCountX() / 2.0,
+            box.getBlockCountY() / 2.0,
+            box.getBlockCountZ() / 2.0
+        );
+    }
+
+    @Override
+    public boolean contains(int x, int y, int z) {
+        double dx = (x - centerX) / radiusX;
+        double dy = (y - centerY) / radiusY;
+        double dz = (z - centerZ) / radiusZ;
+        return dx * dx + dy * dy + dz * dz <= 1.0;
+    }
+
+    @Override
+    public BlockBox getBounds() {
+        return bounds;
+    }
+
+    @Override
+    public Coverage classify(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        // Scaling each axis keeps the nearest/farthest box corner per axis, so both tests are exact
+        double near = sq(nearest(centerX, minX, maxX) / radiusX)
+            + sq(nearest(centerY, minY, maxY) / radiusY)
+            + sq(nearest(centerZ, minZ, maxZ) / radiusZ);
+        if (near > 1.0) return Coverage.OUTSIDE;
+
+        double far = sq(farthest(centerX, minX, maxX) / radiusX)
+            + sq(farthest(centerY, minY, maxY) / radiusY)
+            + sq(farthest(centerZ, minZ, maxZ) / radiusZ);
+        return far <= 1.0 ? Coverage.INSIDE : Coverage.PARTIAL;
+    }
+
+    @Override
+    public String getName() {
+        return "Ellipsoid";
+    }
+
+    static double nearest(double center, int min, int max) {
+        if (center < min) return min - center;
+        if (center > max) return center - max;
+        return 0.0;
+    }
+
+    static double farthest(double center, int min, int max) {
+        return Math.max(Math.abs(center - min), Math.abs(max - center));
+    }
+
+    static double sq(double value) {
+        return value * value;
+    }
+}
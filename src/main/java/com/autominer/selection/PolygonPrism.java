@@ -0,0 +1,117 @@
+package com.autominer.selection;
+
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.List;
+
+/**
+ * A polygon outline in the x/z plane extruded over a y range.
+ */
+public class PolygonPrism implements Shape {
+
+    private final int[] xs;
+    private final int[] zs;
+    private final int minY, maxY;
+    private final BlockBox bounds;
+
+    public PolygonPrism(List<BlockPos> vertices, int minY, int maxY) {
+        if (vertices.size() < 3) {
+            throw new IllegalArgumentException("A polygon needs at least 3 vertices");
+        }
+        this.xs = new int[vertices.size()];
+        this.zs = new int[vertices.size()];
+        int minX = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        for (int i = 0; i < vertices.size(); i++) {
+            xs[i] = vertices.get(i).getX();
+            zs[i] = vertices.get(i).getZ();
+            minX = Math.min(minX, xs[i]);
+            minZ = Math.min(minZ, zs[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxZ = Math.max(maxZ, zs[i]);
+        }
+        this.minY = Math.min(minY, maxY);
+        this.maxY = Math.max(minY, maxY);
+        this.bounds = new BlockBox(minX, this.minY, minZ, maxX, this.maxY, maxZ);
+    }
+
+    @Override
+    public boolean contains(int x, int y, int z) {
+        if (y < minY || y > maxY) return false;
+        if (x < bounds.getMinX() || x > bounds.getMaxX() || z < bounds.getMinZ() || z > bounds.getMaxZ()) return false;
+        return containsColumn(x, z);
+    }
+
+    // Even-odd test on cell coordinates; vertices and edges count as inside
+    private boolean containsColumn(int x, int z) {
+        boolean inside = false;
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            if (onSegment(xs[j], zs[j], xs[i], zs[i], x, z)) return true;
+            if ((zs[i] > z) != (zs[j] > z)) {
+                double crossX = xs[i] + (double) (z - zs[i]) * (xs[j] - xs[i]) / (zs[j] - zs[i]);
+                if (x < crossX) inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    @Override
+    public BlockBox getBounds() {
+        return bounds;
+    }
+
+    @Override
+    public Coverage classify(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        if (maxY < this.minY || minY > this.maxY
+            || maxX < bounds.getMinX() || minX > bounds.getMaxX()
+            || maxZ < bounds.getMinZ() || minZ > bounds.getMaxZ()) {
+            return Coverage.OUTSIDE;
+        }
+
+        // An edge crossing the box means some columns are in and some out
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            if (segmentTouchesBox(xs[j], zs[j], xs[i], zs[i], minX, minZ, maxX, maxZ)) {
+                return Coverage.PARTIAL;
+            }
+        }
+
+        // No edge inside: the whole footprint is on one side of the outline
+        if (!containsColumn(minX, minZ)) return Coverage.OUTSIDE;
+        return minY >= this.minY && maxY <= this.maxY ? Coverage.INSIDE : Coverage.PARTIAL;
+    }
+
+    @Override
+    public String getName() {
+        return "Polygon";
+    }
+
+    private static boolean onSegment(int ax, int az, int bx, int bz, int px, int pz) {
+        long cross = (long) (bx - ax) * (pz - az) - (long) (bz - az) * (px - ax);
+        return cross == 0
+            && px >= Math.min(ax, bx) && px <= Math.max(ax, bx)
+            && pz >= Math.min(az, bz) && pz <= Math.max(az, bz);
+    }
+
+    private static boolean segmentTouchesBox(int ax, int az, int bx, int bz, int minX, int minZ, int maxX, int maxZ) {
+        // Liang-Barsky clip of the segment against the box
+        double t0 = 0.0, t1 = 1.0;
+        double dx = bx - ax, dz = bz - az;
+        double[] p = {-dx, dx, -dz, dz};
+        double[] q = {ax - minX, maxX - ax, az - minZ, maxZ - az};
+        for (int k = 0; k < 4; k++) {
+            if (p[k] == 0) {
+                if (q[k] < 0) return false;
+            } else {
+                double t = q[k] / p[k];
+                if (p[k] < 0) {
+                    t0 = Math.max(t0, t);
+                } else {
+                    t1 = Math.min(t1, t);
+                }
+                if (t0 > t1) return false;
+            }
+        }
+        return true;
+    }
+}
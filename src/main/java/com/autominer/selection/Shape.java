@@ -0,0 +1,32 @@
+package com.autominer.selection;
+
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * A mining selection as a membership function over block cells. Besides the
+ * per-cell test, a shape classifies whole boxes (chunk sections) so queue
+ * construction can skip or accept 4096 cells at a time.
+ */
+public interface Shape {
+
+    enum Coverage {
+        INSIDE,    // Every cell in the box is selected
+        OUTSIDE,   // No cell in the box is selected
+        PARTIAL    // Cells have to be tested one by one
+    }
+
+    boolean contains(int x, int y, int z);
+
+    // Tight bounding box of all selected cells
+    BlockBox getBounds();
+
+    // Conservative: may answer PARTIAL for a box that is fully inside or outside
+    Coverage classify(int minX, int minY, int minZ, int maxX, int maxY, int maxZ);
+
+    String getName();
+
+    default boolean contains(BlockPos pos) {
+        return contains(pos.getX(), pos.getY(), pos.getZ());
+    }
+}
@@ -0,0 +1,64 @@
+package com.autominer.selection;
+
+import net.minecraft.util.math.BlockPos;
+
+import java.util.List;
+
+/**
+ * Selection shapes the player can cycle through, and how each is built from
+ * the two selected positions (plus the outline vertices for polygons).
+ */
+public enum ShapeMode {
+    CUBOID("Cuboid", "corner to corner"),
+    SPHERE("Sphere", "pos1 = centre, pos2 = edge"),
+    CYLINDER("Cylinder", "pos1 = base centre, pos2 = edge and height"),
+    ELLIPSOID("Ellipsoid", "fits the box between pos1 and pos2"),
+    SLOPE("Slope", "pos1 = top step, pos2 = bottom step"),
+    POLYGON("Polygon", "pos1 adds a vertex, pos2 = height");
+
+    // Headroom above each step of a staircase
+    private static final int SLOPE_CLEARANCE = 3;
+
+    private final String displayName;
+    private final String hint;
+
+    ShapeMode(String displayName, String hint) {
+        this.displayName = displayName;
+        this.hint = hint;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public String getHint() {
+        return hint;
+    }
+
+    public ShapeMode next() {
+        ShapeMode[] modes = values();
+        return modes[(ordinal() + 1) % modes.length];
+    }
+
+    // Null if the positions collected so far don't define this shape yet
+    public Shape create(BlockPos pos1, BlockPos pos2, List<BlockPos> vertices) {
+        if (this == POLYGON) {
+            if (vertices.size() < 3 || pos2 == null) return null;
+            int minY = pos2.getY();
+            int maxY = pos2.getY();
+            for (BlockPos vertex : vertices) {
+                minY = Math.min(minY, vertex.getY());
+                maxY = Math.max(maxY, vertex.getY());
+            }
+            return new PolygonPrism(vertices, minY, maxY);
+        }
+        if (pos1 == null || pos2 == null) return null;
+        return switch (this) {
+            case SPHERE -> Sphere.through(pos1, pos2);
+            case CYLINDER -> Cylinder.through(pos1, pos2);
+            case ELLIPSOID -> Ellipsoid.inscribed(pos1, pos2);
+            case SLOPE -> new Slope(pos1, pos2, SLOPE_CLEARANCE);
+            default -> new Cuboid(pos1, pos2);
+        };
+    }
+}
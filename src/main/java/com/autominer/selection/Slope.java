@@ -0,0 +1,84 @@
+package com.autominer.selection;
+
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Staircase between two corners: the floor steps from the first corner's height
+ * to the second's along the longer horizontal axis, and everything from the floor
+ * up to the clearance height is selected.
+ */
+public class Slope implements Shape {
+
+    private final int startY, endY;
+    private final int startAlong, length;   // Position of the first corner and run length on the walk axis
+    private final int alongSign;
+    private final boolean alongZ;
+    private final int clearance;
+    private final int minX, minZ, maxX, maxZ;
+    private final BlockBox bounds;
+
+    public Slope(BlockPos top, BlockPos bottom, int clearance) {
+        this.alongZ = Math.abs(bottom.getZ() - top.getZ()) >= Math.abs(bottom.getX() - top.getX());
+        int from = alongZ ? top.getZ() : top.getX();
+        int to = alongZ ? bottom.getZ() : bottom.getX();
+        this.startAlong = from;
+        this.length = Math.abs(to - from);
+        this.alongSign = to >= from ? 1 : -1;
+        this.startY = top.getY();
+        this.endY = bottom.getY();
+        this.clearance = Math.max(1, clearance);
+        this.minX = Math.min(top.getX(), bottom.getX());
+        this.minZ = Math.min(top.getZ(), bottom.getZ());
+        this.maxX = Math.max(top.getX(), bottom.getX());
+        this.maxZ = Math.max(top.getZ(), bottom.getZ());
+        this.bounds = new BlockBox(minX, Math.min(startY, endY), minZ,
+            maxX, Math.max(startY, endY) + this.clearance - 1, maxZ);
+    }
+
+    // Floor height at a step along the walk axis (0 = first corner)
+    private int floorAt(int step) {
+        if (length == 0) return startY;
+        return startY + Math.round((endY - startY) * (float) step / length);
+    }
+
+    private int stepOf(int x, int z) {
+        return ((alongZ ? z : x) - startAlong) * alongSign;
+    }
+
+    @Override
+    public boolean contains(int x, int y, int z) {
+        if (x < minX || x > maxX || z < minZ || z > maxZ) return false;
+        int floor = floorAt(stepOf(x, z));
+        return y >= floor && y < floor + clearance;
+    }
+
+    @Override
+    public BlockBox getBounds() {
+        return bounds;
+    }
+
+    @Override
+    public Coverage classify(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        int clipMinX = Math.max(minX, this.minX), clipMaxX = Math.min(maxX, this.maxX);
+        int clipMinZ = Math.max(minZ, this.minZ), clipMaxZ = Math.min(maxZ, this.maxZ);
+        if (clipMinX > clipMaxX || clipMinZ > clipMaxZ) return Coverage.OUTSIDE;
+
+        // The floor is monotonic along the walk axis, so its extremes sit at the clipped ends
+        int floorA = floorAt(stepOf(clipMinX, clipMinZ));
+        int floorB = floorAt(stepOf(clipMaxX, clipMaxZ));
+        int lowFloor = Math.min(floorA, floorB);
+        int highFloor = Math.max(floorA, floorB);
+
+        if (maxY < lowFloor || minY > highFloor + clearance - 1) return Coverage.OUTSIDE;
+
+        boolean fullFootprint = clipMinX == minX && clipMaxX == maxX && clipMinZ == minZ && clipMaxZ == maxZ;
+        if (fullFootprint && minY >= highFloor && maxY <= lowFloor + clearance - 1) return Coverage.INSIDE;
+        return Coverage.PARTIAL;
+    }
+
+    @Override
+    public String getName() {
+        return "Slope";
+    }
+}
@@ -0,0 +1,23 @@
+package com.autominer.selection;
+
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Ball around a centre block.
+ */
+public class Sphere extends Ellipsoid {
+
+    public Sphere(BlockPos center, double radius) {
+        super(center.getX(), center.getY(), center.getZ(), radius, radius, radius);
+    }
+
+    // Centred on the first corner, reaching the second
+    public static Sphere through(BlockPos center, BlockPos edge) {
+        return new Sphere(center, Math.sqrt(center.getSquaredDistance(edge)));
+    }
+
+    @Override
+    public String getName() {
+        return "Sphere";
+    }
+}